@@ -0,0 +1,186 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Object stores borrowed from other repositories. The file
+ * .gitlet/alternates lists .gitlet directories, one per line, whose
+ * commits, blobs and chunks this repository reads when it does not have
+ * them itself; new objects are always written locally, and the other
+ * stores are never written. A clone made by "clone SOURCE [DIRECTORY]"
+ * borrows everything from SOURCE this way, so it starts with no objects
+ * of its own. Collecting garbage in SOURCE can remove objects its clones
+ * still use.
+ * @author Pauline Tang */
+class Alternates {
+
+    /** Borrowed .gitlet directories of each .gitlet directory, once
+     * read. Shared by the threads of gc and fsck. */
+    private static final Map<File, List<File>> DIRS =
+        new ConcurrentHashMap<File, List<File>>();
+
+    /** Return the file holding object ID of the kind kept in FOLDER (the
+     * commits, blobs or chunks folder of some repository): the one in
+     * FOLDER if it exists or no store has it, otherwise the first one
+     * borrowed by that repository that does.
+     * @param folder object folder.
+     * @param id object id. */
+    static File find(File folder, String id) {
+        File f = Utils.join(folder, id);
+        List<File> dirs = dirs(folder.getParentFile());
+        if (dirs.isEmpty() || f.exists()) {
+            return f;
+        }
+        for (File dir : dirs) {
+            File g = Utils.join(dir, folder.getName(), id);
+            if (g.exists()) {
+                return g;
+            }
+        }
+        return f;
+    }
+
+    /** Return the ids of the objects in FOLDER and in the same folder of
+     * every store its repository borrows, in order.
+     * @param folder object folder. */
+    static List<String> filenamesIn(File folder) {
+        TreeSet<String> names =
+            new TreeSet<String>(Utils.plainFilenamesIn(folder));
+        for (File dir : dirs(folder.getParentFile())) {
+            List<String> more =
+                Utils.plainFilenamesIn(Utils.join(dir, folder.getName()));
+            if (more != null) {
+                names.addAll(more);
+            }
+        }
+        return new ArrayList<String>(names);
+    }
+
+    /** Return the .gitlet directories borrowed by the repository whose
+     * .gitlet directory is GITLET.
+     * @param gitlet .gitlet directory. */
+    static List<File> dirs(File gitlet) {
+        return DIRS.computeIfAbsent(gitlet, Alternates::read);
+    }
+
+    /** Return the .gitlet directories listed in the alternates file of
+     * the .gitlet directory GITLET.
+     * @param gitlet .gitlet directory. */
+    private static List<File> read(File gitlet) {
+        List<File> dirs = new ArrayList<File>();
+        File f = Utils.join(gitlet, "alternates");
+        if (f.exists()) {
+            for (String line : Utils.readContentsAsString(f).split("\n")) {
+                if (!line.isBlank()) {
+                    dirs.add(new File(line.trim()));
+                }
+            }
+        }
+        return Collections.unmodifiableList(dirs);
+    }
+
+    /** Forget the list read so far, as when switching repositories. */
+    static void clear() {
+        DIRS.clear();
+    }
+
+    /** Runs "clone SOURCE [DIRECTORY]": makes DIRECTORY (by default one
+     * named after SOURCE, in the working directory) a repository with the
+     * branches (fetched ones too) and history of SOURCE, borrowing its
+     * objects, and checks out its current branch. SOURCE becomes the
+     * remote "origin".
+     * @param args operands following "clone". */
+    static void cloneRepository(String... args) {
+        if (args.length < 1 || args.length > 2) {
+            throw Utils.error("Incorrect operands.");
+        }
+        File source = resolve(args[0]);
+        if (!Utils.join(source, "commits").isDirectory()) {
+            source = Utils.join(source, ".gitlet");
+        }
+        if (!Utils.join(source, "commits").isDirectory()) {
+            throw Utils.error("Remote directory not found.");
+        }
+        source = source.getAbsoluteFile();
+        File dest = args.length == 2 ? resolve(args[1])
+            : resolve(source.getParentFile().getName());
+        File gitlet = Utils.join(dest, ".gitlet");
+        if (gitlet.exists()) {
+            throw Utils.error("A Gitlet version-control system already "
+                    + "exists in that directory.");
+        }
+
+        dest.mkdirs();
+        gitlet.mkdir();
+        for (String folder : new String[] {"commits", "blobs", "branches"}) {
+            Utils.join(gitlet, folder).mkdir();
+        }
+        try {
+            for (String name : new String[] {"tree", "commit-graph",
+                                             "bitmaps"}) {
+                copy(Utils.join(source, name), Utils.join(gitlet, name));
+            }
+            File branches = Utils.join(source, "branches");
+            for (String name : Branch.names(branches)) {
+                File to = Utils.join(gitlet, "branches", name);
+                to.getParentFile().mkdirs();
+                copy(Utils.join(branches, name), to);
+            }
+        } catch (IOException e) {
+            throw Utils.error("Cannot clone: %s", e.getMessage());
+        }
+        StringBuilder alternates = new StringBuilder(source.getPath());
+        alternates.append('\n');
+        File inherited = Utils.join(source, "alternates");
+        if (inherited.exists()) {
+            alternates.append(Utils.readContentsAsString(inherited));
+        }
+        Utils.writeContents(Utils.join(gitlet, "alternates"),
+                            alternates.toString());
+
+        File cwd = Main.getCWD();
+        Main.setCWD(dest);
+        try {
+            new Stage().saveStage();
+            Config.set("remote.origin.path", source.getPath());
+            LargeFiles.inherit(source);
+            Tree t = Main.getTree();
+            String head = Branch.getBranch(t.getHeadBranch()).getHeadCommit();
+            HashMap<String, String> files =
+                Commit.getCommit(head).getFilesTracked();
+            for (Map.Entry<String, String> e : files.entrySet()) {
+                Materializer.materialize(e.getValue(),
+                                         Utils.join(dest, e.getKey()));
+            }
+        } finally {
+            Main.setCWD(cwd);
+        }
+    }
+
+    /** Return PATH, taken relative to the working directory.
+     * @param path file name. */
+    private static File resolve(String path) {
+        File f = new File(path);
+        return f.isAbsolute() ? f : new File(Main.getCWD(), path);
+    }
+
+    /** Copy FROM to TO, if FROM exists.
+     * @param from source file.
+     * @param to destination file. */
+    private static void copy(File from, File to) throws IOException {
+        if (from.exists()) {
+            Files.copy(from.toPath(), to.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+package gitlet;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/** The batch command: runs the commands listed in a file, or on the
+ * standard input, one per line, in one process. Blank lines and lines
+ * starting with "#" are skipped; words are separated by spaces, and may
+ * be quoted with "..." or '...', so that
+ *     commit "Fix the parser"
+ * has one operand. After each command, a line
+ *     exit STATUS: COMMAND
+ * gives its status, 0 if it succeeded and 1 if it failed, with its error
+ * message printed as usual. A command that fails in any way fails alone;
+ * the batch goes on. The process exits with 1 if any command failed.
+ *
+ * While a batch runs, the stage and the commit tree are kept in memory,
+ * serialized, and written back only at the end or at a "checkpoint" line.
+ * Each command reads them as the one before it saved them, as it would on
+ * its own. Their state is also copied whenever a command ends, and if the
+ * process is stopped, that copy is written: the command running then is
+ * dropped rather than written half done.
+ * @author Pauline Tang */
+class Batch {
+
+    /** The .gitlet directory whose files are held, or null when no batch
+     * is running. */
+    private static File _dir;
+
+    /** Serialized contents of the files held, by file. */
+    private static final Map<File, byte[]> HELD = new HashMap<File, byte[]>();
+
+    /** Files held that have changed since they were written. */
+    private static final HashSet<File> DIRTY = new HashSet<File>();
+
+    /** Contents of the changed files as the last command to end left
+     * them. */
+    private static final Map<File, byte[]> ENDED = new HashMap<File, byte[]>();
+
+    /** Runs batch.
+     * @param args operands following "batch": an optional file name. */
+    static void batch(String... args) {
+        if (args.length > 1) {
+            throw Utils.error("Incorrect operands.");
+        }
+        int commands = 0;
+        int failed = 0;
+        try (BufferedReader in = open(args)) {
+            _dir = Main.getGitletDir();
+            Thread hook = new Thread(Batch::flushEnded);
+            Runtime.getRuntime().addShutdownHook(hook);
+            try {
+                for (String line = in.readLine(); line != null;
+                     line = in.readLine()) {
+                    line = line.strip();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    int status = run(line);
+                    ended();
+                    System.out.println("exit " + status + ": " + line);
+                    commands += 1;
+                    failed += status;
+                }
+                flush();
+            } finally {
+                flushEnded();
+                _dir = null;
+                HELD.clear();
+                DIRTY.clear();
+                Runtime.getRuntime().removeShutdownHook(hook);
+            }
+        } catch (IOException e) {
+            throw Utils.error("Cannot read batch: %s", e.getMessage());
+        }
+        System.out.println("Ran " + commands + " command(s), " + failed
+                           + " failed.");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /** Return a reader of the batch file named in ARGS, or of the standard
+     * input if none.
+     * @param args operands of batch. */
+    private static BufferedReader open(String[] args) throws IOException {
+        if (args.length == 0) {
+            return new BufferedReader(
+                new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+        File f = new File(args[0]);
+        if (!f.isAbsolute()) {
+            f = Utils.join(Main.getCWD(), args[0]);
+        }
+        if (!f.isFile()) {
+            throw Utils.error("File does not exist.");
+        }
+        return Files.newBufferedReader(f.toPath());
+    }
+
+    /** Run the command on LINE and return its status.
+     * @param line a line of the batch. */
+    private static int run(String line) {
+        try {
+            String[] args = split(line);
+            switch (args[0]) {
+            case "checkpoint":
+                if (args.length != 1) {
+                    throw Utils.error("Incorrect operands.");
+                }
+                flush();
+                break;
+            case "batch":
+            case "watch":
+                throw Utils.error("Cannot run %s in a batch.", args[0]);
+            default:
+                Main.run(args);
+            }
+            return 0;
+        } catch (GitletException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        } catch (IndexOutOfBoundsException e) {
+            System.out.println("Incorrect operands.");
+        } catch (RuntimeException e) {
+            System.out.println(e);
+        }
+        return 1;
+    }
+
+    /** Return the words of LINE, which may be quoted.
+     * @param line a command line. */
+    private static String[] split(String line) {
+        List<String> words = new ArrayList<String>();
+        StringBuilder word = null;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i += 1) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    word.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (word != null) {
+                    words.add(word.toString());
+                    word = null;
+                }
+            } else {
+                if (word == null) {
+                    word = new StringBuilder();
+                }
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                } else {
+                    word.append(c);
+                }
+            }
+        }
+        if (quote != 0) {
+            throw Utils.error("Unterminated quote.");
+        }
+        if (word != null) {
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /** Return the object of class EXPECTEDCLASS stored in FILE, reading
+     * it from memory if FILE is held by a batch.
+     * @param file file holding a serialized object.
+     * @param expectedclass its class. */
+    static synchronized <T extends Serializable> T readObject(
+            File file, Class<T> expectedclass) {
+        if (!held(file)) {
+            return Utils.readObject(file, expectedclass);
+        }
+        byte[] bytes = HELD.get(file);
+        if (bytes == null) {
+            bytes = Utils.readContents(file);
+            HELD.put(file, bytes);
+        }
+        try (ObjectInputStream in =
+                 new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return expectedclass.cast(in.readObject());
+        } catch (IOException | ClassCastException
+                 | ClassNotFoundException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Store OBJ in FILE, or in memory if FILE is held by a batch.
+     * @param file file to hold the serialized object.
+     * @param obj object. */
+    static synchronized void writeObject(File file, Serializable obj) {
+        if (!held(file)) {
+            Utils.writeObject(file, obj);
+            return;
+        }
+        HELD.put(file, Utils.serialize(obj));
+        DIRTY.add(file);
+    }
+
+    /** Write every held file that has changed. */
+    static synchronized void flush() {
+        for (File f : DIRTY) {
+            Utils.writeContents(f, HELD.get(f));
+            Trace.objectWritten();
+        }
+        DIRTY.clear();
+        ENDED.clear();
+    }
+
+    /** Note the held files that have changed as they are now, between
+     * commands. */
+    private static synchronized void ended() {
+        for (File f : DIRTY) {
+            ENDED.put(f, HELD.get(f));
+        }
+    }
+
+    /** Write the changed files as the last command to end left them. */
+    private static synchronized void flushEnded() {
+        for (Map.Entry<File, byte[]> e : ENDED.entrySet()) {
+            Utils.writeContents(e.getKey(), e.getValue());
+        }
+        ENDED.clear();
+    }
+
+    /** Return true iff FILE is held in memory by a running batch.
+     * @param file file. */
+    private static boolean held(File file) {
+        return _dir != null && _dir.equals(file.getParentFile());
+    }
+
+}
@@ -0,0 +1,69 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Tests of batch mode.
+ *  @author Pauline Tang
+ */
+public class BatchTest {
+
+    @Test
+    public void statusLines() {
+        UnitTest.newRepo();
+        UnitTest.write("a.txt", "hello\n");
+        UnitTest.write("cmds", "# setup\n\nadd a.txt\ncommit \"add a\"\n");
+        String out = UnitTest.output("batch", "cmds");
+        assertEquals("exit 0: add a.txt\nexit 0: commit \"add a\"\n"
+                     + "Ran 2 command(s), 0 failed.\n", out);
+        Commit head = Main.getTree().getHeadCommit();
+        assertEquals("add a", head.getMessage());
+        assertTrue(Main.getStage().getAddition().isEmpty());
+    }
+
+    @Test
+    public void sameMessageInOneSecond() {
+        UnitTest.newRepo();
+        StringBuilder cmds = new StringBuilder();
+        for (int i = 0; i < 8; i += 1) {
+            UnitTest.write(i + ".txt", i + "\n");
+            cmds.append("add ").append(i).append(".txt\ncommit wip\n");
+        }
+        UnitTest.write("cmds", cmds.toString());
+        String out = UnitTest.output("batch", "cmds");
+        assertTrue(out, out.endsWith("Ran 16 command(s), 0 failed.\n"));
+        Commit c = Main.getTree().getHeadCommit();
+        for (int i = 7; i >= 0; i -= 1) {
+            assertEquals("wip", c.getMessage());
+            assertEquals(i + 1, c.getFilesTracked().size());
+            c = Commit.getCommit(c.getParentHash());
+        }
+        assertEquals("initial commit", c.getMessage());
+    }
+
+    @Test
+    public void failureSetsExitCode()
+        throws IOException, InterruptedException {
+        File dir = UnitTest.newRepo();
+        UnitTest.write("a.txt", "hello\n");
+        UnitTest.write("cmds", "rm missing.txt\nadd a.txt\n");
+        Process p = new ProcessBuilder(
+            new File(System.getProperty("java.home"), "bin/java").getPath(),
+            "-cp", System.getProperty("java.class.path"),
+            "gitlet.Main", "batch", "cmds")
+            .directory(dir).redirectErrorStream(true).start();
+        String out = new String(p.getInputStream().readAllBytes(),
+                                StandardCharsets.UTF_8);
+        assertEquals(1, p.waitFor());
+        assertEquals("No reason to remove the file.\n"
+                     + "exit 1: rm missing.txt\nexit 0: add a.txt\n"
+                     + "Ran 2 command(s), 1 failed.\n", out);
+        Main.setCWD(dir);
+        assertTrue(Main.getStage().getAddition().containsKey("a.txt"));
+    }
+
+}
@@ -0,0 +1,140 @@
+package gitlet;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** The blame command: for each line of a file in the head commit, the
+ * commit that last changed it. History is walked through the commit
+ * index back to the nearest commit whose origins are cached (or where
+ * the file did not exist), and origins are then carried forward commit
+ * by commit, diffing each new version of the file against the last.
+ * The result is cached in .gitlet/blame under the (commit, path) pair, so
+ * blaming the file again after more commits only diffs the new ones.
+ * @author Pauline Tang */
+class Blame {
+
+    /** Runs "blame FILENAME".
+     * @param args operands following "blame". */
+    static void blame(String... args) {
+        if (args.length != 1) {
+            throw Utils.error("Incorrect operands.");
+        }
+        String path = Main.path(args[0]);
+        Tree t = Main.getTree();
+        String head = Branch.getBranch(t.getHeadBranch()).getHeadCommit();
+        String blob = Commit.getCommit(head).getFilesTracked().get(path);
+        if (blob == null) {
+            throw Utils.error("File does not exist in that commit.");
+        }
+        String[] origins = origins(head, path);
+        List<String> lines = Diff.lines(LargeFiles.contents(blob));
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        Map<String, String> stamps = new HashMap<String, String>();
+        for (int i = 0; i < lines.size(); i += 1) {
+            String id = origins[i];
+            String stamp = stamps.computeIfAbsent(
+                id, k -> Commit.getCommit(k).getTimestamp());
+            String line = lines.get(i);
+            if (line.endsWith("\n")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            out.printf("%s (%s %5d) %s%n", id.substring(0, 8), stamp,
+                       i + 1, line);
+        }
+        out.flush();
+    }
+
+    /** Return, for each line of PATH in commit COMMITID, the id of the
+     * commit that introduced it, caching the answer.
+     * @param commitid full commit hash.
+     * @param path tracked file name. */
+    static String[] origins(String commitid, String path) {
+        CommitGraph g = CommitGraph.load();
+        List<String> pending = new ArrayList<String>();
+        String[] origins = new String[0];
+        String prevblob = null;
+        for (int pos = g.position(commitid); pos >= 0; pos = g.parent(pos)) {
+            String id = g.id(pos);
+            String blob = Commit.getCommit(id).getFilesTracked().get(path);
+            if (blob == null) {
+                break;
+            }
+            File cached = cacheFile(id, path);
+            if (cached.exists()) {
+                origins = Utils.readObject(cached, String[].class);
+                prevblob = blob;
+                break;
+            }
+            pending.add(id);
+        }
+        g.save();
+        if (pending.isEmpty()) {
+            return origins;
+        }
+
+        List<String> prevlines = null;
+        for (int i = pending.size() - 1; i >= 0; i -= 1) {
+            String id = pending.get(i);
+            String blob = Commit.getCommit(id).getFilesTracked().get(path);
+            if (blob.equals(prevblob)) {
+                continue;
+            }
+            if (prevlines == null) {
+                prevlines = prevblob == null ? new ArrayList<String>()
+                    : Diff.lines(LargeFiles.contents(prevblob));
+            }
+            List<String> lines = Diff.lines(LargeFiles.contents(blob));
+            origins = carry(origins, prevlines, lines, id);
+            prevlines = lines;
+            prevblob = blob;
+        }
+
+        Main.getBlameFolder().mkdir();
+        Utils.writeObject(cacheFile(commitid, path), origins);
+        return origins;
+    }
+
+    /** Return the origins of NEWLINES, given ORIGINS of OLDLINES, lines
+     * inserted by commit ID being its own.
+     * @param origins origin of each old line.
+     * @param oldlines old version.
+     * @param newlines new version.
+     * @param id commit making the new version. */
+    private static String[] carry(String[] origins, List<String> oldlines,
+                                  List<String> newlines, String id) {
+        Map<String, Integer> numbers = new HashMap<String, Integer>();
+        Diff d = new Diff(Diff.number(oldlines, numbers),
+                          Diff.number(newlines, numbers));
+        String[] result = new String[newlines.size()];
+        int i = 0;
+        for (int j = 0; j < result.length; j += 1) {
+            while (i < oldlines.size() && d.deleted(i)) {
+                i += 1;
+            }
+            if (d.inserted(j)) {
+                result[j] = id;
+            } else {
+                result[j] = origins[i];
+                i += 1;
+            }
+        }
+        return result;
+    }
+
+    /** Return the cache file of the origins of PATH in COMMITID.
+     * @param commitid full commit hash.
+     * @param path file name. */
+    private static File cacheFile(String commitid, String path) {
+        return Utils.join(Main.getBlameFolder(), Utils.sha1(commitid, path));
+    }
+
+}
@@ -0,0 +1,76 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of blame and its cache.
+ *  @author Pauline Tang
+ */
+public class BlameTest {
+
+    /** Commit CONTENTS as f.txt and return the new head commit id.
+     * @param contents new contents. */
+    private static String commit(String contents) {
+        UnitTest.commitFile("f.txt", contents);
+        return Main.getTree().getHeadCommit().getIdentifier();
+    }
+
+    @Test
+    public void origins() {
+        UnitTest.newRepo();
+        String c1 = commit("a\nb\nc\n");
+        String c2 = commit("a\nB\nc\n");
+        UnitTest.commitFile("other.txt", "x\n");
+        String c3 = commit("a\nB\nc\nd\n");
+        assertArrayEquals(new String[] {c1, c2, c1, c3},
+                          Blame.origins(c3, "f.txt"));
+        String out = UnitTest.output("blame", "f.txt");
+        String[] lines = out.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[1], lines[1].startsWith(c2.substring(0, 8) + " ("));
+        assertTrue(lines[1], lines[1].endsWith("    2) B"));
+        assertTrue(lines[3], lines[3].endsWith("    4) d"));
+    }
+
+    @Test
+    public void startsFromCache() {
+        UnitTest.newRepo();
+        commit("a\nb\n");
+        String c2 = commit("a\nb\nc\n");
+        Blame.origins(c2, "f.txt");
+        File[] cached = Main.getBlameFolder().listFiles();
+        assertEquals(1, cached.length);
+        String[] fake = {"cached a", "cached b", "cached c"};
+        Utils.writeObject(cached[0], fake);
+        String c3 = commit("a\nB\nc\n");
+        assertArrayEquals(new String[] {"cached a", c3, "cached c"},
+                          Blame.origins(c3, "f.txt"));
+        assertEquals(2, Main.getBlameFolder().listFiles().length);
+    }
+
+    @Test
+    public void restartsWhenReadded() {
+        UnitTest.newRepo();
+        commit("a\nb\n");
+        Main.run("rm", "f.txt");
+        Main.commit("remove f.txt");
+        String c3 = commit("a\nb\n");
+        assertArrayEquals(new String[] {c3, c3}, Blame.origins(c3, "f.txt"));
+    }
+
+    @Test
+    public void notTracked() {
+        UnitTest.newRepo();
+        commit("a\n");
+        try {
+            Main.run("blame", "missing.txt");
+            fail("blamed an untracked file");
+        } catch (GitletException e) {
+            assertEquals("File does not exist in that commit.",
+                         e.getMessage());
+        }
+    }
+
+}
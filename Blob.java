@@ -1,13 +1,61 @@
 package gitlet;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /** The contents of a file.
+ *
+ * A blob is stored in the blobs folder, under its identifier, as a short
+ * header followed by the raw file contents:
+ *     magic "GLB1" (4 bytes), flags (1 byte), filename length (int),
+ *     filename (UTF-8), contents length (long), contents.
+ * Because the contents sit unchanged at a known offset, checkout can
+ * copy them straight from the object file into the working file.
+ * Contents of at least chunk.threshold bytes are instead split by Chunker
+ * into content-defined chunks stored once each in .gitlet/chunks; such a
+ * blob has the CHUNKED flag, and its contents length is followed by the
+ * number of chunks (int) and their ids (40 ASCII hex digits each).
+ * A blob whose contents are a pointer to a large file kept out of the
+ * store (see LargeFiles) has the POINTER flag and is otherwise raw; only
+ * the flag makes a blob a pointer, never its contents.
+ * Blobs written by older versions of gitlet are serialized Blob objects;
+ * these are still read.
  * @author Pauline Tang
  */
 public class Blob implements Serializable {
 
+    /** Matches blobs serialized by older versions. */
+    private static final long serialVersionUID = -8738762156998427330L;
+
+    /** First bytes of a blob file in the raw format. */
+    private static final byte[] MAGIC = {'G', 'L', 'B', '1'};
+
+    /** Flags value for contents stored as they are. */
+    static final byte RAW = 0;
+
+    /** Flags value for contents stored as a list of chunks. */
+    static final byte CHUNKED = 1;
+
+    /** Flags value for contents that are a pointer to a large file. */
+    static final byte POINTER = 2;
+
+    /** Length of a chunk id. */
+    private static final int ID_LENGTH = 40;
+
     /** Filename. */
     private String _filename;
 
@@ -17,6 +65,9 @@ public class Blob implements Serializable {
     /** Contents. */
     private String _contents;
 
+    /** True iff the contents are a pointer to a large file. */
+    private boolean _pointer;
+
     /** Creates a blob object with specified parameters.
      * @param filename Name of file
      * @param contents String of contents of file. */
@@ -26,10 +77,280 @@ public class Blob implements Serializable {
         _identifier = Utils.sha1(filename, contents);
     }
 
-    /** Serialize the Blob object. */
+    /** Creates a blob object with specified parameters, holding a
+     * pointer to a large file if POINTER.
+     * @param filename Name of file
+     * @param contents String of contents of file.
+     * @param pointer whether CONTENTS is a pointer. */
+    Blob(String filename, String contents, boolean pointer) {
+        this(filename, contents);
+        _pointer = pointer;
+    }
+
+    /** Creates a blob object read from the object store.
+     * @param filename Name of file
+     * @param identifier hash of the blob.
+     * @param contents String of contents of file. */
+    private Blob(String filename, String identifier, String contents) {
+        _filename = filename;
+        _identifier = identifier;
+        _contents = contents;
+    }
+
+    /** Write the Blob to the object store, unless it is already there. */
     public void saveBlob() {
         File f = Utils.join(Main.getBlobsFolder(), _identifier);
-        Utils.writeObject(f, this);
+        if (ObjectIndex.contains(ObjectIndex.BLOB, _identifier)
+                && f.exists()) {
+            return;
+        }
+        BlobEvent event = new BlobEvent();
+        event.begin();
+        byte[] name = _filename.getBytes(StandardCharsets.UTF_8);
+        byte[] contents = _contents.getBytes(StandardCharsets.UTF_8);
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(f.toPath())))) {
+            boolean chunked =
+                !_pointer && Chunker.shouldChunk(contents.length);
+            out.write(MAGIC);
+            out.writeByte(_pointer ? POINTER : chunked ? CHUNKED : RAW);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeLong(contents.length);
+            if (chunked) {
+                List<String> chunks = Chunker.store(contents);
+                out.writeInt(chunks.size());
+                for (String id : chunks) {
+                    out.writeBytes(id);
+                }
+            } else {
+                out.write(contents);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        ObjectIndex.added(ObjectIndex.BLOB, _identifier);
+        Trace.objectWritten();
+        Trace.bytesWritten(f.length());
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "write";
+            event.id = _identifier;
+            event.filename = _filename;
+            event.size = contents.length;
+            event.commit();
+        }
+    }
+
+    /** Return the Blob object with the given hash.
+     * @param blobhash blob hash. */
+    public static Blob getBlob(String blobhash) {
+        BlobEvent event = new BlobEvent();
+        event.begin();
+        File f = Alternates.find(Main.getBlobsFolder(), blobhash);
+        Blob b;
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            Header h = Header.read(in);
+            if (h == null) {
+                b = Utils.readObject(f, Blob.class);
+            } else if (h._flags == CHUNKED) {
+                byte[] buf = new byte[(int) h._length];
+                int pos = 0;
+                for (String id : h._chunks) {
+                    byte[] chunk = Utils.readContents(Chunker.chunkFile(id));
+                    System.arraycopy(chunk, 0, buf, pos, chunk.length);
+                    pos += chunk.length;
+                }
+                String contents = new String(buf, StandardCharsets.UTF_8);
+                b = new Blob(h._filename, blobhash, contents);
+                Trace.objectRead(in.size());
+            } else {
+                ByteBuffer buf = ByteBuffer.allocate((int) h._length);
+                Header.readFully(in, buf, h._offset);
+                String contents =
+                    new String(buf.array(), StandardCharsets.UTF_8);
+                b = new Blob(h._filename, blobhash, contents);
+                b._pointer = h._flags == POINTER;
+                Trace.objectRead(h._offset + h._length);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "read";
+            event.id = blobhash;
+            event.filename = b._filename;
+            event.size = b._contents.length();
+            event.commit();
+        }
+        return b;
+    }
+
+    /** Write the contents of the blob with hash BLOBHASH to DEST, creating
+     * or overwriting it. Raw blobs are copied from the object file, and
+     * chunked ones from their chunk files, with FileChannel.transferTo,
+     * without passing through the heap. A pointer blob is replaced by the
+     * large file it points to.
+     * @param blobhash blob hash.
+     * @param dest file to write. */
+    public static void copyTo(String blobhash, File dest) {
+        if (dest.isDirectory()) {
+            throw new IllegalArgumentException("cannot overwrite directory");
+        }
+        BlobEvent event = new BlobEvent();
+        event.begin();
+        File f = Alternates.find(Main.getBlobsFolder(), blobhash);
+        Header h;
+        String pointer = null;
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            h = Header.read(in);
+            if (h != null && h._flags == POINTER) {
+                ByteBuffer buf = ByteBuffer.allocate((int) h._length);
+                Header.readFully(in, buf, h._offset);
+                pointer = new String(buf.array(), StandardCharsets.UTF_8);
+            } else if (h != null && (h._flags == RAW
+                                     || h._flags == CHUNKED)) {
+                try (FileChannel out = FileChannel.open(dest.toPath(),
+                         StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                    if (h._flags == RAW) {
+                        transfer(in, h._offset, h._offset + h._length, out);
+                    } else {
+                        for (String id : h._chunks) {
+                            try (FileChannel chunk = FileChannel.open(
+                                     Chunker.chunkFile(id).toPath())) {
+                                transfer(chunk, 0, chunk.size(), out);
+                            }
+                        }
+                    }
+                }
+                Trace.bytesRead(h._length);
+                Trace.bytesWritten(h._length);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        if (pointer != null) {
+            LargeFiles.checkout(LargeFiles.oid(pointer), dest);
+        } else if (h == null || (h._flags != RAW && h._flags != CHUNKED)) {
+            Utils.writeContents(dest, getBlob(blobhash).getContents());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "checkout";
+            event.id = blobhash;
+            event.filename = dest.getName();
+            event.size = dest.length();
+            event.commit();
+        }
+    }
+
+    /** Return the length in bytes of the contents of the blob with hash
+     * BLOBHASH, reading only its header where possible.
+     * @param blobhash blob hash. */
+    public static long contentLength(String blobhash) {
+        File f = Alternates.find(Main.getBlobsFolder(), blobhash);
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            Header h = Header.read(in);
+            if (h != null) {
+                return h._length;
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return getBlob(blobhash).getContents()
+            .getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /** Return true iff the blob with hash BLOBHASH is a pointer to a large
+     * file, reading only its header.
+     * @param blobhash blob hash. */
+    public static boolean isPointer(String blobhash) {
+        File f = Alternates.find(Main.getBlobsFolder(), blobhash);
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            Header h = Header.read(in);
+            return h != null && h._flags == POINTER;
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Return the ids of the chunks holding the contents of the blob with
+     * hash BLOBHASH, which are none unless it is chunked.
+     * @param blobhash blob hash. */
+    public static List<String> chunks(String blobhash) {
+        return chunks(Alternates.find(Main.getBlobsFolder(), blobhash));
+    }
+
+    /** Return the ids of the chunks of the blob stored in F, which may
+     * belong to another repository.
+     * @param f blob file. */
+    public static List<String> chunks(File f) {
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            Header h = Header.read(in);
+            if (h != null && h._flags == CHUNKED) {
+                return h._chunks;
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return Collections.emptyList();
+    }
+
+    /** Return the id the blob stored in F should have, computed afresh
+     * from its name and contents, which are streamed through Hasher
+     * rather than read whole; or null if a chunk of it is missing, so that
+     * it cannot be checked. The id of a corrupt blob file is whatever its
+     * bytes hash to, so it will not match the file's name.
+     * @param f blob file. */
+    static String rehash(File f) {
+        return rehash(f, Main.getChunksFolder());
+    }
+
+    /** Return the id the blob stored in F should have, as rehash(F),
+     * taking its chunks from the chunks folder CHUNKS of the repository
+     * that holds it, or from the stores that repository borrows.
+     * @param f blob file.
+     * @param chunks chunks folder. */
+    static String rehash(File f, File chunks) {
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            Header h = Header.read(in);
+            if (h == null) {
+                Blob b = Utils.readObject(f, Blob.class);
+                return Utils.sha1(b._filename, b._contents);
+            }
+            Hasher hasher = Hasher.start().update(h._filename);
+            if (h._flags == CHUNKED) {
+                for (String id : h._chunks) {
+                    File chunk = Alternates.find(chunks, id);
+                    if (!chunk.exists()) {
+                        return null;
+                    }
+                    try (InputStream s = Files.newInputStream(chunk.toPath())) {
+                        hasher.update(s);
+                    }
+                }
+            } else {
+                in.position(h._offset);
+                hasher.update(Channels.newInputStream(in));
+            }
+            return hasher.hex();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Copy bytes POS to END of IN to OUT.
+     * @param in source channel.
+     * @param pos first byte.
+     * @param end end of the bytes.
+     * @param out destination channel. */
+    private static void transfer(FileChannel in, long pos, long end,
+                                 FileChannel out) throws IOException {
+        while (pos < end) {
+            pos += in.transferTo(pos, end - pos, out);
+        }
     }
 
     /** Getter method for the Blob's filename.
@@ -44,10 +365,82 @@ public class Blob implements Serializable {
         return _contents;
     }
 
+    /** Return true iff the contents are a pointer to a large file. */
+    public boolean isPointer() {
+        return _pointer;
+    }
+
     /** Getter method for the blob's identifier (Hash).
      * @return identifier. */
     public String getIdentifier() {
         return _identifier;
     }
 
+    /** The header of a blob file in the raw format. */
+    private static class Header {
+
+        /** Flags byte. */
+        private byte _flags;
+
+        /** Name of the file the blob holds. */
+        private String _filename;
+
+        /** Offset of the contents (or chunk count) in the blob file. */
+        private long _offset;
+
+        /** Length of the contents. */
+        private long _length;
+
+        /** Ids of the chunks of a chunked blob. */
+        private List<String> _chunks;
+
+        /** Return the header of the blob file open on IN, or null if it
+         * is a serialized Blob from an older version.
+         * @param in channel on a blob file. */
+        static Header read(FileChannel in) throws IOException {
+            ByteBuffer fixed = ByteBuffer.allocate(MAGIC.length + 1 + 4);
+            readFully(in, fixed, 0);
+            byte[] magic = Arrays.copyOf(fixed.array(), MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                return null;
+            }
+            Header h = new Header();
+            h._flags = fixed.get(MAGIC.length);
+            int namelength = fixed.getInt(MAGIC.length + 1);
+            ByteBuffer name = ByteBuffer.allocate(namelength);
+            readFully(in, name, fixed.capacity());
+            h._filename = new String(name.array(), StandardCharsets.UTF_8);
+            ByteBuffer length = ByteBuffer.allocate(8);
+            readFully(in, length, fixed.capacity() + name.capacity());
+            h._length = length.getLong(0);
+            h._offset = fixed.capacity() + name.capacity() + 8;
+            if (h._flags == CHUNKED) {
+                ByteBuffer count = ByteBuffer.allocate(4);
+                readFully(in, count, h._offset);
+                ByteBuffer ids =
+                    ByteBuffer.allocate(count.getInt(0) * ID_LENGTH);
+                readFully(in, ids, h._offset + 4);
+                String all = new String(ids.array(), StandardCharsets.US_ASCII);
+                h._chunks = new ArrayList<String>();
+                for (int i = 0; i < all.length(); i += ID_LENGTH) {
+                    h._chunks.add(all.substring(i, i + ID_LENGTH));
+                }
+            }
+            return h;
+        }
+
+        /** Fill BUF from IN, starting at file position POS.
+         * @param in channel.
+         * @param buf buffer to fill.
+         * @param pos file position. */
+        private static void readFully(FileChannel in, ByteBuffer buf,
+                                      long pos) throws IOException {
+            while (buf.hasRemaining()) {
+                if (in.read(buf, pos + buf.position()) < 0) {
+                    throw new IOException("truncated blob");
+                }
+            }
+        }
+    }
+
 }
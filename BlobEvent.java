@@ -0,0 +1,34 @@
+package gitlet;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for serializing or deserializing one blob.
+ * @author Pauline Tang */
+@Name("gitlet.Blob")
+@Label("Blob (De)serialization")
+@Category({"Gitlet", "Object Store"})
+@Description("A blob loaded from or saved to the object store")
+class BlobEvent extends jdk.jfr.Event {
+
+    /** "read" or "write". */
+    @Label("Operation")
+    String operation;
+
+    /** Blob id. */
+    @Label("Blob Id")
+    String id;
+
+    /** Name of the file the blob holds. */
+    @Label("File Name")
+    String filename;
+
+    /** Length of the file contents. */
+    @Label("Content Size")
+    @DataAmount
+    long size;
+
+}
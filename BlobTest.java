@@ -0,0 +1,91 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Tests of the blob file format.
+ *  @author Pauline Tang
+ */
+public class BlobTest {
+
+    /** Contents of the test file, not all ASCII. */
+    private static final String TEXT = "h\u00e9llo\nw\u00f6rld\n";
+
+    /** Return the bytes of TEXT. */
+    private static byte[] bytes() {
+        return TEXT.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void rawLayout() throws IOException {
+        UnitTest.newRepo();
+        Blob b = new Blob("a.txt", TEXT);
+        b.saveBlob();
+        File f = Utils.join(Main.getBlobsFolder(), b.getIdentifier());
+        DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(Utils.readContents(f)));
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        assertEquals("GLB1", new String(magic, StandardCharsets.US_ASCII));
+        assertEquals(Blob.RAW, in.readByte());
+        byte[] name = new byte[in.readInt()];
+        in.readFully(name);
+        assertEquals("a.txt", new String(name, StandardCharsets.UTF_8));
+        assertEquals(bytes().length, in.readLong());
+        byte[] contents = new byte[bytes().length];
+        in.readFully(contents);
+        assertEquals(TEXT, new String(contents, StandardCharsets.UTF_8));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void roundTrip() {
+        UnitTest.newRepo();
+        Blob b = new Blob("a.txt", TEXT);
+        b.saveBlob();
+        String id = b.getIdentifier();
+        assertEquals(Utils.sha1("a.txt", TEXT), id);
+        assertEquals(TEXT, Blob.getBlob(id).getContents());
+        assertEquals(bytes().length, Blob.contentLength(id));
+        assertFalse(Blob.isPointer(id));
+        File f = Utils.join(Main.getBlobsFolder(), id);
+        assertEquals(id, Blob.rehash(f));
+        File dest = Utils.join(Main.getCWD(), "a.txt");
+        Utils.writeContents(dest, TEXT + TEXT);
+        Blob.copyTo(id, dest);
+        assertEquals(TEXT, UnitTest.read("a.txt"));
+    }
+
+    @Test
+    public void corruptionChangesHash() {
+        UnitTest.newRepo();
+        Blob b = new Blob("a.txt", TEXT);
+        b.saveBlob();
+        File f = Utils.join(Main.getBlobsFolder(), b.getIdentifier());
+        byte[] data = Utils.readContents(f);
+        data[data.length - 1] ^= 1;
+        Utils.writeContents(f, data);
+        assertNotEquals(b.getIdentifier(), Blob.rehash(f));
+    }
+
+    @Test
+    public void readsSerializedBlobs() {
+        UnitTest.newRepo();
+        Blob b = new Blob("a.txt", TEXT);
+        File f = Utils.join(Main.getBlobsFolder(), b.getIdentifier());
+        Utils.writeObject(f, b);
+        assertEquals(TEXT, Blob.getBlob(b.getIdentifier()).getContents());
+        assertEquals(bytes().length, Blob.contentLength(b.getIdentifier()));
+        assertEquals(b.getIdentifier(), Blob.rehash(f));
+        File dest = Utils.join(Main.getCWD(), "a.txt");
+        Blob.copyTo(b.getIdentifier(), dest);
+        assertEquals(TEXT, UnitTest.read("a.txt"));
+    }
+
+}
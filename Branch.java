@@ -3,12 +3,17 @@ package gitlet;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /** Branch class.
  * @author Pauline Tang
  */
 public class Branch implements Serializable {
 
+    /** Matches Branch objects serialized by older versions. */
+    private static final long serialVersionUID = -6759157213155085961L;
+
     /** Name of branch. */
     private String _branchname;
 
@@ -33,13 +38,37 @@ public class Branch implements Serializable {
     public static Branch getBranch(String branchname) {
         File f = Utils.join(Main.getBranchesFolder(), branchname);
         if (!f.exists()) {
-            System.out.println("No such branch exists.");
-            System.exit(0);
+            throw Utils.error("No such branch exists.");
         }
         Branch br = Utils.readObject(f, Branch.class);
         return br;
     }
 
+    /** Return the names of all branches, in order, including fetched
+     * remote branches, which are named REMOTE/BRANCH and kept in a
+     * subfolder of the branches folder. */
+    public static List<String> names() {
+        return names(Main.getBranchesFolder());
+    }
+
+    /** Return the names of all branches kept in FOLDER, the branches
+     * folder of some repository, in order, as names().
+     * @param folder branches folder. */
+    static List<String> names(File folder) {
+        List<String> names = new ArrayList<String>(
+            Utils.plainFilenamesIn(folder));
+        File[] remotes = folder.listFiles(File::isDirectory);
+        if (remotes != null) {
+            for (File remote : remotes) {
+                for (String name : Utils.plainFilenamesIn(remote)) {
+                    names.add(remote.getName() + "/" + name);
+                }
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
     /** Changes the head commit of the branch to the new given commit.
      * @param commit commit hash. */
     public void changeHead(String commit) {
@@ -80,6 +109,7 @@ public class Branch implements Serializable {
     /** Serialize the branch. */
     public void saveBranch() {
         File f = Utils.join(Main.getBranchesFolder(), _branchname);
+        f.getParentFile().mkdir();
         Utils.writeObject(f, this);
     }
 
@@ -0,0 +1,171 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Bundles: files carrying the history of a branch between repositories
+ * that cannot see each other. "bundle create FILE BRANCH [BASE]" writes
+ * the commits reachable from BRANCH but not from BASE, with the files
+ * they use; "bundle unbundle FILE [BRANCH]" reads them in and points
+ * BRANCH (by default the bundled branch's name) at the bundled head.
+ *
+ * A bundle is the magic "GLBN", the branch name, its head commit and the
+ * newest commit left out for being reachable from BASE (empty if none),
+ * each written with writeUTF, and then a Pack of the objects. A bundle
+ * with a base can only be read into a repository that has that commit.
+ * Objects are copied from file to stream to file, so neither side holds
+ * more than a buffer of them in memory.
+ * @author Pauline Tang */
+class Bundle {
+
+    /** First bytes of a bundle. */
+    private static final byte[] MAGIC = {'G', 'L', 'B', 'N'};
+
+    /** Runs "bundle create FILE BRANCH [BASE]" or "bundle unbundle FILE
+     * [BRANCH]".
+     * @param args operands following "bundle". */
+    static void bundle(String... args) {
+        if (args.length >= 3 && args.length <= 4
+                && args[0].equals("create")) {
+            create(new File(args[1]), args[2],
+                   args.length == 4 ? args[3] : null);
+        } else if (args.length >= 2 && args.length <= 3
+                   && args[0].equals("unbundle")) {
+            unbundle(new File(args[1]), args.length == 3 ? args[2] : null);
+        } else {
+            throw Utils.error("Incorrect operands.");
+        }
+    }
+
+    /** Write to FILE the history of BRANCHNAME not reachable from the
+     * revision BASE, or all of it if BASE is null.
+     * @param file bundle file.
+     * @param branchname name of branch.
+     * @param base revision the receiver has, or null. */
+    static void create(File file, String branchname, String base) {
+        if (!Utils.join(Main.getBranchesFolder(), branchname).isFile()) {
+            throw Utils.error("A branch with that name does not exist.");
+        }
+        String head = Branch.getBranch(branchname).getHeadCommit();
+        Reachability r = Reachability.load();
+        CommitGraph g = r.getGraph();
+        ReachBitmap have = base == null ? null
+            : r.reachable(Main.resolveRevision(base));
+
+        List<String> commits = new ArrayList<String>();
+        Set<String> blobs = new LinkedHashSet<String>();
+        String boundary = null;
+        for (String id = head; id != null;) {
+            if (have != null && have.contains(g.position(id))) {
+                boundary = id;
+                break;
+            }
+            commits.add(id);
+            Commit c = read(id);
+            blobs.addAll(c.getFilesTracked().values());
+            id = c.getParentHash();
+        }
+        r.save();
+        if (commits.isEmpty()) {
+            throw Utils.error("Refusing to create an empty bundle.");
+        }
+        if (boundary != null) {
+            blobs.removeAll(read(boundary).getFilesTracked().values());
+        }
+        Set<String> chunks = new LinkedHashSet<String>();
+        for (String blob : blobs) {
+            chunks.addAll(Blob.chunks(blob));
+        }
+
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.write(MAGIC);
+            header.writeUTF(branchname);
+            header.writeUTF(head);
+            header.writeUTF(boundary == null ? "" : boundary);
+            header.flush();
+            new Pack().write(out, Main.getGitletDir(), commits, blobs,
+                             chunks);
+        } catch (IOException e) {
+            throw Utils.error("Cannot write bundle: %s", e.getMessage());
+        }
+    }
+
+    /** Read the bundle FILE into this repository, pointing BRANCHNAME, or
+     * the bundled branch if it is null, at the bundled head. An existing
+     * branch must be an ancestor of that head, and may not be the current
+     * branch.
+     * @param file bundle file.
+     * @param branchname name of branch, or null. */
+    static void unbundle(File file, String branchname) {
+        if (!file.isFile()) {
+            throw Utils.error("Bundle file not found.");
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 Files.newInputStream(file.toPath())))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw Utils.error("Not a Gitlet bundle.");
+            }
+            String name = in.readUTF();
+            String head = in.readUTF();
+            String boundary = in.readUTF();
+            if (!Pack.isId(head)
+                    || !(boundary.isEmpty() || Pack.isId(boundary))) {
+                throw Utils.error("Not a Gitlet bundle.");
+            }
+            if (branchname == null) {
+                branchname = name;
+            }
+            if (branchname.isEmpty() || branchname.startsWith(".")
+                    || branchname.contains("/")
+                    || branchname.contains(File.separator)) {
+                throw Utils.error("Invalid branch name %s.", branchname);
+            }
+            if (!boundary.isEmpty()
+                    && !Alternates.find(Main.getCommitsFolder(), boundary)
+                        .exists()) {
+                throw Utils.error("Repository lacks the bundle's base "
+                                  + "commit %s.", boundary);
+            }
+            if (Main.getTree().getHeadBranch().equals(branchname)) {
+                throw Utils.error("Cannot unbundle into the current "
+                                  + "branch.");
+            }
+            Pack pack = new Pack();
+            pack.read(in, Main.getGitletDir());
+            if (Utils.join(Main.getBranchesFolder(), branchname).isFile()) {
+                String old = Branch.getBranch(branchname).getHeadCommit();
+                Reachability r = Reachability.load();
+                boolean forward = r.isAncestor(old, head);
+                r.save();
+                if (!forward) {
+                    throw Utils.error("Bundle does not extend branch %s.",
+                                      branchname);
+                }
+            }
+            Remote.update(pack.commits(), branchname, head);
+        } catch (IOException e) {
+            throw Utils.error("Cannot read bundle: %s", e.getMessage());
+        }
+    }
+
+    /** Return commit ID, read without caching it.
+     * @param id full commit hash. */
+    private static Commit read(String id) {
+        return Utils.readObject(Alternates.find(Main.getCommitsFolder(), id),
+                                Commit.class);
+    }
+
+}
@@ -0,0 +1,83 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/** Tests of bundle create and unbundle.
+ *  @author Pauline Tang
+ */
+public class BundleTest {
+
+    /** Return a bundle of the master branch of a new repository holding
+     * a.txt, and set HEAD[0] to the id of its head commit.
+     * @param head receives the head commit id. */
+    private static File masterBundle(String[] head) {
+        File dir = UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "hello\n");
+        head[0] = Branch.getBranch("master").getHeadCommit();
+        File file = Utils.join(dir, "master.bundle");
+        Main.run("bundle", "create", file.getPath(), "master");
+        return file;
+    }
+
+    @Test
+    public void roundTrip() {
+        String[] head = new String[1];
+        File file = masterBundle(head);
+        UnitTest.newRepo();
+        Main.run("bundle", "unbundle", file.getPath(), "other");
+        assertEquals(head[0], Branch.getBranch("other").getHeadCommit());
+        String blob = Commit.getCommit(head[0]).getFilesTracked().get("a.txt");
+        assertEquals("hello\n", Blob.getBlob(blob).getContents());
+        ObjectIndex.clear();
+        assertTrue(ObjectIndex.contains(ObjectIndex.COMMIT, head[0]));
+        assertTrue(ObjectIndex.contains(ObjectIndex.BLOB, blob));
+    }
+
+    @Test
+    public void rejectsBadId() throws IOException {
+        File dir = UnitTest.newRepo();
+        File file = Utils.join(dir, "bad.bundle");
+        try (DataOutputStream out = new DataOutputStream(
+                 Files.newOutputStream(file.toPath()))) {
+            out.writeBytes("GLBN");
+            out.writeUTF("evil");
+            out.writeUTF("0123456789abcdef0123456789abcdef01234567");
+            out.writeUTF("");
+            out.writeBytes("GLP1");
+            out.writeByte(Pack.BLOB);
+            out.writeUTF("../../escaped");
+            out.writeLong(1);
+            out.writeByte('x');
+            out.writeByte(Pack.END);
+        }
+        try {
+            Main.run("bundle", "unbundle", file.getPath());
+            fail("unbundled an object with a bad id");
+        } catch (GitletException e) {
+            assertFalse(Utils.join(dir, "escaped").exists());
+            assertFalse(Utils.join(Main.getBranchesFolder(), "evil").exists());
+        }
+    }
+
+    @Test
+    public void rejectsCorruptObject() throws IOException {
+        File file = masterBundle(new String[1]);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[bytes.length - 2] ^= 1;
+        Files.write(file.toPath(), bytes);
+        UnitTest.newRepo();
+        try {
+            Main.run("bundle", "unbundle", file.getPath(), "other");
+            fail("unbundled a corrupt object");
+        } catch (GitletException e) {
+            assertFalse(Utils.join(Main.getBranchesFolder(), "other").exists());
+        }
+    }
+
+}
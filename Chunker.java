@@ -0,0 +1,135 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Content-defined chunking of large file contents, FastCDC style. A Gear
+ * rolling hash is run over the bytes, and a chunk ends where its top bits
+ * are all zero, so an edit moves only the boundaries next to it and the
+ * chunks elsewhere in the file keep their contents and their ids. Chunks
+ * are kept in .gitlet/chunks under the SHA-1 of their bytes and are shared
+ * by every blob containing them.
+ * @author Pauline Tang */
+class Chunker {
+
+    /** Config key: contents at least this long (bytes) are chunked. */
+    static final String THRESHOLD_KEY = "chunk.threshold";
+
+    /** Default chunking threshold. */
+    static final long DEFAULT_THRESHOLD = 1 << 20;
+
+    /** Smallest chunk, except at the end of the contents. */
+    static final int MIN_SIZE = 16 << 10;
+
+    /** Target chunk size. */
+    static final int AVG_SIZE = 64 << 10;
+
+    /** Largest chunk. */
+    static final int MAX_SIZE = 256 << 10;
+
+    /** Mask used below AVG_SIZE: two bits more than log2(AVG_SIZE), making
+     * cuts rarer there ("normalized chunking"). */
+    private static final long MASK_SMALL = -1L << (64 - 18);
+
+    /** Mask used above AVG_SIZE: two bits fewer, making cuts likelier. */
+    private static final long MASK_LARGE = -1L << (64 - 14);
+
+    /** Gear table: a fixed pseudo-random 64-bit value per byte value. It
+     * must never change, or chunk boundaries (and so ids) would. */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        long x = 0x6769746c6574L;
+        for (int i = 0; i < GEAR.length; i += 1) {
+            x += 0x9e3779b97f4a7c15L;
+            long z = x;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    /** Return true iff contents of LENGTH bytes should be chunked.
+     * @param length contents length. */
+    static boolean shouldChunk(long length) {
+        return length >= Config.getLong(THRESHOLD_KEY, DEFAULT_THRESHOLD);
+    }
+
+    /** Return the length of the chunk starting at OFF in DATA, which ends
+     * at END.
+     * @param data contents.
+     * @param off start of the chunk.
+     * @param end end of the contents. */
+    static int cut(byte[] data, int off, int end) {
+        int n = Math.min(end - off, MAX_SIZE);
+        if (n <= MIN_SIZE) {
+            return n;
+        }
+        int normal = Math.min(n, AVG_SIZE);
+        long fp = 0;
+        int i = MIN_SIZE;
+        for (; i < normal; i += 1) {
+            fp = (fp << 1) + GEAR[data[off + i] & 0xff];
+            if ((fp & MASK_SMALL) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < n; i += 1) {
+            fp = (fp << 1) + GEAR[data[off + i] & 0xff];
+            if ((fp & MASK_LARGE) == 0) {
+                return i + 1;
+            }
+        }
+        return n;
+    }
+
+    /** Split DATA into chunks, store any not already stored, and return
+     * their ids in order. Only new chunks are written, so storing a new
+     * version of a large file costs I/O in proportion to the change.
+     * @param data contents. */
+    static List<String> store(byte[] data) {
+        Main.getChunksFolder().mkdir();
+        List<String> ids = new ArrayList<String>();
+        for (int off = 0; off < data.length;) {
+            int len = cut(data, off, data.length);
+            String id = Hasher.start().update(data, off, len).hex();
+            File f = chunkFile(id);
+            if (!f.exists()) {
+                write(f, Arrays.copyOfRange(data, off, off + len));
+            }
+            ids.add(id);
+            off += len;
+        }
+        return ids;
+    }
+
+    /** Return the file holding chunk ID, which may be borrowed from
+     * another repository (see Alternates).
+     * @param id chunk id. */
+    static File chunkFile(String id) {
+        return Alternates.find(Main.getChunksFolder(), id);
+    }
+
+    /** Write CHUNK to F by way of a temporary file, so that a chunk file,
+     * once present, is always complete.
+     * @param f chunk file.
+     * @param chunk chunk bytes. */
+    private static void write(File f, byte[] chunk) {
+        File tmp = new File(f.getPath() + ".tmp");
+        Utils.writeContents(tmp, chunk);
+        try {
+            Files.move(tmp.toPath(), f.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmp.delete();
+            throw Utils.error("Cannot store chunk: %s", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/** Tests of content-defined chunking.
+ *  @author Pauline Tang
+ */
+public class ChunkerTest {
+
+    /** Length of the test contents. */
+    private static final int LENGTH = 2 << 20;
+
+    /** Return LENGTH pseudo-random printable characters from SEED.
+     * @param seed random seed. */
+    private static String text(long seed) {
+        Random r = new Random(seed);
+        StringBuilder sb = new StringBuilder(LENGTH);
+        for (int i = 0; i < LENGTH; i += 1) {
+            sb.append((char) (' ' + r.nextInt(95)));
+        }
+        return sb.toString();
+    }
+
+    /** Return the lengths of the chunks DATA is cut into.
+     * @param data contents. */
+    private static List<Integer> cuts(byte[] data) {
+        List<Integer> lengths = new ArrayList<Integer>();
+        for (int off = 0; off < data.length;) {
+            int len = Chunker.cut(data, off, data.length);
+            lengths.add(len);
+            off += len;
+        }
+        return lengths;
+    }
+
+    @Test
+    public void chunkSizes() {
+        byte[] data = text(1).getBytes();
+        List<Integer> lengths = cuts(data);
+        int total = 0;
+        for (int i = 0; i < lengths.size(); i += 1) {
+            int len = lengths.get(i);
+            assertTrue(len <= Chunker.MAX_SIZE);
+            assertTrue(i == lengths.size() - 1 || len > Chunker.MIN_SIZE);
+            total += len;
+        }
+        assertEquals(data.length, total);
+        assertTrue(lengths.size() > 4);
+    }
+
+    @Test
+    public void editsMoveFewCuts() {
+        String text = text(2);
+        byte[] before = text.getBytes();
+        byte[] after = ("inserted" + text).getBytes();
+        List<Integer> a = cuts(before);
+        List<Integer> b = cuts(after);
+        assertEquals(a.get(0) + "inserted".length(), (int) b.get(0));
+        assertEquals(a.subList(1, a.size()), b.subList(1, b.size()));
+    }
+
+    @Test
+    public void storesSharedChunksOnce() {
+        UnitTest.newRepo();
+        Config.set(Chunker.THRESHOLD_KEY, "65536");
+        String text = text(3);
+        String first = UnitTest.commitFile("big.txt", text);
+        List<String> chunks = Blob.chunks(first);
+        assertTrue(chunks.size() > 4);
+        int stored = Utils.plainFilenamesIn(Main.getChunksFolder()).size();
+        assertEquals(new HashSet<String>(chunks).size(), stored);
+        String changed = text.substring(0, LENGTH / 2) + "edit"
+            + text.substring(LENGTH / 2);
+        String second = UnitTest.commitFile("big.txt", changed);
+        Set<String> added = new HashSet<String>(Blob.chunks(second));
+        added.removeAll(chunks);
+        assertTrue(added.toString(), added.size() <= 2);
+        assertEquals(stored + added.size(),
+                     Utils.plainFilenamesIn(Main.getChunksFolder()).size());
+        assertEquals(text, Blob.getBlob(first).getContents());
+        assertEquals(changed, Blob.getBlob(second).getContents());
+        UnitTest.write("big.txt", "");
+        Main.run("checkout", "--", "big.txt");
+        assertEquals(changed, UnitTest.read("big.txt"));
+    }
+
+}
@@ -0,0 +1,61 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of clone and alternates.
+ *  @author Pauline Tang
+ */
+public class CloneTest {
+
+    /** Clone the repository in SOURCE to a new directory, select the
+     * clone and return its working directory.
+     * @param source working directory of the original. */
+    private static File cloneOf(File source) {
+        File dest = new File(source.getParentFile(),
+                             source.getName() + "-clone");
+        Main.run("clone", source.getPath(), dest.getPath());
+        Main.setCWD(dest);
+        return dest;
+    }
+
+    @Test
+    public void sharesObjects() {
+        File source = UnitTest.newRepo();
+        String blob = UnitTest.commitFile("a.txt", "hello\n");
+        String head = Branch.getBranch("master").getHeadCommit();
+        cloneOf(source);
+        assertEquals("hello\n", UnitTest.read("a.txt"));
+        assertEquals(head, Branch.getBranch("master").getHeadCommit());
+        assertTrue(Utils.plainFilenamesIn(Main.getBlobsFolder()).isEmpty());
+        assertEquals("hello\n", Blob.getBlob(blob).getContents());
+    }
+
+    @Test
+    public void writesLocally() {
+        File source = UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "hello\n");
+        cloneOf(source);
+        String blob = UnitTest.commitFile("b.txt", "new\n");
+        assertTrue(Utils.join(Main.getBlobsFolder(), blob).isFile());
+        assertFalse(Utils.join(source, ".gitlet", "blobs", blob).exists());
+    }
+
+    @Test
+    public void keepsRemoteBranches() {
+        File upstream = UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "hello\n");
+        String head = Branch.getBranch("master").getHeadCommit();
+        File source = UnitTest.newRepo();
+        Main.run("add-remote", "up",
+                 Utils.join(upstream, ".gitlet").getPath());
+        Main.run("fetch", "up", "master");
+        cloneOf(source);
+        assertTrue(Branch.names().contains("up/master"));
+        assertEquals(head, Branch.getBranch("up/master").getHeadCommit());
+        UnitTest.output("status");
+    }
+
+}
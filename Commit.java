@@ -6,6 +6,9 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** From spec:
  * A commit, therefore, will consist of a log message, timestamp,
@@ -14,6 +17,14 @@ import java.util.Date;
  * @author Pauline Tang */
 public class Commit implements Serializable {
 
+    /** Matches Commit objects serialized by older versions. */
+    private static final long serialVersionUID = 1006221206569521223L;
+
+    /** Commits already read by this process, by hash. Commits never
+     * change once saved, so these stay valid for the whole command. */
+    private static final Map<String, Commit> CACHE =
+        new ConcurrentHashMap<String, Commit>();
+
     /** Message of commit. */
     private String _message;
 
@@ -33,7 +44,10 @@ public class Commit implements Serializable {
     private String _branch;
 
     /** Creates a new commit object with specified parameters.
-     * Timestamp of commit gets recorded.
+     * Timestamp of commit gets recorded. The hash depends only on the
+     * message and the timestamp, which has whole seconds, so a commit
+     * whose hash is already stored (one with the same message made in the
+     * same second, say, as in a batch) is dated a second later instead.
      * @param message commit message.
      * @param parenthash hash of parent commit.
      * @param branchname branch of commit. */
@@ -44,20 +58,39 @@ public class Commit implements Serializable {
                 new SimpleDateFormat("EEE MMM dd HH:mm:ss yyyy");
         if (parenthash == null) {
             _timestamp = formatter.format(new Date(0));
+            _identifier = Utils.sha1(message, _timestamp);
         } else {
-            _timestamp = formatter.format(new Date());
+            long time = System.currentTimeMillis();
+            do {
+                _timestamp = formatter.format(new Date(time));
+                _identifier = Utils.sha1(message, _timestamp);
+                time += 1000;
+            } while (Alternates.find(Main.getCommitsFolder(), _identifier)
+                     .exists());
         }
-        _identifier = Utils.sha1(message, _timestamp);
         _branch = branchname;
 
         _filesTracked = new HashMap<String, String>();
         updateFilesTracked();
     }
 
-    /** Serialize the commit. */
+    /** Serialize the commit, unless it is already stored. A stored
+     * commit with this hash but another parent or other files is an
+     * error, not something to skip silently. */
     public void saveCommit() {
         File f = Utils.join(Main.getCommitsFolder(), _identifier);
+        if (ObjectIndex.contains(ObjectIndex.COMMIT, _identifier)
+                && f.exists()) {
+            Commit stored = Utils.readObject(f, Commit.class);
+            if (!Objects.equals(stored._parent, _parent)
+                    || !stored._filesTracked.equals(_filesTracked)) {
+                throw Utils.error("Commit %s is already stored with other "
+                                  + "contents.", _identifier);
+            }
+            return;
+        }
         Utils.writeObject(f, this);
+        ObjectIndex.added(ObjectIndex.COMMIT, _identifier);
     }
 
     /** Copy over the tracked files from the parent commit.
@@ -65,7 +98,8 @@ public class Commit implements Serializable {
     public void updateFilesTracked() {
         Stage s = Main.getStage();
         if (_parent != null) {
-            _filesTracked = getCommit(_parent).getFilesTracked();
+            _filesTracked = new HashMap<String, String>();
+            _filesTracked.putAll(getCommit(_parent).getFilesTracked());
             for (String filename : s.getAddition().keySet()) {
                 _filesTracked.put(filename, s.getAddition().get(filename));
             }
@@ -82,15 +116,33 @@ public class Commit implements Serializable {
         if (commithash == null) {
             return null;
         }
-        File f = Utils.join(Main.getCommitsFolder(), commithash);
-        if (!f.exists()) {
-            System.out.println("No commit with that id exists.");
-            System.exit(0);
+        CommitLoadEvent event = new CommitLoadEvent();
+        event.begin();
+        Commit c = CACHE.get(commithash);
+        Trace.cacheLookup(c != null);
+        event.cacheHit = c != null;
+        if (c == null) {
+            File f = Alternates.find(Main.getCommitsFolder(), commithash);
+            if (!f.exists()) {
+                throw Utils.error("No commit with that id exists.");
+            }
+            c = Utils.readObject(f, Commit.class);
+            CACHE.put(commithash, c);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.id = commithash;
+            event.trackedFiles = c._filesTracked.size();
+            event.commit();
         }
-        Commit c = Utils.readObject(f, Commit.class);
         return c;
     }
 
+    /** Forget every commit read so far, as when switching repositories. */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
     /** Getter method for the Hashmap of the files this Commit is tracking.
      * @return filestracked. */
     public HashMap<String, String> getFilesTracked() {
@@ -0,0 +1,234 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** The commit index. Every commit is given a dense position, assigned so
+ * that a commit's parent always has a smaller position than the commit
+ * itself, and the parent, timestamp, message and a Bloom filter of the
+ * paths changed by each position are recorded. This lets history be
+ * walked, filtered and printed without deserializing Commit objects.
+ * @author Pauline Tang */
+public class CommitGraph implements Serializable {
+
+    /** Serial version of stored indexes. */
+    private static final long serialVersionUID = 4176470337415880922L;
+
+    /** Format of commit timestamps. */
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss yyyy");
+
+    /** Commit ids, by position. */
+    private ArrayList<String> _ids;
+
+    /** Position of each indexed commit id. */
+    private HashMap<String, Integer> _positions;
+
+    /** Position of the parent of each position, or -1 for a root. */
+    private int[] _parents;
+
+    /** Timestamp of each position, as written by Commit. */
+    private ArrayList<String> _dates;
+
+    /** Timestamp of each position, in milliseconds since the epoch. */
+    private long[] _times;
+
+    /** Message of each position. */
+    private ArrayList<String> _messages;
+
+    /** Bloom filter of the paths changed by each position. */
+    private ArrayList<long[]> _blooms;
+
+    /** True if this index has changed since it was read. */
+    private transient boolean _dirty;
+
+    /** Creates an empty commit index. */
+    public CommitGraph() {
+        _ids = new ArrayList<String>();
+        _positions = new HashMap<String, Integer>();
+        _parents = new int[16];
+        _dates = new ArrayList<String>();
+        _times = new long[16];
+        _messages = new ArrayList<String>();
+        _blooms = new ArrayList<long[]>();
+    }
+
+    /** Return the commit index of this repository, building it from the
+     * commit tree if it has not been stored yet or cannot be read. A
+     * rebuilt index may number commits differently, so the reachability
+     * bitmaps, whose bits are positions, are dropped along with it. */
+    public static CommitGraph load() {
+        File f = Main.getGraphFile();
+        if (f.exists()) {
+            try {
+                return Utils.readObject(f, CommitGraph.class);
+            } catch (IllegalArgumentException e) {
+                f.delete();
+            }
+        }
+        Main.getBitmapsFile().delete();
+        CommitGraph g = new CommitGraph();
+        for (String id : Main.getTree().getCommitTreeMap().keySet()) {
+            g.position(id);
+        }
+        g._dirty = true;
+        return g;
+    }
+
+    /** Add the new commit C to the index.
+     * @param c commit whose parent is already stored.
+     * @return position of c. */
+    public int add(Commit c) {
+        Integer pos = _positions.get(c.getIdentifier());
+        if (pos != null) {
+            return pos;
+        }
+        int parent = -1;
+        if (c.getParentHash() != null) {
+            parent = position(c.getParentHash());
+        }
+        return append(c, parent);
+    }
+
+    /** Return the position of the commit COMMITID, indexing it and any
+     * of its unindexed ancestors first if needed.
+     * @param commitid full commit hash. */
+    public int position(String commitid) {
+        Integer pos = _positions.get(commitid);
+        if (pos != null) {
+            return pos;
+        }
+        ArrayList<Commit> missing = new ArrayList<Commit>();
+        Commit c = Commit.getCommit(commitid);
+        while (c != null && !_positions.containsKey(c.getIdentifier())) {
+            missing.add(c);
+            c = c.getParent();
+        }
+        for (int i = missing.size() - 1; i >= 0; i -= 1) {
+            add(missing.get(i));
+        }
+        return _positions.get(commitid);
+    }
+
+    /** Return true iff COMMITID has been indexed.
+     * @param commitid full commit hash. */
+    public boolean contains(String commitid) {
+        return _positions.containsKey(commitid);
+    }
+
+    /** Return the commit id at position POS.
+     * @param pos position. */
+    public String id(int pos) {
+        return _ids.get(pos);
+    }
+
+    /** Return the position of the parent of POS, or -1 if it has none.
+     * @param pos position. */
+    public int parent(int pos) {
+        return _parents[pos];
+    }
+
+    /** Return the timestamp of POS, as shown by log.
+     * @param pos position. */
+    public String date(int pos) {
+        return _dates.get(pos);
+    }
+
+    /** Return the time of POS in milliseconds since the epoch.
+     * @param pos position. */
+    public long time(int pos) {
+        return _times[pos];
+    }
+
+    /** Return the message of POS.
+     * @param pos position. */
+    public String message(int pos) {
+        return _messages.get(pos);
+    }
+
+    /** Return the Bloom filter of the paths changed by POS.
+     * @param pos position. */
+    public long[] changedPaths(int pos) {
+        return _blooms.get(pos);
+    }
+
+    /** Return the number of indexed commits. */
+    public int size() {
+        return _ids.size();
+    }
+
+    /** Write the index out if it has changed. */
+    public void save() {
+        if (_dirty) {
+            Utils.writeObject(Main.getGraphFile(), this);
+            _dirty = false;
+        }
+    }
+
+    /** Record C, whose parent is at position PARENT.
+     * @param c commit.
+     * @param parent parent position, or -1.
+     * @return the new position. */
+    private int append(Commit c, int parent) {
+        int pos = _ids.size();
+        if (pos == _parents.length) {
+            _parents = Arrays.copyOf(_parents, pos * 2);
+            _times = Arrays.copyOf(_times, pos * 2);
+        }
+        _ids.add(c.getIdentifier());
+        _positions.put(c.getIdentifier(), pos);
+        _parents[pos] = parent;
+        _dates.add(c.getTimestamp());
+        _times[pos] = parseTime(c.getTimestamp());
+        _messages.add(c.getMessage());
+        _blooms.add(PathBloom.build(changedPaths(c)));
+        _dirty = true;
+        return pos;
+    }
+
+    /** Return the paths whose blob differs between C and its parent.
+     * @param c commit. */
+    static Set<String> changedPaths(Commit c) {
+        Map<String, String> files = c.getFilesTracked();
+        Set<String> changed = new HashSet<String>();
+        if (c.getParentHash() == null) {
+            changed.addAll(files.keySet());
+            return changed;
+        }
+        Map<String, String> before = c.getParent().getFilesTracked();
+        for (Map.Entry<String, String> e : files.entrySet()) {
+            if (!e.getValue().equals(before.get(e.getKey()))) {
+                changed.add(e.getKey());
+            }
+        }
+        for (String name : before.keySet()) {
+            if (!files.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    /** Return the time TIMESTAMP, as written by Commit, in milliseconds
+     * since the epoch, or 0 if it cannot be read.
+     * @param timestamp commit timestamp. */
+    static long parseTime(String timestamp) {
+        try {
+            return LocalDateTime.parse(timestamp, TIMESTAMP)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the commit index.
+ *  @author Pauline Tang
+ */
+public class CommitGraphTest {
+
+    /** Make a new repository with commits of a.txt and b.txt, with the
+     * commit index and bitmaps stored, and return the head commit id. */
+    private static String twoCommits() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "a\n");
+        UnitTest.commitFile("b.txt", "b\n");
+        Reachability.load().save();
+        return Main.getTree().getHeadCommit().getIdentifier();
+    }
+
+    @Test
+    public void recordsCommits() {
+        String head = twoCommits();
+        CommitGraph g = CommitGraph.load();
+        assertEquals(3, g.size());
+        int pos = g.position(head);
+        assertEquals("add b.txt", g.message(pos));
+        assertEquals("add a.txt", g.message(g.parent(pos)));
+        assertEquals(-1, g.parent(g.parent(g.parent(pos))));
+        assertEquals(Commit.getCommit(head).getTimestamp(), g.date(pos));
+    }
+
+    @Test
+    public void rebuiltWhenUnreadable() {
+        String head = twoCommits();
+        Utils.writeContents(Main.getGraphFile(), "junk");
+        CommitGraph g = CommitGraph.load();
+        assertEquals(3, g.size());
+        assertEquals("add b.txt", g.message(g.position(head)));
+        assertFalse(Main.getBitmapsFile().exists());
+        String out = UnitTest.output("log", "-n", "1");
+        assertTrue(out, out.contains("add b.txt"));
+    }
+
+    @Test
+    public void rebuiltWhenMissing() {
+        String head = twoCommits();
+        Main.getGraphFile().delete();
+        Reachability r = Reachability.load();
+        String parent = Commit.getCommit(head).getParentHash();
+        assertTrue(r.isAncestor(parent, head));
+        assertFalse(r.isAncestor(head, parent));
+        assertEquals(3, r.reachableFromBranches().cardinality());
+    }
+
+}
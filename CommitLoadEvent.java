@@ -0,0 +1,28 @@
+package gitlet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for one Commit.getCommit call.
+ * @author Pauline Tang */
+@Name("gitlet.CommitLoad")
+@Label("Commit Load")
+@Category({"Gitlet", "Object Store"})
+@Description("A commit looked up by id, from the cache or from disk")
+class CommitLoadEvent extends jdk.jfr.Event {
+
+    /** Commit id. */
+    @Label("Commit Id")
+    String id;
+
+    /** True if the commit came from the in-process cache. */
+    @Label("Cache Hit")
+    boolean cacheHit;
+
+    /** Number of files the commit tracks. */
+    @Label("Tracked Files")
+    int trackedFiles;
+
+}
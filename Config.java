@@ -0,0 +1,94 @@
+package gitlet;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+/** Repository settings, kept as KEY=VALUE lines in .gitlet/config.
+ * @author Pauline Tang */
+class Config {
+
+    /** Settings of the current repository, once read. */
+    private static Properties _settings;
+
+    /** Return the setting KEY, or DEFAULTVALUE if it is not set.
+     * @param key setting name.
+     * @param defaultvalue value if unset. */
+    static String get(String key, String defaultvalue) {
+        return settings().getProperty(key, defaultvalue);
+    }
+
+    /** Return the setting KEY as a number, or DEFAULTVALUE if it is not
+     * set or not a number.
+     * @param key setting name.
+     * @param defaultvalue value if unset. */
+    static long getLong(String key, long defaultvalue) {
+        try {
+            return Long.parseLong(get(key, "").trim());
+        } catch (NumberFormatException e) {
+            return defaultvalue;
+        }
+    }
+
+    /** Set KEY to VALUE, or remove it if VALUE is null, and save.
+     * @param key setting name.
+     * @param value new value. */
+    static void set(String key, String value) {
+        if (value == null) {
+            settings().remove(key);
+        } else {
+            settings().setProperty(key, value);
+        }
+        try (Writer w = new FileWriter(Main.getConfigFile())) {
+            settings().store(w, null);
+        } catch (IOException e) {
+            throw Utils.error("Cannot write config: %s", e.getMessage());
+        }
+    }
+
+    /** Forget the settings read so far, as when switching repositories. */
+    static void clear() {
+        _settings = null;
+    }
+
+    /** The config command: "config KEY" prints the setting KEY, "config
+     * KEY VALUE" sets it, and "config --unset KEY" removes it.
+     * @param args operands following "config". */
+    static void config(String... args) {
+        if (args.length == 2 && args[0].equals("--unset")) {
+            set(args[1], null);
+        } else if (args.length == 2) {
+            set(args[0], args[1]);
+        } else if (args.length == 1) {
+            String value = get(args[0], null);
+            if (value != null) {
+                System.out.println(value);
+            }
+        } else {
+            throw Utils.error("Incorrect operands.");
+        }
+    }
+
+    /** Return the settings of the current repository, reading them once;
+     * working files are hashed by several threads, which may all ask. */
+    private static synchronized Properties settings() {
+        if (_settings == null) {
+            _settings = new Properties();
+            File f = Main.getConfigFile();
+            if (f.exists()) {
+                try (Reader r = new FileReader(f)) {
+                    _settings.load(r);
+                } catch (IOException e) {
+                    throw Utils.error("Cannot read config: %s",
+                                      e.getMessage());
+                }
+            }
+        }
+        return _settings;
+    }
+
+}
@@ -0,0 +1,440 @@
+package gitlet;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/** Line differences between two versions of files, in unified format.
+ * The diff command compares the working directory with the head commit
+ * ("diff"), with another commit ("diff REV"), or two commits ("diff REV
+ * REV"), optionally for one path only ("... -- PATH"). REV is a branch
+ * name or commit id.
+ *
+ * Lines are numbered by content first, so the algorithm compares ints,
+ * and the common prefix and suffix are set aside. What is left is
+ * compared with Myers' O(ND) algorithm in its linear-space form: find
+ * the middle snake of an optimal edit path, then recurse on either side
+ * of it. Memory is proportional to the number of lines.
+ * @author Pauline Tang */
+class Diff {
+
+    /** Lines of context around each change. */
+    static final int CONTEXT = 3;
+
+    /** Lines of the old version, as numbers. */
+    private final int[] _a;
+
+    /** Lines of the new version, as numbers. */
+    private final int[] _b;
+
+    /** True for each line of the old version that is deleted. */
+    private final boolean[] _deleted;
+
+    /** True for each line of the new version that is inserted. */
+    private final boolean[] _inserted;
+
+    /** Furthest reaching forward paths, by diagonal. */
+    private final int[] _vf;
+
+    /** Furthest reaching reverse paths, by diagonal. */
+    private final int[] _vb;
+
+    /** Index of diagonal 0 in _vf and _vb. */
+    private final int _offset;
+
+    /** Compares A with B, line numbers standing for their contents.
+     * @param a old lines.
+     * @param b new lines. */
+    Diff(int[] a, int[] b) {
+        _a = a;
+        _b = b;
+        _deleted = new boolean[a.length];
+        _inserted = new boolean[b.length];
+        _offset = (a.length + b.length + 1) / 2 + 1;
+        _vf = new int[2 * _offset + 1];
+        _vb = new int[2 * _offset + 1];
+        compare(0, a.length, 0, b.length);
+    }
+
+    /** Return true iff line I of the old version is deleted.
+     * @param i line index. */
+    boolean deleted(int i) {
+        return _deleted[i];
+    }
+
+    /** Return true iff line J of the new version is inserted.
+     * @param j line index. */
+    boolean inserted(int j) {
+        return _inserted[j];
+    }
+
+    /** Find the differences between lines ALO..AHI of the old version
+     * and BLO..BHI of the new one.
+     * @param alo first old line.
+     * @param ahi end of old lines.
+     * @param blo first new line.
+     * @param bhi end of new lines. */
+    private void compare(int alo, int ahi, int blo, int bhi) {
+        while (alo < ahi && blo < bhi && _a[alo] == _b[blo]) {
+            alo += 1;
+            blo += 1;
+        }
+        while (alo < ahi && blo < bhi && _a[ahi - 1] == _b[bhi - 1]) {
+            ahi -= 1;
+            bhi -= 1;
+        }
+        if (alo == ahi) {
+            Arrays.fill(_inserted, blo, bhi, true);
+        } else if (blo == bhi) {
+            Arrays.fill(_deleted, alo, ahi, true);
+        } else {
+            int[] snake = middleSnake(alo, ahi, blo, bhi);
+            compare(alo, snake[0], blo, snake[1]);
+            compare(snake[2], ahi, snake[3], bhi);
+        }
+    }
+
+    /** Return the start and end {x0, y0, x1, y1} of the middle snake of
+     * an optimal edit path from (ALO, BLO) to (AHI, BHI), where neither
+     * range is empty and their first and last lines differ.
+     * @param alo first old line.
+     * @param ahi end of old lines.
+     * @param blo first new line.
+     * @param bhi end of new lines. */
+    private int[] middleSnake(int alo, int ahi, int blo, int bhi) {
+        int n = ahi - alo;
+        int m = bhi - blo;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int o = _offset;
+        _vf[o + 1] = 0;
+        _vb[o + 1] = 0;
+        for (int d = 0; d <= (n + m + 1) / 2; d += 1) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && _vf[o + k - 1] < _vf[o + k + 1])) {
+                    x = _vf[o + k + 1];
+                } else {
+                    x = _vf[o + k - 1] + 1;
+                }
+                int y = x - k;
+                int x0 = x;
+                int y0 = y;
+                while (x < n && y < m && _a[alo + x] == _b[blo + y]) {
+                    x += 1;
+                    y += 1;
+                }
+                _vf[o + k] = x;
+                int kr = delta - k;
+                if (odd && kr >= -(d - 1) && kr <= d - 1
+                        && x + _vb[o + kr] >= n) {
+                    return new int[] {alo + x0, blo + y0, alo + x, blo + y};
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && _vb[o + k - 1] < _vb[o + k + 1])) {
+                    x = _vb[o + k + 1];
+                } else {
+                    x = _vb[o + k - 1] + 1;
+                }
+                int y = x - k;
+                int x0 = x;
+                int y0 = y;
+                while (x < n && y < m
+                       && _a[ahi - 1 - x] == _b[bhi - 1 - y]) {
+                    x += 1;
+                    y += 1;
+                }
+                _vb[o + k] = x;
+                int kf = delta - k;
+                if (!odd && kf >= -d && kf <= d && x + _vf[o + kf] >= n) {
+                    return new int[] {ahi - x, bhi - y, ahi - x0, bhi - y0};
+                }
+            }
+        }
+        throw new IllegalStateException("no middle snake");
+    }
+
+    /** The diff command.
+     * @param args operands following "diff". */
+    static void diff(String... args) {
+        int dash = Arrays.asList(args).indexOf("--");
+        List<String> revs =
+            Arrays.asList(args).subList(0, dash < 0 ? args.length : dash);
+        String path = dash < 0 ? null : Main.path(args[args.length - 1]);
+        if (revs.size() > 2 || dash >= 0 && dash != args.length - 2) {
+            throw Utils.error("Incorrect operands.");
+        }
+        Map<String, String> from;
+        if (revs.isEmpty()) {
+            Tree t = Main.getTree();
+            String head = Branch.getBranch(t.getHeadBranch()).getHeadCommit();
+            from = Commit.getCommit(head).getFilesTracked();
+        } else {
+            from = Commit.getCommit(Main.resolveRevision(revs.get(0)))
+                .getFilesTracked();
+        }
+        Map<String, String> to = null;
+        if (revs.size() == 2) {
+            to = Commit.getCommit(Main.resolveRevision(revs.get(1)))
+                .getFilesTracked();
+        }
+
+        TreeSet<String> names = new TreeSet<String>(from.keySet());
+        if (to != null) {
+            names.addAll(to.keySet());
+        } else {
+            names.addAll(Main.getStage().getAddition().keySet());
+        }
+        if (path != null) {
+            names.retainAll(List.of(path));
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        for (String name : names) {
+            String oldid = from.get(name);
+            String oldtext = oldid == null ? null
+                : LargeFiles.contents(oldid);
+            String newtext;
+            if (to != null) {
+                String newid = to.get(name);
+                if (newid != null && newid.equals(oldid)) {
+                    continue;
+                }
+                newtext = newid == null ? null
+                    : LargeFiles.contents(newid);
+            } else {
+                if (!Sparse.includes(name)) {
+                    continue;
+                }
+                File f = Utils.join(Main.getCWD(), name);
+                if (f.isFile() && Hasher.blobId(name, f).equals(oldid)) {
+                    continue;
+                }
+                newtext = f.isFile() ? Utils.readContentsAsString(f) : null;
+            }
+            print(out, name, oldtext, newtext);
+        }
+        out.flush();
+    }
+
+    /** Print to OUT the differences between OLDTEXT and NEWTEXT, the
+     * contents of file NAME, either of which is null if the file does not
+     * exist in that version.
+     * @param out output.
+     * @param name file name.
+     * @param oldtext old contents, or null.
+     * @param newtext new contents, or null. */
+    static void print(PrintWriter out, String name, String oldtext,
+                      String newtext) {
+        out.print("diff --gitlet a/" + name + " b/" + name + "\n");
+        if (oldtext == null) {
+            out.print("new file\n");
+        } else if (newtext == null) {
+            out.print("deleted file\n");
+        }
+        String o = oldtext == null ? "" : oldtext;
+        String n = newtext == null ? "" : newtext;
+        if (o.indexOf('\0') >= 0 || n.indexOf('\0') >= 0) {
+            out.print("Binary files differ\n");
+            return;
+        }
+        out.print("--- " + (oldtext == null ? "/dev/null" : "a/" + name)
+                  + "\n");
+        out.print("+++ " + (newtext == null ? "/dev/null" : "b/" + name)
+                  + "\n");
+
+        int start = commonPrefix(o, n);
+        int tail = commonSuffix(o, n, start);
+        int base = 0;
+        for (int c = 0; c < CONTEXT && start > 0; c += 1) {
+            start = o.lastIndexOf('\n', start - 2) + 1;
+        }
+        for (int p = o.indexOf('\n'); p >= 0 && p < start;
+             p = o.indexOf('\n', p + 1)) {
+            base += 1;
+        }
+        for (int c = 0; c < CONTEXT && tail > 0; c += 1) {
+            int p = o.indexOf('\n', o.length() - tail);
+            tail = p < 0 ? 0 : o.length() - p - 1;
+        }
+        List<String> alines = lines(o, start, o.length() - tail);
+        List<String> blines = lines(n, start, n.length() - tail);
+        Map<String, Integer> numbers = new HashMap<String, Integer>();
+        Diff d = new Diff(number(alines, numbers), number(blines, numbers));
+
+        List<int[]> hunk = new ArrayList<int[]>();
+        int i = 0;
+        int j = 0;
+        while (i < alines.size() || j < blines.size()) {
+            if (i < alines.size() && d.deleted(i)
+                    || j < blines.size() && d.inserted(j)) {
+                int i0 = i;
+                int j0 = j;
+                while (i < alines.size() && d.deleted(i)) {
+                    i += 1;
+                }
+                while (j < blines.size() && d.inserted(j)) {
+                    j += 1;
+                }
+                if (!hunk.isEmpty()
+                        && i0 - hunk.get(hunk.size() - 1)[1] > 2 * CONTEXT) {
+                    printHunk(out, hunk, base, alines, blines);
+                    hunk.clear();
+                }
+                hunk.add(new int[] {i0, i, j0, j});
+            } else {
+                i += 1;
+                j += 1;
+            }
+        }
+        if (!hunk.isEmpty()) {
+            printHunk(out, hunk, base, alines, blines);
+        }
+    }
+
+    /** Print the changes in HUNK, each {old start, old end, new start,
+     * new end}, with their context, between ALINES and BLINES, which
+     * follow BASE lines the two versions have in common.
+     * @param out output.
+     * @param hunk nearby changes.
+     * @param base number of lines before alines and blines.
+     * @param alines old lines.
+     * @param blines new lines. */
+    private static void printHunk(PrintWriter out, List<int[]> hunk, int base,
+                                  List<String> alines, List<String> blines) {
+        int[] first = hunk.get(0);
+        int[] last = hunk.get(hunk.size() - 1);
+        int lead = Math.min(CONTEXT, first[0]);
+        int trail = Math.min(CONTEXT, alines.size() - last[1]);
+        int astart = first[0] - lead;
+        int bstart = first[2] - lead;
+        int aend = last[1] + trail;
+        int bend = last[3] + trail;
+        out.print("@@ -" + range(base + astart, aend - astart) + " +"
+                  + range(base + bstart, bend - bstart) + " @@\n");
+        int i = astart;
+        for (int[] change : hunk) {
+            while (i < change[0]) {
+                printLine(out, ' ', alines.get(i));
+                i += 1;
+            }
+            for (; i < change[1]; i += 1) {
+                printLine(out, '-', alines.get(i));
+            }
+            for (int j = change[2]; j < change[3]; j += 1) {
+                printLine(out, '+', blines.get(j));
+            }
+        }
+        for (; i < aend; i += 1) {
+            printLine(out, ' ', alines.get(i));
+        }
+    }
+
+    /** Return the hunk header range for LEN lines from index START.
+     * @param start first line index.
+     * @param len number of lines. */
+    private static String range(int start, int len) {
+        if (len == 1) {
+            return Integer.toString(start + 1);
+        }
+        return (len == 0 ? start : start + 1) + "," + len;
+    }
+
+    /** Print LINE, which ends with a newline unless it is the last line of
+     * its file, marked with TAG.
+     * @param out output.
+     * @param tag ' ', '-' or '+'.
+     * @param line line. */
+    private static void printLine(PrintWriter out, char tag, String line) {
+        out.print(tag);
+        out.print(line);
+        if (!line.endsWith("\n")) {
+            out.print("\n\\ No newline at end of file\n");
+        }
+    }
+
+    /** Return the length of the longest common prefix of A and B made of
+     * whole lines.
+     * @param a text.
+     * @param b text. */
+    static int commonPrefix(String a, String b) {
+        int len = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < len && a.charAt(i) == b.charAt(i)) {
+            i += 1;
+        }
+        if (i == a.length() && i == b.length()) {
+            return i;
+        }
+        return a.lastIndexOf('\n', i - 1) + 1;
+    }
+
+    /** Return the length of the longest common suffix of A and B made of
+     * whole lines and not overlapping their first START characters.
+     * @param a text.
+     * @param b text.
+     * @param start length of their common prefix. */
+    static int commonSuffix(String a, String b, int start) {
+        int len = Math.min(a.length(), b.length()) - start;
+        int i = 0;
+        while (i < len && a.charAt(a.length() - 1 - i)
+               == b.charAt(b.length() - 1 - i)) {
+            i += 1;
+        }
+        int p = a.length() - i;
+        int q = b.length() - i;
+        if (p > 0 && a.charAt(p - 1) != '\n'
+                || q > 0 && b.charAt(q - 1) != '\n') {
+            p = a.indexOf('\n', p);
+            p = p < 0 ? a.length() : p + 1;
+        }
+        return a.length() - p;
+    }
+
+    /** Return the lines of TEXT, each with its newline.
+     * @param text contents. */
+    static List<String> lines(String text) {
+        return lines(text, 0, text.length());
+    }
+
+    /** Return the lines of TEXT between FROM and TO, each with its newline.
+     * @param text contents.
+     * @param from start of a line.
+     * @param to end of a line. */
+    static List<String> lines(String text, int from, int to) {
+        List<String> result = new ArrayList<String>();
+        int start = from;
+        while (start < to) {
+            int end = text.indexOf('\n', start);
+            end = end < 0 || end >= to ? to : end + 1;
+            result.add(text.substring(start, end));
+            start = end;
+        }
+        return result;
+    }
+
+    /** Return LINES as numbers, equal lines getting equal numbers, using
+     * and extending NUMBERS.
+     * @param lines lines.
+     * @param numbers number of each line seen so far. */
+    static int[] number(List<String> lines, Map<String, Integer> numbers) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i += 1) {
+            Integer k = numbers.putIfAbsent(lines.get(i), numbers.size());
+            result[i] = k == null ? numbers.size() - 1 : k;
+        }
+        return result;
+    }
+
+}
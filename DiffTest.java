@@ -0,0 +1,178 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Tests of diff.
+ *  @author Pauline Tang
+ */
+public class DiffTest {
+
+    /** Return the diff of OLDTEXT and NEWTEXT, the contents of f.txt.
+     * @param oldtext old contents, or null.
+     * @param newtext new contents, or null. */
+    private static String diff(String oldtext, String newtext) {
+        StringWriter s = new StringWriter();
+        PrintWriter out = new PrintWriter(s);
+        Diff.print(out, "f.txt", oldtext, newtext);
+        out.flush();
+        return s.toString();
+    }
+
+    /** Return OLDTEXT with the hunks of PATCH, a diff of it, applied,
+     * checking that the lines PATCH keeps or deletes are those of
+     * OLDTEXT. Lines before the first hunk are skipped.
+     * @param oldtext old contents.
+     * @param patch output of diff. */
+    private static String apply(String oldtext, String patch) {
+        List<String> old = Diff.lines(oldtext);
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        String last = null;
+        for (String line : patch.split("\n")) {
+            if (last == null && !line.startsWith("@@ -")) {
+                continue;
+            } else if (line.startsWith("@@ -")) {
+                String[] range = line.substring(4, line.indexOf(' ', 4))
+                    .split(",");
+                int start = Integer.parseInt(range[0]);
+                if (range.length == 1 || !range[1].equals("0")) {
+                    start -= 1;
+                }
+                while (i < start) {
+                    result.append(old.get(i));
+                    i += 1;
+                }
+                last = "@";
+            } else if (line.startsWith("\\")) {
+                assertEquals("\\ No newline at end of file", line);
+                if (!last.equals("-")) {
+                    result.setLength(result.length() - 1);
+                }
+            } else if (line.startsWith(" ") || line.startsWith("-")) {
+                assertTrue(old.get(i).startsWith(line.substring(1)));
+                if (line.startsWith(" ")) {
+                    result.append(line.substring(1)).append('\n');
+                }
+                i += 1;
+                last = line.substring(0, 1);
+            } else if (line.startsWith("+")) {
+                result.append(line.substring(1)).append('\n');
+                last = "+";
+            }
+        }
+        while (i < old.size()) {
+            result.append(old.get(i));
+            i += 1;
+        }
+        return result.toString();
+    }
+
+    /** Return the number of lines PATCH deletes or inserts.
+     * @param patch output of diff. */
+    private static int edits(String patch) {
+        int n = 0;
+        for (String line : patch.split("\n")) {
+            if (line.startsWith("-") && !line.startsWith("---")
+                    || line.startsWith("+") && !line.startsWith("+++")) {
+                n += 1;
+            }
+        }
+        return n;
+    }
+
+    /** Return the fewest lines to delete from A and insert from B to
+     * turn A into B.
+     * @param a old lines.
+     * @param b new lines. */
+    private static int distance(List<String> a, List<String> b) {
+        int[][] lcs = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i -= 1) {
+            for (int j = b.size() - 1; j >= 0; j -= 1) {
+                lcs[i][j] = a.get(i).equals(b.get(j)) ? lcs[i + 1][j + 1] + 1
+                    : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+        return a.size() + b.size() - 2 * lcs[0][0];
+    }
+
+    /** Return N random lines drawn from a few, from R.
+     * @param r source of randomness.
+     * @param n number of lines. */
+    private static List<String> randomLines(Random r, int n) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < n; i += 1) {
+            lines.add("line " + (char) ('a' + r.nextInt(5)) + "\n");
+        }
+        return lines;
+    }
+
+    /** Return LINES joined, without the final newline if CHOP.
+     * @param lines lines.
+     * @param chop whether to drop the last newline. */
+    private static String join(List<String> lines, boolean chop) {
+        String s = String.join("", lines);
+        return chop && !s.isEmpty() ? s.substring(0, s.length() - 1) : s;
+    }
+
+    @Test
+    public void unifiedFormat() {
+        String out = diff("a\nb\nc\nd\ne\nf\ng\nh\n",
+                          "a\nb\nc\nd\nE\nf\ng\nh\ni");
+        assertEquals("diff --gitlet a/f.txt b/f.txt\n"
+                     + "--- a/f.txt\n+++ b/f.txt\n"
+                     + "@@ -2,7 +2,8 @@\n"
+                     + " b\n c\n d\n-e\n+E\n f\n g\n h\n+i\n"
+                     + "\\ No newline at end of file\n", out);
+        assertEquals("diff --gitlet a/f.txt b/f.txt\nnew file\n"
+                     + "--- /dev/null\n+++ b/f.txt\n@@ -0,0 +1 @@\n+x\n",
+                     diff(null, "x\n"));
+        assertEquals("diff --gitlet a/f.txt b/f.txt\nBinary files differ\n",
+                     diff("a\0", "b\0"));
+    }
+
+    @Test
+    public void appliesBack() {
+        Random r = new Random(37);
+        for (int trial = 0; trial < 300; trial += 1) {
+            List<String> a = randomLines(r, r.nextInt(40));
+            List<String> b = new ArrayList<String>(a);
+            for (int k = r.nextInt(6); k > 0; k -= 1) {
+                int at = b.isEmpty() ? 0 : r.nextInt(b.size());
+                if (r.nextBoolean() && !b.isEmpty()) {
+                    b.remove(at);
+                } else {
+                    b.addAll(at, randomLines(r, 1 + r.nextInt(3)));
+                }
+            }
+            String oldtext = join(a, r.nextInt(4) == 0);
+            String newtext = join(b, r.nextInt(4) == 0);
+            String patch = diff(oldtext, newtext);
+            assertEquals(patch, newtext, apply(oldtext, patch));
+            assertEquals(patch, distance(Diff.lines(oldtext),
+                                         Diff.lines(newtext)), edits(patch));
+        }
+    }
+
+    @Test
+    public void command() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "one\ntwo\n");
+        String first = Main.getTree().getHeadCommit().getIdentifier();
+        UnitTest.commitFile("a.txt", "one\n2\n");
+        assertEquals("", UnitTest.output("diff"));
+        UnitTest.write("a.txt", "one\n2\nthree\n");
+        assertEquals("diff --gitlet a/a.txt b/a.txt\n--- a/a.txt\n"
+                     + "+++ b/a.txt\n@@ -1,2 +1,3 @@\n one\n 2\n+three\n",
+                     UnitTest.output("diff", "--", "a.txt"));
+        String out = UnitTest.output("diff", first, "master");
+        assertTrue(out, out.endsWith("@@ -1,2 +1,2 @@\n one\n-two\n+2\n"));
+    }
+
+}
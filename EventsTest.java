@@ -0,0 +1,87 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/** Tests of the JFR events.
+ *  @author Pauline Tang
+ */
+public class EventsTest {
+
+    /** Return the gitlet events recorded while committing a.txt in a new
+     * repository, reading its blob and commit back and running status. */
+    private static List<RecordedEvent> record() throws IOException {
+        File dir = UnitTest.newRepo();
+        File dump = Utils.join(dir, "events.jfr");
+        try (Recording r = new Recording()) {
+            for (String name : new String[] {"Blob", "CommitLoad",
+                                             "ObjectIO", "WorkingTreeScan"}) {
+                r.enable("gitlet." + name).withoutThreshold();
+            }
+            r.start();
+            Blob.getBlob(UnitTest.commitFile("a.txt", "hello\n"));
+            Commit.clearCache();
+            UnitTest.output("status");
+            r.stop();
+            r.dump(dump.toPath());
+        }
+        List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        for (RecordedEvent e : RecordingFile.readAllEvents(dump.toPath())) {
+            if (e.getEventType().getName().startsWith("gitlet.")) {
+                events.add(e);
+            }
+        }
+        return events;
+    }
+
+    /** Return the events in EVENTS named NAME.
+     * @param events recorded events.
+     * @param name event name. */
+    private static List<RecordedEvent> named(List<RecordedEvent> events,
+                                             String name) {
+        List<RecordedEvent> result = new ArrayList<RecordedEvent>();
+        for (RecordedEvent e : events) {
+            if (e.getEventType().getName().equals(name)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void recorded() throws IOException {
+        List<RecordedEvent> events = record();
+        String blob =
+            Main.getTree().getHeadCommit().getFilesTracked().get("a.txt");
+        boolean written = false;
+        boolean read = false;
+        for (RecordedEvent e : named(events, "gitlet.Blob")) {
+            if (e.getString("id").equals(blob)) {
+                assertEquals("a.txt", e.getString("filename"));
+                assertEquals(6, e.getLong("size"));
+                written |= e.getString("operation").equals("write");
+                read |= e.getString("operation").equals("read");
+            }
+        }
+        assertTrue(written);
+        assertTrue(read);
+        assertFalse(named(events, "gitlet.CommitLoad").isEmpty());
+        assertFalse(named(events, "gitlet.ObjectIO").isEmpty());
+        boolean scanned = false;
+        for (RecordedEvent e : named(events, "gitlet.WorkingTreeScan")) {
+            scanned |= e.getString("purpose").equals("modified")
+                && e.getInt("files") == 1;
+        }
+        assertTrue(scanned);
+    }
+
+}
@@ -0,0 +1,253 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The fsck command: checks the object store. Every commit, blob and
+ * chunk in this repository is hashed again, in parallel, and compared
+ * with the name it is stored under; contents are streamed through
+ * Hasher, so memory use does not grow with object size. Then the history
+ * of every branch head, the current head commit and the stage is walked,
+ * and every commit, blob and chunk it refers to must exist, here or in
+ * an alternate. Objects this repository holds that nothing refers to are
+ * reported as dangling; gc removes them once they are old enough.
+ * Finally the object index is built afresh from what is stored.
+ * @author Pauline Tang */
+public class Fsck {
+
+    /** Bytes in a megabyte, for the throughput. */
+    private static final double MB = 1 << 20;
+
+    /** Length of an object id. */
+    private static final int ID_LENGTH = 40;
+
+    /** Objects whose contents do not match their names, as "corrupt blob
+     * ID", and stray files, as "garbage FOLDER/NAME". */
+    private final Set<String> _corrupt = ConcurrentHashMap.newKeySet();
+
+    /** Referenced objects not found. */
+    private final Set<String> _missing = new TreeSet<String>();
+
+    /** Unreferenced objects. */
+    private final Set<String> _dangling = new TreeSet<String>();
+
+    /** Ids of the commits reached. */
+    private final Set<String> _commits = new HashSet<String>();
+
+    /** Ids of the blobs reached. */
+    private final Set<String> _blobs = new HashSet<String>();
+
+    /** Ids of the chunks reached. */
+    private final Set<String> _chunks = new HashSet<String>();
+
+    /** Number of objects hashed. */
+    private final AtomicLong _objects = new AtomicLong();
+
+    /** Bytes of object files hashed. */
+    private final AtomicLong _bytes = new AtomicLong();
+
+    /** Runs the fsck command.
+     * @param args operands following "fsck". */
+    public static void fsck(String... args) {
+        if (args.length != 0) {
+            throw Utils.error("Incorrect operands.");
+        }
+        Fsck fsck = new Fsck();
+        long start = System.nanoTime();
+        fsck.verify();
+        fsck.connect();
+        ObjectIndex.rebuild();
+        fsck.report(System.nanoTime() - start);
+    }
+
+    /** Hashes every object in the commits, blobs and chunks folders in
+     * parallel, noting those whose contents do not match their names. */
+    private void verify() {
+        List<File> files = new ArrayList<File>();
+        for (File folder : new File[] {Main.getCommitsFolder(),
+                                       Main.getBlobsFolder(),
+                                       Main.getChunksFolder()}) {
+            List<String> names = Utils.plainFilenamesIn(folder);
+            if (names != null) {
+                for (String name : names) {
+                    files.add(Utils.join(folder, name));
+                }
+            }
+        }
+        files.parallelStream().forEach(this::verify);
+    }
+
+    /** Hashes the object file F and notes it if corrupt.
+     * @param f object file. */
+    private void verify(File f) {
+        String id = f.getName();
+        String kind = kind(f);
+        if (id.length() != ID_LENGTH) {
+            _corrupt.add("garbage " + f.getParentFile().getName() + "/" + id);
+            return;
+        }
+        String actual;
+        try {
+            if (kind.equals("commit")) {
+                Commit c = Utils.readObject(f, Commit.class);
+                actual = Utils.sha1(c.getMessage(), c.getTimestamp());
+            } else if (kind.equals("blob")) {
+                actual = Blob.rehash(f);
+            } else {
+                try (InputStream in = Files.newInputStream(f.toPath())) {
+                    actual = Hasher.start().update(in).hex();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            actual = null;
+            _corrupt.add("corrupt " + kind + " " + id);
+        }
+        if (actual != null && !actual.equals(id)) {
+            _corrupt.add("corrupt " + kind + " " + id);
+        }
+        _objects.incrementAndGet();
+        _bytes.addAndGet(f.length());
+    }
+
+    /** Return what kind of object the file F is, by its folder.
+     * @param f object file. */
+    private static String kind(File f) {
+        File folder = f.getParentFile();
+        if (folder.equals(Main.getCommitsFolder())) {
+            return "commit";
+        } else if (folder.equals(Main.getBlobsFolder())) {
+            return "blob";
+        }
+        return "chunk";
+    }
+
+    /** Walks history from every branch head, the current head commit and
+     * the stage, noting objects referred to but not found, then notes the
+     * objects of this repository never reached. */
+    private void connect() {
+        Deque<String> work = new ArrayDeque<String>();
+        for (String name : Branch.names()) {
+            String head = Branch.getBranch(name).getHeadCommit();
+            if (head == null || !exists(Main.getCommitsFolder(), head)) {
+                _missing.add("commit " + head + " (head of " + name + ")");
+            } else {
+                work.push(head);
+            }
+        }
+        Commit treehead = Main.getTree().getHeadCommit();
+        if (treehead != null) {
+            work.push(treehead.getIdentifier());
+        }
+        while (!work.isEmpty()) {
+            String id = work.pop();
+            if (!_commits.add(id)) {
+                continue;
+            }
+            Commit c;
+            try {
+                c = Utils.readObject(
+                    Alternates.find(Main.getCommitsFolder(), id), Commit.class);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            for (String blob : c.getFilesTracked().values()) {
+                reachBlob(blob, id);
+            }
+            String parent = c.getParentHash();
+            if (parent != null) {
+                if (exists(Main.getCommitsFolder(), parent)) {
+                    work.push(parent);
+                } else {
+                    _missing.add("commit " + parent + " (parent of " + id
+                                 + ")");
+                }
+            }
+        }
+        for (String blob : Main.getStage().getAddition().values()) {
+            reachBlob(blob, "the stage");
+        }
+        dangling("commit", Main.getCommitsFolder(), _commits);
+        dangling("blob", Main.getBlobsFolder(), _blobs);
+        dangling("chunk", Main.getChunksFolder(), _chunks);
+    }
+
+    /** Notes the blob ID, referred to by FROM, and its chunks as reached,
+     * or as missing if not found.
+     * @param id blob id.
+     * @param from commit id or description of the referrer. */
+    private void reachBlob(String id, String from) {
+        if (!_blobs.add(id)) {
+            return;
+        }
+        if (!exists(Main.getBlobsFolder(), id)) {
+            _missing.add("blob " + id + " (in " + from + ")");
+            return;
+        }
+        List<String> chunks;
+        try {
+            chunks = Blob.chunks(id);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        for (String chunk : chunks) {
+            if (_chunks.add(chunk) && !exists(Main.getChunksFolder(), chunk)) {
+                _missing.add("chunk " + chunk + " (in blob " + id + ")");
+            }
+        }
+    }
+
+    /** Return true iff object ID is stored in FOLDER or its counterpart
+     * in an alternate.
+     * @param folder object folder.
+     * @param id object id. */
+    private static boolean exists(File folder, String id) {
+        return Alternates.find(folder, id).exists();
+    }
+
+    /** Notes the objects of kind KIND in FOLDER that are not in REACHED.
+     * @param kind "commit", "blob" or "chunk".
+     * @param folder object folder.
+     * @param reached ids reached. */
+    private void dangling(String kind, File folder, Set<String> reached) {
+        List<String> names = Utils.plainFilenamesIn(folder);
+        if (names == null) {
+            return;
+        }
+        for (String id : names) {
+            if (id.length() == ID_LENGTH && !reached.contains(id)) {
+                _dangling.add(kind + " " + id);
+            }
+        }
+    }
+
+    /** Prints the problems found and the work done in ELAPSED ns.
+     * @param elapsed time taken. */
+    private void report(long elapsed) {
+        for (String s : new TreeSet<String>(_corrupt)) {
+            System.out.println(s);
+        }
+        for (String s : _missing) {
+            System.out.println("missing " + s);
+        }
+        for (String s : _dangling) {
+            System.out.println("dangling " + s);
+        }
+        double seconds = Math.max(elapsed, 1) / 1e9;
+        double mb = _bytes.get() / MB;
+        System.out.println(String.format(
+            "Checked %d object(s), %.1f MB in %.2f s (%.1f MB/s).",
+            _objects.get(), mb, seconds, mb / seconds));
+    }
+
+}
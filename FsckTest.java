@@ -0,0 +1,41 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of fsck.
+ *  @author Pauline Tang
+ */
+public class FsckTest {
+
+    /** Make a new repository with one commit tracking a.txt, and return
+     * the id of its blob. */
+    private static String commitOneFile() {
+        UnitTest.newRepo();
+        return UnitTest.commitFile("a.txt", "hello\n");
+    }
+
+    @Test
+    public void clean() {
+        commitOneFile();
+        String out = UnitTest.output("fsck");
+        assertTrue(out, out.startsWith("Checked "));
+    }
+
+    @Test
+    public void findsCorruptBlob() {
+        String blob = commitOneFile();
+        Utils.writeContents(Utils.join(Main.getBlobsFolder(), blob), "junk");
+        String out = UnitTest.output("fsck");
+        assertTrue(out, out.contains("corrupt blob " + blob + "\n"));
+    }
+
+    @Test
+    public void findsMissingBlob() {
+        String blob = commitOneFile();
+        Utils.join(Main.getBlobsFolder(), blob).delete();
+        String out = UnitTest.output("fsck");
+        assertTrue(out, out.contains("missing blob " + blob));
+    }
+
+}
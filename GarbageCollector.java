@@ -0,0 +1,254 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Mark-and-sweep collection of commits and blobs that can no longer be
+ * reached from any branch head, the current head commit or the stage,
+ * along with the raw copies of such blobs made for linked checkouts, the
+ * chunks no live blob is made of, and the large files no live blob points
+ * to. A live blob that is missing or cannot be read is reported rather
+ * than failing the collection; since what it refers to is unknown, no
+ * chunks or large files are swept then.
+ * @author Pauline Tang */
+public class GarbageCollector {
+
+    /** Default grace period: objects younger than this are kept. */
+    static final long DEFAULT_GRACE_SECONDS = 14 * 24 * 60 * 60;
+
+    /** Ids of commits found reachable. */
+    private Set<String> _liveCommits;
+
+    /** Ids of blobs found reachable. */
+    private Set<String> _liveBlobs;
+
+    /** Ids of chunks of reachable blobs. */
+    private Set<String> _liveChunks;
+
+    /** Ids of large files reachable blobs point to. */
+    private Set<String> _liveLarge;
+
+    /** Ids of reachable blobs that are missing or cannot be read. */
+    private Set<String> _unreadable = new TreeSet<String>();
+
+    /** True if nothing should actually be deleted. */
+    private boolean _dryrun;
+
+    /** Objects last modified before this time (ms) may be swept. */
+    private long _cutoff;
+
+    /** Number of commits swept. */
+    private int _commitsswept;
+
+    /** Number of blobs swept. */
+    private int _blobsswept;
+
+    /** Bytes reclaimed by the sweep. */
+    private long _bytes;
+
+    /** Creates a collector that keeps any object modified in the last
+     * GRACESECONDS seconds, and deletes nothing if DRYRUN.
+     * @param graceseconds grace period.
+     * @param dryrun only report what would be reclaimed. */
+    public GarbageCollector(long graceseconds, boolean dryrun) {
+        _liveCommits = ConcurrentHashMap.newKeySet();
+        _liveBlobs = ConcurrentHashMap.newKeySet();
+        _liveChunks = ConcurrentHashMap.newKeySet();
+        _liveLarge = ConcurrentHashMap.newKeySet();
+        _dryrun = dryrun;
+        _cutoff = System.currentTimeMillis() - graceseconds * 1000;
+    }
+
+    /** Runs the gc command with its operands ARGS, which may be
+     * "--dry-run" and "--grace=SECONDS".
+     * @param args operands following "gc". */
+    public static void gc(String... args) {
+        long grace = DEFAULT_GRACE_SECONDS;
+        boolean dryrun = false;
+        for (String arg : args) {
+            if (arg.equals("--dry-run") || arg.equals("-n")) {
+                dryrun = true;
+            } else if (arg.startsWith("--grace=")) {
+                try {
+                    grace = Long.parseLong(arg.substring("--grace=".length()));
+                } catch (NumberFormatException e) {
+                    throw Utils.error("Incorrect operands.");
+                }
+            } else {
+                throw Utils.error("Incorrect operands.");
+            }
+        }
+        GarbageCollector gc = new GarbageCollector(grace, dryrun);
+        gc.mark();
+        gc.sweep();
+        gc.report();
+    }
+
+    /** Marks every commit and blob reachable from a branch head, the
+     * current head commit, or the staging area. Branches are marked in
+     * parallel; a commit shared by several branches is read only once. */
+    public void mark() {
+        Reachability r = Reachability.load();
+        CommitGraph g = r.getGraph();
+        List<int[]> roots = new ArrayList<int[]>();
+        for (String name : Branch.names()) {
+            String head = Branch.getBranch(name).getHeadCommit();
+            roots.add(r.reachable(head).toArray());
+        }
+        Commit treehead = Main.getTree().getHeadCommit();
+        if (treehead != null) {
+            roots.add(r.reachable(treehead.getIdentifier()).toArray());
+        }
+        r.save();
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Math.min(roots.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            for (int[] positions : roots) {
+                tasks.add(pool.submit(() -> markCommits(g, positions)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw Utils.error("Marking failed: %s", e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+
+        _liveBlobs.addAll(Main.getStage().getAddition().values());
+        boolean lfs = Main.getLfsFolder().isDirectory();
+        for (String id : _liveBlobs) {
+            if (!Alternates.find(Main.getBlobsFolder(), id).exists()) {
+                _unreadable.add(id);
+                continue;
+            }
+            try {
+                _liveChunks.addAll(Blob.chunks(id));
+                if (lfs && Blob.isPointer(id)) {
+                    _liveLarge.add(LargeFiles.pointee(id));
+                }
+            } catch (GitletException | IllegalArgumentException e) {
+                _unreadable.add(id);
+            }
+        }
+    }
+
+    /** Deletes (or, for a dry run, measures) every unmarked commit and blob
+     * older than the grace period, then drops swept commits from the commit
+     * tree and rebuilds the object index, commit index and bitmaps without
+     * them. */
+    public void sweep() {
+        List<String> swept = new ArrayList<String>();
+        for (String id : Utils.plainFilenamesIn(Main.getCommitsFolder())) {
+            if (!_liveCommits.contains(id)
+                    && sweepFile(Utils.join(Main.getCommitsFolder(), id))) {
+                swept.add(id);
+            }
+        }
+        _commitsswept = swept.size();
+        for (String id : Utils.plainFilenamesIn(Main.getBlobsFolder())) {
+            if (!_liveBlobs.contains(id)
+                    && sweepFile(Utils.join(Main.getBlobsFolder(), id))) {
+                _blobsswept += 1;
+            }
+        }
+        List<String> raw = Utils.plainFilenamesIn(Main.getRawFolder());
+        if (raw != null) {
+            for (String id : raw) {
+                if (!_liveBlobs.contains(id)) {
+                    sweepFile(Utils.join(Main.getRawFolder(), id));
+                }
+            }
+        }
+        List<String> chunks = Utils.plainFilenamesIn(Main.getChunksFolder());
+        if (chunks != null && _unreadable.isEmpty()) {
+            for (String id : chunks) {
+                if (!_liveChunks.contains(id)) {
+                    sweepFile(Chunker.chunkFile(id));
+                }
+            }
+        }
+        List<String> large = Utils.plainFilenamesIn(Main.getLfsFolder());
+        if (large != null && _unreadable.isEmpty()) {
+            for (String id : large) {
+                if (!_liveLarge.contains(id)) {
+                    sweepFile(Utils.join(Main.getLfsFolder(), id));
+                }
+            }
+        }
+        if (!_dryrun && (_commitsswept > 0 || _blobsswept > 0)) {
+            ObjectIndex.rebuild();
+        }
+        if (_dryrun || swept.isEmpty()) {
+            return;
+        }
+        Tree t = Main.getTree();
+        t.getCommitTreeMap().keySet().removeAll(swept);
+        t.saveTree();
+        Main.getGraphFile().delete();
+        Main.getBitmapsFile().delete();
+        Reachability.load().save();
+        List<String> blame = Utils.plainFilenamesIn(Main.getBlameFolder());
+        if (blame != null) {
+            for (String name : blame) {
+                Utils.join(Main.getBlameFolder(), name).delete();
+            }
+        }
+    }
+
+    /** Prints what the sweep removed, or would have removed. */
+    public void report() {
+        for (String id : _unreadable) {
+            System.out.println("Cannot read blob " + id + ".");
+        }
+        if (!_unreadable.isEmpty()) {
+            System.out.println("Kept all chunks and large files; "
+                               + "run fsck.");
+        }
+        String verb = _dryrun ? "Would remove" : "Removed";
+        System.out.println(verb + " " + _commitsswept + " commit(s) and "
+                + _blobsswept + " blob(s), " + _bytes + " bytes.");
+    }
+
+    /** Marks the commits at POSITIONS in G and the blobs they track,
+     * skipping commits already marked by another branch.
+     * @param g commit index.
+     * @param positions commit positions. */
+    private void markCommits(CommitGraph g, int[] positions) {
+        for (int i = positions.length - 1; i >= 0; i -= 1) {
+            String id = g.id(positions[i]);
+            if (_liveCommits.add(id)) {
+                Map<String, String> files =
+                    Commit.getCommit(id).getFilesTracked();
+                _liveBlobs.addAll(files.values());
+            }
+        }
+    }
+
+    /** Sweeps F if it is past the grace period.
+     * @param f unreachable object file.
+     * @return true iff f was (or would be) removed. */
+    private boolean sweepFile(File f) {
+        if (f.lastModified() >= _cutoff) {
+            return false;
+        }
+        long size = f.length();
+        if (!_dryrun && !f.delete()) {
+            return false;
+        }
+        _bytes += size;
+        return true;
+    }
+
+}
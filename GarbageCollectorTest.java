@@ -0,0 +1,81 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of gc.
+ *  @author Pauline Tang
+ */
+public class GarbageCollectorTest {
+
+    /** An hour, in ms. */
+    private static final long HOUR = 60 * 60 * 1000;
+
+    /** Make a new repository whose master holds a.txt and c.txt, with
+     * d.txt staged, and which also holds a commit of b.txt from a deleted
+     * branch, all made an hour ago. Return the ids of that commit and its
+     * b.txt blob. */
+    private static String[] orphaned() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "a\n");
+        Main.run("branch", "tmp");
+        Main.run("checkout", "tmp");
+        String blob = UnitTest.commitFile("b.txt", "b\n");
+        String commit = Branch.getBranch("tmp").getHeadCommit();
+        Main.run("checkout", "master");
+        Main.run("rm-branch", "tmp");
+        UnitTest.commitFile("c.txt", "c\n");
+        UnitTest.write("d.txt", "d\n");
+        Main.add("d.txt");
+        long then = System.currentTimeMillis() - HOUR;
+        for (File dir : Main.getGitletDir().listFiles()) {
+            if (dir.isDirectory()) {
+                for (File f : dir.listFiles()) {
+                    f.setLastModified(then);
+                }
+            }
+        }
+        return new String[] { commit, blob };
+    }
+
+    @Test
+    public void keepsRecentObjects() {
+        String[] ids = orphaned();
+        String out = UnitTest.output("gc");
+        assertEquals("Removed 0 commit(s) and 0 blob(s), 0 bytes.\n", out);
+        assertTrue(Utils.join(Main.getCommitsFolder(), ids[0]).exists());
+    }
+
+    @Test
+    public void dryRunRemovesNothing() {
+        String[] ids = orphaned();
+        String out = UnitTest.output("gc", "--dry-run", "--grace=60");
+        assertTrue(out,
+                   out.startsWith("Would remove 1 commit(s) and 1 blob(s)"));
+        assertTrue(Utils.join(Main.getCommitsFolder(), ids[0]).exists());
+        assertTrue(Utils.join(Main.getBlobsFolder(), ids[1]).exists());
+    }
+
+    @Test
+    public void sweepsUnreachable() {
+        String[] ids = orphaned();
+        Commit head = Main.getTree().getHeadCommit();
+        String out = UnitTest.output("gc", "--grace=60");
+        assertTrue(out, out.startsWith("Removed 1 commit(s) and 1 blob(s)"));
+        assertFalse(Utils.join(Main.getCommitsFolder(), ids[0]).exists());
+        assertFalse(Utils.join(Main.getBlobsFolder(), ids[1]).exists());
+        assertFalse(ObjectIndex.contains(ObjectIndex.COMMIT, ids[0]));
+        Main.run("commit", "add d.txt");
+        Commit c = Main.getTree().getHeadCommit();
+        assertEquals(head.getIdentifier(), c.getParentHash());
+        for (String name : new String[] { "a", "c", "d" }) {
+            String blob = c.getFilesTracked().get(name + ".txt");
+            assertEquals(name + "\n", Blob.getBlob(blob).getContents());
+        }
+        out = UnitTest.output("fsck");
+        assertTrue(out, out.startsWith("Checked "));
+    }
+
+}
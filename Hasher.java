@@ -0,0 +1,184 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** SHA-1 hashing with one reusable digest and buffer per thread, so that
+ * hashing costs no allocation and parallel workers need no locking.
+ * Contents may be fed in pieces, from arrays, buffers, streams or files,
+ * without ever being held in memory whole:
+ *     String id = Hasher.start().update(name).update(in).hex();
+ * A thread must finish one hash (with hex) before starting the next.
+ * @author Pauline Tang */
+class Hasher {
+
+    /** Size of the read buffer. */
+    private static final int BUFFER_SIZE = 64 << 10;
+
+    /** Hexadecimal digits. */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** The hasher of each thread. */
+    private static final ThreadLocal<Hasher> HASHERS =
+        ThreadLocal.withInitial(Hasher::new);
+
+    /** Digest, reset by start. */
+    private final MessageDigest _md;
+
+    /** Read buffer. */
+    private final byte[] _buffer = new byte[BUFFER_SIZE];
+
+    /** UTF-8 decoder, used only to validate file contents. */
+    private final CharsetDecoder _decoder = StandardCharsets.UTF_8
+        .newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    /** Scratch output of _decoder. */
+    private final CharBuffer _chars = CharBuffer.allocate(BUFFER_SIZE);
+
+    /** Creates a hasher for the current thread. */
+    private Hasher() {
+        try {
+            _md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalArgumentException("System does not support SHA-1");
+        }
+    }
+
+    /** Return this thread's hasher, ready for a new hash. */
+    static Hasher start() {
+        Hasher h = HASHERS.get();
+        h._md.reset();
+        return h;
+    }
+
+    /** Add BYTES to the hash.
+     * @param bytes data.
+     * @return this hasher. */
+    Hasher update(byte[] bytes) {
+        _md.update(bytes);
+        return this;
+    }
+
+    /** Add LEN bytes of BYTES, starting at OFF, to the hash.
+     * @param bytes data.
+     * @param off first byte.
+     * @param len number of bytes.
+     * @return this hasher. */
+    Hasher update(byte[] bytes, int off, int len) {
+        _md.update(bytes, off, len);
+        return this;
+    }
+
+    /** Add S, encoded as UTF-8, to the hash.
+     * @param s string.
+     * @return this hasher. */
+    Hasher update(String s) {
+        _md.update(s.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /** Add the remaining bytes of BUF to the hash, consuming them.
+     * @param buf buffer.
+     * @return this hasher. */
+    Hasher update(ByteBuffer buf) {
+        _md.update(buf);
+        return this;
+    }
+
+    /** Add everything left in IN to the hash. IN is not closed.
+     * @param in stream.
+     * @return this hasher. */
+    Hasher update(InputStream in) throws IOException {
+        for (int n; (n = in.read(_buffer)) >= 0;) {
+            _md.update(_buffer, 0, n);
+        }
+        return this;
+    }
+
+    /** Return the hash as 40 hexadecimal digits, ending it. */
+    String hex() {
+        byte[] digest = _md.digest();
+        char[] result = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i += 1) {
+            result[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+            result[2 * i + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(result);
+    }
+
+    /** Return the id a blob of working file F, named FILENAME, would have,
+     * which is Utils.sha1(FILENAME, Utils.readContentsAsString(F)). The
+     * file is streamed; only contents that are not valid UTF-8, and so
+     * change when read as a String, are read whole. Files large enough
+     * to be kept apart (see LargeFiles) have the id of their pointer.
+     * @param filename name of the file.
+     * @param f working file. */
+    static String blobId(String filename, File f) {
+        if (LargeFiles.isLarge(f.length())) {
+            return LargeFiles.blobId(filename, f);
+        }
+        Hasher h = start().update(filename);
+        if (h.updateIfUTF8(f)) {
+            return h.hex();
+        }
+        return Utils.sha1(filename, Utils.readContentsAsString(f));
+    }
+
+    /** Add the contents of F to the hash while checking that they are
+     * valid UTF-8.
+     * @param f file.
+     * @return false (leaving the hash unusable) if they are not. */
+    private boolean updateIfUTF8(File f) {
+        ByteBuffer buf = ByteBuffer.wrap(_buffer);
+        _decoder.reset();
+        long total = 0;
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            for (int n; (n = in.read(buf)) >= 0;) {
+                _md.update(_buffer, buf.position() - n, n);
+                total += n;
+                buf.flip();
+                if (!decode(buf, false)) {
+                    return false;
+                }
+                buf.compact();
+            }
+            buf.flip();
+            _chars.clear();
+            if (!decode(buf, true)
+                    || _decoder.flush(_chars).isError()) {
+                return false;
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        } finally {
+            Trace.bytesRead(total);
+        }
+        return true;
+    }
+
+    /** Run the decoder over BUF, discarding its output.
+     * @param buf bytes to decode.
+     * @param last true if no more bytes follow.
+     * @return false if the bytes are not valid UTF-8. */
+    private boolean decode(ByteBuffer buf, boolean last) {
+        CoderResult r;
+        do {
+            _chars.clear();
+            r = _decoder.decode(buf, _chars, last);
+        } while (r.isOverflow());
+        return !r.isError();
+    }
+
+}
@@ -0,0 +1,122 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Tests of the SHA-1 hasher.
+ *  @author Pauline Tang
+ */
+public class HasherTest {
+
+    /** Return the SHA-1 of DATA, in hex, computed by MessageDigest.
+     * @param data bytes to hash. */
+    private static String reference(byte[] data) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(data)) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /** Return N pseudo-random bytes from SEED.
+     * @param n length.
+     * @param seed random seed. */
+    private static byte[] random(int n, long seed) {
+        byte[] data = new byte[n];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void knownDigests() {
+        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709",
+                     Hasher.start().hex());
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d",
+                     Hasher.start().update("abc").hex());
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d",
+                     Utils.sha1("a", "bc"));
+    }
+
+    @Test
+    public void everyInputForm() throws IOException {
+        byte[] data = random(200 << 10, 1);
+        String expected = reference(data);
+        assertEquals(expected, Hasher.start().update(data).hex());
+        assertEquals(expected, Hasher.start().update(data, 0, 1000)
+                     .update(data, 1000, data.length - 1000).hex());
+        assertEquals(expected,
+                     Hasher.start().update(ByteBuffer.wrap(data)).hex());
+        assertEquals(expected, Hasher.start()
+                     .update(new ByteArrayInputStream(data)).hex());
+    }
+
+    @Test
+    public void startForgetsUnfinishedHash() {
+        Hasher.start().update("left over");
+        assertEquals(reference("abc".getBytes(StandardCharsets.UTF_8)),
+                     Hasher.start().update("abc").hex());
+    }
+
+    @Test
+    public void blobIdMatchesBlob() {
+        UnitTest.newRepo();
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < (64 << 10) - 1) {
+            sb.append('x');
+        }
+        sb.append("\u00e9\u4e2d\n");
+        UnitTest.write("utf8.txt", sb.toString());
+        File f = Utils.join(Main.getCWD(), "utf8.txt");
+        assertEquals(Utils.sha1("utf8.txt", sb.toString()),
+                     Hasher.blobId("utf8.txt", f));
+        File bad = Utils.join(Main.getCWD(), "bad.txt");
+        Utils.writeContents(bad, new byte[] {'a', (byte) 0xff, 'b'});
+        assertEquals(Utils.sha1("bad.txt", Utils.readContentsAsString(bad)),
+                     Hasher.blobId("bad.txt", bad));
+    }
+
+    @Test
+    public void threadsHashApart()
+        throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t += 1) {
+                byte[] data = random(100 << 10, t);
+                results.add(pool.submit(() -> {
+                    Hasher h = Hasher.start();
+                    for (int off = 0; off < data.length; off += 1000) {
+                        h.update(data, off, Math.min(1000, data.length - off));
+                        Thread.yield();
+                    }
+                    return h.hex().equals(reference(data));
+                }));
+            }
+            for (Future<Boolean> r : results) {
+                assertTrue(r.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
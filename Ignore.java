@@ -0,0 +1,245 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/** The patterns of .gitletignore, at the top of the working directory,
+ * naming files that status, add and checkout leave alone unless they are
+ * tracked. One pattern per line; blank lines and lines starting with "#"
+ * are skipped, as are negated ("!") patterns, which are not supported.
+ *     NAME      a file or directory with that name, at any depth;
+ *     DIR/NAME  that path from the top (so is "/NAME");
+ *     PATTERN/  only directories.
+ * Patterns may use "*", "?" and "[...]", which do not match "/", and
+ * "**", which does. Everything below an ignored directory is ignored.
+ *
+ * Patterns are compiled once per change of the file. Literal patterns
+ * become a set of names and a trie of paths; a path pattern with wildcards
+ * is compiled to a regular expression and hung on the trie node of its
+ * literal leading directories, so it is only tried on paths below them.
+ * @author Pauline Tang */
+class Ignore {
+
+    /** Name of the ignore file. */
+    static final String FILENAME = ".gitletignore";
+
+    /** Matcher of the current repository, or null. */
+    private static Ignore _current;
+
+    /** Modification time and length of the ignore file for _current. */
+    private static long[] _stamp;
+
+    /** A directory in the trie of path patterns. */
+    private static class Node {
+
+        /** Nodes of the subdirectories named in patterns. */
+        private final HashMap<String, Node> _children =
+            new HashMap<String, Node>();
+
+        /** True iff a pattern names this path. */
+        private boolean _ignored;
+
+        /** True iff every pattern naming this path ends in "/". */
+        private boolean _dirOnly = true;
+
+        /** Patterns for the rest of the path below this node. */
+        private final List<Glob> _globs = new ArrayList<Glob>();
+
+    }
+
+    /** A compiled wildcard pattern. */
+    private static class Glob {
+
+        /** The pattern as a regular expression. */
+        private final Pattern _regex;
+
+        /** True iff it only matches directories. */
+        private final boolean _dirOnly;
+
+        /** The compiled form of REGEX, matching only directories if
+         * DIRONLY.
+         * @param regex regular expression.
+         * @param dironly true for a pattern ending in "/". */
+        Glob(String regex, boolean dironly) {
+            _regex = Pattern.compile(regex);
+            _dirOnly = dironly;
+        }
+
+        /** Return true iff this matches S, naming a directory iff DIR.
+         * @param s name or path.
+         * @param dir true for a directory. */
+        boolean matches(String s, boolean dir) {
+            return (dir || !_dirOnly) && _regex.matcher(s).matches();
+        }
+    }
+
+    /** Literal names of files and directories ignored at any depth. */
+    private final HashSet<String> _names = new HashSet<String>();
+
+    /** Literal names of directories ignored at any depth. */
+    private final HashSet<String> _dirNames = new HashSet<String>();
+
+    /** Wildcard names ignored at any depth. */
+    private final List<Glob> _nameGlobs = new ArrayList<Glob>();
+
+    /** Root of the trie of path patterns. */
+    private final Node _root = new Node();
+
+    /** Return the matcher for the current repository's ignore file,
+     * compiling it only if the file has changed. */
+    static Ignore get() {
+        File f = Utils.join(Main.getCWD(), FILENAME);
+        long[] stamp = {f.lastModified(), f.length()};
+        if (_current == null || !Arrays.equals(stamp, _stamp)) {
+            Ignore ignore = new Ignore();
+            if (f.isFile()) {
+                for (String line : Utils.readContentsAsString(f).split("\n")) {
+                    ignore.add(line.strip());
+                }
+            }
+            _current = ignore;
+            _stamp = stamp;
+        }
+        return _current;
+    }
+
+    /** Forget the matcher, as when switching repositories. */
+    static void clear() {
+        _current = null;
+        _stamp = null;
+    }
+
+    /** Return true iff PATH, a directory iff DIR, is ignored, either
+     * itself or because a directory above it is.
+     * @param path path from the top of the working directory.
+     * @param dir true for a directory. */
+    boolean ignored(String path, boolean dir) {
+        for (int i = path.indexOf('/'); i >= 0; i = path.indexOf('/', i + 1)) {
+            if (matches(path.substring(0, i), true)) {
+                return true;
+            }
+        }
+        return matches(path, dir);
+    }
+
+    /** Return true iff a pattern matches PATH itself, a directory iff
+     * DIR. Directories above it are not considered; the walker, which
+     * never enters ignored directories, needs no more.
+     * @param path path from the top of the working directory.
+     * @param dir true for a directory. */
+    boolean matches(String path, boolean dir) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (_names.contains(name) || (dir && _dirNames.contains(name))) {
+            return true;
+        }
+        for (Glob g : _nameGlobs) {
+            if (g.matches(name, dir)) {
+                return true;
+            }
+        }
+        Node node = _root;
+        int start = 0;
+        while (node != null) {
+            for (Glob g : node._globs) {
+                if (g.matches(path.substring(start), dir)) {
+                    return true;
+                }
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                node = node._children.get(path.substring(start));
+                return node != null && node._ignored
+                    && (dir || !node._dirOnly);
+            }
+            node = node._children.get(path.substring(start, end));
+            start = end + 1;
+        }
+        return false;
+    }
+
+    /** Compile the pattern LINE.
+     * @param line line of the ignore file. */
+    private void add(String line) {
+        if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
+            return;
+        }
+        boolean dironly = line.endsWith("/");
+        String p = dironly ? line.substring(0, line.length() - 1) : line;
+        if (p.startsWith("**/") && p.indexOf('/', 3) < 0) {
+            p = p.substring(3);
+        }
+        if (p.isEmpty() || p.equals("/")) {
+            return;
+        }
+        if (p.indexOf('/') < 0) {
+            if (!isGlob(p)) {
+                (dironly ? _dirNames : _names).add(p);
+            } else {
+                _nameGlobs.add(new Glob(regex(p), dironly));
+            }
+            return;
+        }
+        if (p.startsWith("/")) {
+            p = p.substring(1);
+        }
+        Node node = _root;
+        String[] parts = p.split("/");
+        int i = 0;
+        for (; i < parts.length && !isGlob(parts[i]); i += 1) {
+            node = node._children.computeIfAbsent(parts[i], k -> new Node());
+        }
+        if (i == parts.length) {
+            node._ignored = true;
+            node._dirOnly &= dironly;
+        } else {
+            String rest = String.join("/",
+                                      Arrays.copyOfRange(parts, i,
+                                                         parts.length));
+            node._globs.add(new Glob(regex(rest), dironly));
+        }
+    }
+
+    /** Return true iff PATTERN has wildcards.
+     * @param pattern pattern. */
+    private static boolean isGlob(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0
+            || pattern.indexOf('[') >= 0;
+    }
+
+    /** Return the regular expression matching what GLOB does.
+     * @param glob wildcard pattern. */
+    private static String regex(String glob) {
+        StringBuilder r = new StringBuilder();
+        for (int i = 0; i < glob.length(); i += 1) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("**/", i)) {
+                r.append("(?:.*/)?");
+                i += 2;
+            } else if (glob.startsWith("**", i)) {
+                r.append(".*");
+                i += 1;
+            } else if (c == '*') {
+                r.append("[^/]*");
+            } else if (c == '?') {
+                r.append("[^/]");
+            } else if (c == '[' && glob.indexOf(']', i + 1) > i + 1) {
+                int end = glob.indexOf(']', i + 1);
+                String set = glob.substring(i + 1, end);
+                if (set.startsWith("!")) {
+                    set = "^" + set.substring(1);
+                }
+                r.append('[').append(set.replace("\\", "\\\\")).append(']');
+                i = end;
+            } else {
+                r.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return r.toString();
+    }
+
+}
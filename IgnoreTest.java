@@ -0,0 +1,58 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of .gitletignore matching.
+ *  @author Pauline Tang
+ */
+public class IgnoreTest {
+
+    /** Return the matcher of a new repository whose ignore file holds
+     * PATTERNS, one per line.
+     * @param patterns lines of the ignore file. */
+    private static Ignore ignore(String... patterns) {
+        UnitTest.newRepo();
+        UnitTest.write(Ignore.FILENAME, String.join("\n", patterns) + "\n");
+        return Ignore.get();
+    }
+
+    @Test
+    public void name() {
+        Ignore i = ignore("# comment", "", "secret.txt", "*.log");
+        assertTrue(i.ignored("secret.txt", false));
+        assertTrue(i.ignored("a/b/secret.txt", false));
+        assertTrue(i.ignored("sub/run.log", false));
+        assertFalse(i.ignored("secret.txt.bak", false));
+        assertFalse(i.ignored("log", false));
+    }
+
+    @Test
+    public void directoryOnly() {
+        Ignore i = ignore("build/");
+        assertTrue(i.ignored("build", true));
+        assertFalse(i.ignored("build", false));
+        assertTrue(i.ignored("build/out.txt", false));
+        assertTrue(i.ignored("sub/build/out.txt", false));
+        assertFalse(i.ignored("builder/out.txt", false));
+    }
+
+    @Test
+    public void doubleStar() {
+        Ignore i = ignore("docs/**/*.tmp");
+        assertTrue(i.ignored("docs/a.tmp", false));
+        assertTrue(i.ignored("docs/a/b/c.tmp", false));
+        assertFalse(i.ignored("src/docs/a.tmp", false));
+        assertFalse(i.ignored("docs/a/b/c.txt", false));
+    }
+
+    @Test
+    public void anchored() {
+        Ignore i = ignore("/top.txt", "/out");
+        assertTrue(i.ignored("top.txt", false));
+        assertFalse(i.ignored("sub/top.txt", false));
+        assertTrue(i.ignored("out/x.txt", false));
+        assertFalse(i.ignored("sub/out/x.txt", false));
+    }
+
+}
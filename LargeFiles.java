@@ -0,0 +1,307 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/** Large files kept out of the object store. A working file of at least
+ * lfs.threshold bytes (unset by default, which turns this off) is stored
+ * as it is in .gitlet/lfs, under the SHA-1 of its contents, and the blob
+ * committed for it holds only a pointer to them:
+ *     version gitlet-lfs/1
+ *     oid sha1:ID
+ *     size LENGTH
+ * so commits, packs, bundles, gc and fsck handle a few bytes for it.
+ * The pointer blob has the POINTER flag, which alone marks it as one, so
+ * an ordinary file that happens to look like a pointer is left alone.
+ * Checkout copies the contents from .gitlet/lfs, first fetching them, if
+ * they are not there, from an alternate or from the directory named by
+ * lfs.remote, which stands in for a large-file server; "lfs push" copies
+ * the contents stored here that it lacks to it. Diff and blame show the
+ * contents, not the pointer.
+ * @author Pauline Tang */
+class LargeFiles {
+
+    /** Config key of the size from which files are stored here. */
+    static final String THRESHOLD_KEY = "lfs.threshold";
+
+    /** Config key of the large-file remote directory. */
+    static final String REMOTE_KEY = "lfs.remote";
+
+    /** First line of a pointer. */
+    private static final String VERSION = "version gitlet-lfs/1\n";
+
+    /** Start of the line of a pointer naming the contents. */
+    private static final String OID = "oid sha1:";
+
+    /** Length of a content id. */
+    private static final int ID_LENGTH = 40;
+
+    /** Size of copy buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Return true iff a file of LENGTH bytes is stored here.
+     * @param length file size. */
+    static boolean isLarge(long length) {
+        return length >= Config.getLong(THRESHOLD_KEY, Long.MAX_VALUE);
+    }
+
+    /** Return the pointer to contents OID of SIZE bytes.
+     * @param oid content id.
+     * @param size content length. */
+    static String pointer(String oid, long size) {
+        return VERSION + OID + oid + "\nsize " + size + "\n";
+    }
+
+    /** Return the id of the pointer blob of working file F, named
+     * FILENAME, streaming its contents to hash them.
+     * @param filename name of the file.
+     * @param f working file. */
+    static String blobId(String filename, File f) {
+        return Utils.sha1(filename, pointer(hash(f), f.length()));
+    }
+
+    /** Store the contents of working file F, named FILENAME, here, and
+     * return the pointer blob to them. The contents are streamed, never
+     * held in memory, and are hashed before they are copied so that
+     * contents already stored here or in an alternate, as when a large
+     * file is added again unchanged, are not copied again.
+     * @param filename name of the file.
+     * @param f working file. */
+    static Blob store(String filename, File f) {
+        File dir = Main.getLfsFolder();
+        dir.mkdir();
+        long size = f.length();
+        String oid = hash(f);
+        if (Alternates.find(dir, oid).exists()) {
+            return new Blob(filename, pointer(oid, size), true);
+        }
+        try {
+            Path tmp = tempFile(dir);
+            oid = copy(f, tmp);
+            size = Files.size(tmp);
+            install(tmp, Utils.join(dir, oid));
+            return new Blob(filename, pointer(oid, size), true);
+        } catch (IOException excp) {
+            throw Utils.error("Cannot store %s: %s", filename,
+                              excp.getMessage());
+        }
+    }
+
+    /** Return the content id of file F, streaming its contents.
+     * @param f file. */
+    private static String hash(File f) {
+        long size = f.length();
+        String oid;
+        try (InputStream in = Files.newInputStream(f.toPath())) {
+            oid = Hasher.start().update(in).hex();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        Trace.bytesRead(size);
+        return oid;
+    }
+
+    /** Return the content id the pointer blob BLOBHASH points to, or null
+     * if it is not a pointer.
+     * @param blobhash blob hash. */
+    static String pointee(String blobhash) {
+        Blob b = Blob.getBlob(blobhash);
+        return b.isPointer() ? oid(b.getContents()) : null;
+    }
+
+    /** Return the content id named by POINTER, the contents of a pointer
+     * blob.
+     * @param pointer pointer text. */
+    static String oid(String pointer) {
+        int i = pointer.indexOf("\n" + OID);
+        if (!pointer.startsWith(VERSION) || i < 0
+                || pointer.length() < i + 1 + OID.length() + ID_LENGTH) {
+            throw Utils.error("Bad large-file pointer.");
+        }
+        i += 1 + OID.length();
+        return pointer.substring(i, i + ID_LENGTH);
+    }
+
+    /** Return the contents of the file held by blob BLOBHASH: those of the
+     * large file it points to, if it is a pointer.
+     * @param blobhash blob hash. */
+    static String contents(String blobhash) {
+        Blob b = Blob.getBlob(blobhash);
+        if (!b.isPointer()) {
+            return b.getContents();
+        }
+        File f = find(oid(b.getContents()));
+        Trace.bytesRead(f.length());
+        return Utils.readContentsAsString(f);
+    }
+
+    /** Write contents OID to DEST, fetching them if need be.
+     * @param oid content id.
+     * @param dest working file. */
+    static void checkout(String oid, File dest) {
+        File f = find(oid);
+        try {
+            Files.copy(f.toPath(), dest.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        Trace.bytesRead(dest.length());
+        Trace.bytesWritten(dest.length());
+    }
+
+    /** Runs "lfs push", which copies the contents stored here that the
+     * large-file remote lacks to it.
+     * @param args operands following "lfs". */
+    static void lfs(String... args) {
+        if (args.length != 1 || !args[0].equals("push")) {
+            throw Utils.error("Incorrect operands.");
+        }
+        File remote = remoteDir();
+        if (remote == null) {
+            throw Utils.error("No large-file remote is configured.");
+        }
+        remote.mkdirs();
+        int files = 0;
+        long bytes = 0;
+        List<String> ids = Utils.plainFilenamesIn(Main.getLfsFolder());
+        if (ids != null) {
+            for (String oid : ids) {
+                File to = Utils.join(remote, oid);
+                if (oid.length() != ID_LENGTH || to.exists()) {
+                    continue;
+                }
+                File from = Utils.join(Main.getLfsFolder(), oid);
+                try {
+                    Path tmp = tempFile(remote);
+                    copy(from, tmp);
+                    install(tmp, to);
+                } catch (IOException excp) {
+                    throw Utils.error("Cannot upload %s: %s", oid,
+                                      excp.getMessage());
+                }
+                files += 1;
+                bytes += to.length();
+            }
+        }
+        System.out.println("Uploaded " + files + " large file(s), " + bytes
+                           + " bytes.");
+    }
+
+    /** Copy the large-file settings of the repository whose .gitlet
+     * directory is SOURCE to the current one, which is a clone of it: the
+     * threshold, so that both give the same files the same ids, and the
+     * remote, taken from SOURCE's working directory if relative.
+     * @param source .gitlet directory of the original. */
+    static void inherit(File source) {
+        File config = Utils.join(source, "config");
+        if (!config.isFile()) {
+            return;
+        }
+        Properties settings = new Properties();
+        try (Reader r = Files.newBufferedReader(config.toPath())) {
+            settings.load(r);
+        } catch (IOException excp) {
+            throw Utils.error("Cannot read config: %s", excp.getMessage());
+        }
+        String threshold = settings.getProperty(THRESHOLD_KEY);
+        if (threshold != null) {
+            Config.set(THRESHOLD_KEY, threshold);
+        }
+        String remote = settings.getProperty(REMOTE_KEY);
+        if (remote != null) {
+            File dir = new File(remote);
+            if (!dir.isAbsolute()) {
+                dir = Utils.join(source.getParentFile(), remote);
+            }
+            Config.set(REMOTE_KEY, dir.getPath());
+        }
+    }
+
+    /** Return the file holding contents OID, here or in an alternate,
+     * fetching it from the large-file remote if neither has it. Fetched
+     * contents are hashed as they are copied, and refused if they do not
+     * match OID.
+     * @param oid content id. */
+    private static File find(String oid) {
+        File f = Alternates.find(Main.getLfsFolder(), oid);
+        if (f.exists()) {
+            return f;
+        }
+        File remote = remoteDir();
+        File from = remote == null ? null : Utils.join(remote, oid);
+        if (from == null || !from.isFile()) {
+            throw Utils.error("Large file %s is not available.", oid);
+        }
+        File dir = Main.getLfsFolder();
+        dir.mkdir();
+        try {
+            Path tmp = tempFile(dir);
+            if (!copy(from, tmp).equals(oid)) {
+                Files.delete(tmp);
+                throw Utils.error("Large file %s is corrupt on the remote.",
+                                  oid);
+            }
+            install(tmp, f);
+        } catch (IOException excp) {
+            throw Utils.error("Cannot fetch %s: %s", oid, excp.getMessage());
+        }
+        Trace.objectRead(f.length());
+        return f;
+    }
+
+    /** Return the large-file remote directory, or null if none is set.
+     * A relative path is taken from the working directory. */
+    private static File remoteDir() {
+        String path = Config.get(REMOTE_KEY, null);
+        if (path == null) {
+            return null;
+        }
+        File dir = new File(path);
+        return dir.isAbsolute() ? dir : Utils.join(Main.getCWD(), path);
+    }
+
+    /** Return a new name for a temporary file in DIR.
+     * @param dir directory. */
+    private static Path tempFile(File dir) {
+        return Utils.join(dir, UUID.randomUUID() + ".tmp").toPath();
+    }
+
+    /** Copy FROM to TO and return the SHA-1 of the bytes copied.
+     * @param from source file.
+     * @param to destination file. */
+    private static String copy(File from, Path to) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        Hasher h = Hasher.start();
+        try (InputStream in = Files.newInputStream(from.toPath());
+             OutputStream out = Files.newOutputStream(to)) {
+            for (int n; (n = in.read(buf)) >= 0;) {
+                h.update(buf, 0, n);
+                out.write(buf, 0, n);
+            }
+        }
+        return h.hex();
+    }
+
+    /** Move the complete file TMP to F in one step, or drop it if F is
+     * already there, since files named by their contents never change.
+     * @param tmp temporary file.
+     * @param f final file. */
+    private static void install(Path tmp, File f) throws IOException {
+        if (f.exists()) {
+            Files.delete(tmp);
+        } else {
+            Files.move(tmp, f.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of large files kept out of the object store.
+ *  @author Pauline Tang
+ */
+public class LargeFilesTest {
+
+    /** Contents of the large file. */
+    private static final String BIG =
+        "first line, long enough for the file to be large\nsecond line\n"
+        + "third line, so that it is longer than any pointer\n";
+
+    /** A pointer, kept as an ordinary file. */
+    private static final String FAKE =
+        LargeFiles.pointer("0123456789abcdef0123456789abcdef01234567", 5);
+
+    /** Make a new repository storing files of 96 bytes or more as large
+     * files, and commit the text of a pointer, too short to be large, as
+     * fake.txt, then BIG as big.txt. Return the blob id of big.txt. */
+    private static String commitLargeFile() {
+        UnitTest.newRepo();
+        Config.set(LargeFiles.THRESHOLD_KEY, "96");
+        UnitTest.commitFile("fake.txt", FAKE);
+        return UnitTest.commitFile("big.txt", BIG);
+    }
+
+    @Test
+    public void storedAsPointer() {
+        String blob = commitLargeFile();
+        assertTrue(Blob.isPointer(blob));
+        String oid = LargeFiles.pointee(blob);
+        assertEquals(BIG, Utils.readContentsAsString(
+            Utils.join(Main.getLfsFolder(), oid)));
+        String fake =
+            Main.getTree().getHeadCommit().getFilesTracked().get("fake.txt");
+        assertFalse(Blob.isPointer(fake));
+    }
+
+    @Test
+    public void checkoutRoundTrip() {
+        commitLargeFile();
+        Utils.join(Main.getCWD(), "big.txt").delete();
+        Utils.join(Main.getCWD(), "fake.txt").delete();
+        Main.run("checkout", "--", "big.txt");
+        Main.run("checkout", "--", "fake.txt");
+        assertEquals(BIG, UnitTest.read("big.txt"));
+        assertEquals(FAKE, UnitTest.read("fake.txt"));
+    }
+
+    @Test
+    public void diffShowsContents() {
+        commitLargeFile();
+        UnitTest.write("big.txt", BIG.replace("second", "changed"));
+        String out = UnitTest.output("diff", "--", "big.txt");
+        assertTrue(out, out.contains("-second line\n+changed line\n"));
+    }
+
+    @Test
+    public void unchangedFileNotCopied() {
+        String blob = commitLargeFile();
+        String oid = LargeFiles.pointee(blob);
+        File source = Main.getCWD();
+        File dest = new File(source.getParentFile(),
+                             source.getName() + "-clone");
+        Main.run("clone", source.getPath(), dest.getPath());
+        Main.setCWD(dest);
+        Main.add("big.txt");
+        assertFalse(Utils.join(Main.getLfsFolder(), oid).exists());
+        UnitTest.commitFile("big.txt", BIG + "fourth line\n");
+        String changed = LargeFiles.pointee(
+            Main.getTree().getHeadCommit().getFilesTracked().get("big.txt"));
+        assertEquals(BIG + "fourth line\n", Utils.readContentsAsString(
+            Utils.join(Main.getLfsFolder(), changed)));
+    }
+
+}
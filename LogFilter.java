@@ -0,0 +1,182 @@
+package gitlet;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/** Options of the log command, which limit the commits it prints:
+ *     -n N, -nN, --max-count=N   at most N commits;
+ *     --since=DATE, --until=DATE only commits made in that period;
+ *     --grep=REGEX               only commits whose message matches;
+ *     -- PATH                    only commits that changed PATH.
+ * The "=" may also be a space. DATE is "yyyy-MM-dd", optionally followed
+ * by " HH:mm" or " HH:mm:ss" (or with "T" for the space), or "@SECONDS"
+ * since the epoch; an --until date without a time takes in the whole day.
+ * All tests read the commit index, so commits left out are never loaded;
+ * the path test consults the commit's changed-path Bloom filter, and
+ * reads manifests only for the few commits the filter cannot rule out.
+ * @author Pauline Tang */
+class LogFilter {
+
+    /** Most commits to print. */
+    private int _limit = Integer.MAX_VALUE;
+
+    /** Earliest commit time (ms) printed. */
+    private long _since = Long.MIN_VALUE;
+
+    /** Latest commit time (ms) printed. */
+    private long _until = Long.MAX_VALUE;
+
+    /** Pattern messages must contain, or null. */
+    private Pattern _grep;
+
+    /** Revision range operand, or null. */
+    private String _range;
+
+    /** Path commits must change, or null. */
+    private String _path;
+
+    /** Return the filter described by ARGS, the operands of log,
+     * failing with an error if they are malformed.
+     * @param args operands following "log". */
+    static LogFilter parse(String... args) {
+        LogFilter f = new LogFilter();
+        for (int i = 0; i < args.length; i += 1) {
+            String arg = args[i];
+            if (arg.equals("--")) {
+                if (i != args.length - 2) {
+                    incorrect();
+                }
+                f._path = Main.path(args[i + 1]);
+                break;
+            }
+            String value = null;
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 0) {
+                value = arg.substring(eq + 1);
+                arg = arg.substring(0, eq);
+            } else if (arg.startsWith("-n") && arg.length() > 2) {
+                value = arg.substring(2);
+                arg = "-n";
+            }
+            switch (arg) {
+            case "-n": case "--max-count": case "--since": case "--until":
+            case "--grep":
+                if (value == null) {
+                    if (i + 1 == args.length) {
+                        incorrect();
+                    }
+                    i += 1;
+                    value = args[i];
+                }
+                f.set(arg, value);
+                break;
+            default:
+                if (arg.startsWith("-") || f._range != null) {
+                    incorrect();
+                }
+                f._range = arg;
+            }
+        }
+        return f;
+    }
+
+    /** Return the revision range operand ("A..B"), or null. */
+    String range() {
+        return _range;
+    }
+
+    /** Return the most commits to print. */
+    int limit() {
+        return _limit;
+    }
+
+    /** Return true iff the commit at POS of G, and any older one, is too
+     * old to print.
+     * @param g commit index.
+     * @param pos position. */
+    boolean tooOld(CommitGraph g, int pos) {
+        return g.time(pos) < _since;
+    }
+
+    /** Return true iff the commit at POS of G should be printed.
+     * @param g commit index.
+     * @param pos position. */
+    boolean accepts(CommitGraph g, int pos) {
+        long time = g.time(pos);
+        return time >= _since && time <= _until
+            && (_grep == null || _grep.matcher(g.message(pos)).find())
+            && (_path == null || touches(g, pos, _path));
+    }
+
+    /** Return true iff the commit at POS of G changed PATH.
+     * @param g commit index.
+     * @param pos position.
+     * @param path file name. */
+    static boolean touches(CommitGraph g, int pos, String path) {
+        if (!PathBloom.mightContain(g.changedPaths(pos), path)) {
+            return false;
+        }
+        String blob = Commit.getCommit(g.id(pos)).getFilesTracked().get(path);
+        int parent = g.parent(pos);
+        String before = parent < 0 ? null
+            : Commit.getCommit(g.id(parent)).getFilesTracked().get(path);
+        return !Objects.equals(blob, before);
+    }
+
+    /** Set option NAME to VALUE.
+     * @param name option.
+     * @param value its value. */
+    private void set(String name, String value) {
+        try {
+            switch (name) {
+            case "--since":
+                _since = parseDate(value, false);
+                break;
+            case "--until":
+                _until = parseDate(value, true);
+                break;
+            case "--grep":
+                _grep = Pattern.compile(value);
+                break;
+            default:
+                _limit = Integer.parseInt(value);
+                if (_limit < 0) {
+                    incorrect();
+                }
+            }
+        } catch (NumberFormatException | DateTimeParseException
+                 | PatternSyntaxException e) {
+            incorrect();
+        }
+    }
+
+    /** Return the time DATE stands for, in ms since the epoch. A date
+     * without a time means the start of that day, or its end if ENDOFDAY.
+     * @param date date operand.
+     * @param endofday true for an --until date. */
+    private static long parseDate(String date, boolean endofday) {
+        if (date.startsWith("@")) {
+            return Long.parseLong(date.substring(1)) * 1000;
+        }
+        String iso = date.trim().replace(' ', 'T');
+        LocalDateTime t;
+        if (iso.indexOf('T') < 0) {
+            LocalDate d = LocalDate.parse(iso);
+            t = endofday ? d.atTime(23, 59, 59) : d.atStartOfDay();
+        } else {
+            t = LocalDateTime.parse(iso);
+        }
+        return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /** Fail, reporting malformed operands. */
+    private static void incorrect() {
+        throw Utils.error("Incorrect operands.");
+    }
+
+}
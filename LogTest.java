@@ -0,0 +1,98 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Tests of log and its filters.
+ *  @author Pauline Tang
+ */
+public class LogTest {
+
+    /** Make a new repository with commits "add a.txt", "fix a.txt" and
+     * "add b.txt" after the initial commit. */
+    private static void history() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "a\n");
+        UnitTest.write("a.txt", "A\n");
+        Main.add("a.txt");
+        Main.commit("fix a.txt");
+        UnitTest.commitFile("b.txt", "b\n");
+    }
+
+    /** Return the messages of the commits "log ARGS" prints, in order.
+     * @param args operands of log. */
+    private static List<String> messages(String... args) {
+        String[] command = new String[args.length + 1];
+        command[0] = "log";
+        System.arraycopy(args, 0, command, 1, args.length);
+        List<String> result = new ArrayList<String>();
+        String[] lines = UnitTest.output(command).split("\n");
+        for (int i = 0; i < lines.length; i += 1) {
+            if (lines[i].startsWith("Date: ")) {
+                result.add(lines[i + 1]);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void limit() {
+        history();
+        assertEquals(List.of("add b.txt", "fix a.txt", "add a.txt",
+                             "initial commit"), messages());
+        assertEquals(List.of("add b.txt", "fix a.txt"), messages("-n", "2"));
+        assertEquals(List.of("add b.txt"), messages("-n1"));
+        assertEquals(List.of("add b.txt"), messages("--max-count=1"));
+        assertEquals(List.of(), messages("-n", "0"));
+    }
+
+    @Test
+    public void grepAndDates() {
+        history();
+        assertEquals(List.of("add b.txt", "add a.txt"),
+                     messages("--grep=^add"));
+        assertEquals(List.of("fix a.txt"), messages("--grep", "fix", "-n9"));
+        assertEquals(List.of("initial commit"), messages("--until=@0"));
+        assertEquals(List.of("add b.txt", "fix a.txt", "add a.txt"),
+                     messages("--since=2000-01-01"));
+        assertEquals(List.of(), messages("--since", "9999-12-31 23:59"));
+    }
+
+    @Test
+    public void path() {
+        history();
+        assertEquals(List.of("fix a.txt", "add a.txt"),
+                     messages("--", "a.txt"));
+        assertEquals(List.of("fix a.txt"), messages("-n1", "--", "a.txt"));
+        assertEquals(List.of(), messages("--", "c.txt"));
+    }
+
+    @Test
+    public void range() {
+        history();
+        Main.run("branch", "side");
+        UnitTest.commitFile("c.txt", "c\n");
+        assertEquals(List.of("add c.txt"), messages("side..master"));
+        assertEquals(List.of(), messages("master..side"));
+        assertEquals(List.of("add c.txt"), messages("side.."));
+    }
+
+    @Test
+    public void malformed() {
+        history();
+        for (String[] args : new String[][] {
+                {"-n"}, {"-n", "x"}, {"-n-1"}, {"--since=yesterday"},
+                {"--grep=("}, {"--bogus"}, {"--", "a.txt", "b.txt"}}) {
+            try {
+                LogFilter.parse(args);
+                fail("parsed " + String.join(" ", args));
+            } catch (GitletException e) {
+                assertEquals("Incorrect operands.", e.getMessage());
+            }
+        }
+    }
+
+}
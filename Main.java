@@ -1,11 +1,19 @@
 package gitlet;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Collections;
+import java.util.TreeMap;
 
 /** Driver class for Gitlet, the tiny stupid version-control system.
  *  @author Pauline Tang
@@ -13,39 +21,125 @@ import java.util.Collections;
 public class Main {
 
     /** Current Working Directory. */
-    private static File _cwd = new File(System.getProperty("user.dir"));
+    private static File _cwd;
 
     /** Metadata folder. */
 
     /** Gitlet directory. */
-    private static File _gitletdir = Utils.join(_cwd, ".gitlet");
+    private static File _gitletdir;
 
     /** Stage file. */
-    private static File _stage = Utils.join(_gitletdir, "stage");
+    private static File _stage;
 
     /** Commits folder. */
-    private static File _commits = Utils.join(_gitletdir, "commits");
+    private static File _commits;
 
     /** Branches folder. */
-    private static File _branches = Utils.join(_gitletdir, "branches");
+    private static File _branches;
 
     /** Blobs folder. */
-    private static File _blobs = Utils.join(_gitletdir, "blobs");
+    private static File _blobs;
 
     /** Tree File. */
-    private static File _tree = Utils.join(_gitletdir, "tree");
+    private static File _tree;
+
+    /** Commit index file. */
+    private static File _graph;
+
+    /** Reachability bitmaps file. */
+    private static File _bitmaps;
+
+    /** Config file. */
+    private static File _config;
+
+    /** Folder of read-only raw file contents, for linked checkouts. */
+    private static File _raw;
+
+    /** Sparse-checkout patterns file. */
+    private static File _sparse;
+
+    /** Folder of chunks of large file contents. */
+    private static File _chunks;
+
+    /** Folder of cached blame results. */
+    private static File _blame;
+
+    /** Stat cache of the working files. */
+    private static File _statcache;
+
+    /** State of the working-directory watcher. */
+    private static File _watch;
+
+    /** Index of the stored objects. */
+    private static File _objectindex;
+
+    /** Folder of large file contents. */
+    private static File _lfs;
+
+    static {
+        setCWD(new File(System.getProperty("user.dir")));
+    }
+
+    /** Points every command at the working directory DIR and the Gitlet
+     * repository inside it, so that a single JVM (a benchmark, say) can
+     * work with repositories other than the one in user.dir.
+     * @param dir working directory. */
+    static void setCWD(File dir) {
+        _cwd = dir;
+        _gitletdir = Utils.join(_cwd, ".gitlet");
+        _stage = Utils.join(_gitletdir, "stage");
+        _commits = Utils.join(_gitletdir, "commits");
+        _branches = Utils.join(_gitletdir, "branches");
+        _blobs = Utils.join(_gitletdir, "blobs");
+        _tree = Utils.join(_gitletdir, "tree");
+        _graph = Utils.join(_gitletdir, "commit-graph");
+        _bitmaps = Utils.join(_gitletdir, "bitmaps");
+        _config = Utils.join(_gitletdir, "config");
+        _raw = Utils.join(_gitletdir, "raw");
+        _sparse = Utils.join(_gitletdir, "sparse-checkout");
+        _chunks = Utils.join(_gitletdir, "chunks");
+        _blame = Utils.join(_gitletdir, "blame");
+        _statcache = Utils.join(_gitletdir, "stat-cache");
+        _watch = Utils.join(_gitletdir, "watch");
+        _objectindex = Utils.join(_gitletdir, "object-index");
+        _lfs = Utils.join(_gitletdir, "lfs");
+        Commit.clearCache();
+        Alternates.clear();
+        StatCache.clear();
+        ObjectIndex.clear();
+        Ignore.clear();
+        Config.clear();
+        Sparse.clear();
+    }
 
     /** Usage: java gitlet.Main ARGS, where ARGS contains
      *  <COMMAND> <OPERAND> .... */
     public static void main(String... args) {
+        if (args.length > 0 && args[0].equals("--trace")) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+            Trace.start(args);
+        } else if (Trace.requestedByEnvironment()) {
+            Trace.start(args);
+        }
+        try {
+            run(args);
+        } catch (GitletException excp) {
+            System.out.println(excp.getMessage());
+        }
+    }
+
+    /** Runs the command ARGS, failing with a GitletException whose message
+     * is to be printed if the command is wrong or cannot be carried out.
+     * @param args command and operands. */
+    static void run(String... args) {
         if (args.length == 0) {
-            System.out.println("Please enter a command.");
-            System.exit(0);
+            throw Utils.error("Please enter a command.");
         }
-        if (!args[0].equals("init") && !_gitletdir.exists()) {
-            System.out.println("Not in an initialized Gitlet directory.");
-            System.exit(0);
+        if (!args[0].equals("init") && !args[0].equals("clone")
+                && !_gitletdir.exists()) {
+            throw Utils.error("Not in an initialized Gitlet directory.");
         }
+        Trace.phase(args[0]);
         switch (args[0]) {
         case "init":
             init();
@@ -64,8 +158,7 @@ public class Main {
                 checkout(args[2]);
             } else if (args.length == 4) {
                 if (!args[2].equals("--")) {
-                    System.out.println("Incorrect operands.");
-                    System.exit(0);
+                    throw Utils.error("Incorrect operands.");
                 }
                 checkout(args[1], args[3]);
             } else {
@@ -73,7 +166,13 @@ public class Main {
             }
             break;
         case "log":
-            log();
+            LogFilter filter =
+                LogFilter.parse(Arrays.copyOfRange(args, 1, args.length));
+            if (filter.range() != null) {
+                logRange(filter.range(), filter);
+            } else {
+                log(filter);
+            }
             break;
         case "global-log":
             globalLog();
@@ -93,8 +192,57 @@ public class Main {
         case "reset":
             reset(args[1]);
             break;
+        case "gc":
+            GarbageCollector.gc(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "fsck":
+            Fsck.fsck(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "config":
+            Config.config(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "unlock":
+            Materializer.unlock(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "diff":
+            Diff.diff(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "blame":
+            Blame.blame(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "clone":
+            Alternates.cloneRepository(
+                Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "bundle":
+            Bundle.bundle(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "watch":
+            Watcher.watch(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "add-remote":
+            Remote.addRemote(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "rm-remote":
+            Remote.rmRemote(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "fetch":
+            Remote.fetch(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "push":
+            Remote.push(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "sparse-checkout":
+            Sparse.sparseCheckout(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "lfs":
+            LargeFiles.lfs(Arrays.copyOfRange(args, 1, args.length));
+            break;
+        case "batch":
+            Batch.batch(Arrays.copyOfRange(args, 1, args.length));
+            break;
         default:
-            System.out.println("No command with that name exists.");
+            throw Utils.error("No command with that name exists.");
         }
     }
 
@@ -103,9 +251,8 @@ public class Main {
      * working directory. Starts with the initial commit "initial commit." */
     public static void init() {
         if (_gitletdir.exists()) {
-            System.out.println("A Gitlet version-control system already "
+            throw Utils.error("A Gitlet version-control system already "
                     + "exists in the current directory.");
-            System.exit(0);
         }
 
         _gitletdir.mkdir();
@@ -141,27 +288,70 @@ public class Main {
         br.saveBranch();
 
         t.saveTree();
+
+        Reachability r = Reachability.load();
+        r.getGraph().add(initialcommit);
+        r.updateBranch("master", initialcommit.getIdentifier());
+        r.save();
     }
 
     /** Adds a copy of the file to the staging area. Staging an already staged
      * file will overwrite the previously staged file's contents. If the file
      * to be added is identical to the file in the previous commit, do not
      * add to the staging area and remove it from the staging area if it's
-     * already present.
+     * already present. Naming a directory (such as ".") adds every file
+     * below it that differs from its staged or committed version, looking
+     * only at the files the stat cache (or watcher) reports changed.
      * @param filename name of file to be added. */
     public static void add(String filename) {
         Stage s = getStage();
         Tree t = getTree();
+        Commit headc = Commit.getCommit(
+            Branch.getBranch(t.getHeadBranch()).getHeadCommit());
+        filename = path(filename);
 
         File f = Utils.join(_cwd, filename);
 
         if (!f.exists()) {
-            System.out.println("File does not exist.");
-            System.exit(0);
+            throw Utils.error("File does not exist.");
+        }
+
+        if (f.isDirectory()) {
+            String prefix = filename.isEmpty() ? "" : filename + "/";
+            HashMap<String, String> filesInCommit = headc.getFilesTracked();
+            for (Map.Entry<String, String> e
+                     : StatCache.scan("add", filesInCommit.keySet())
+                         .entrySet()) {
+                String name = e.getKey();
+                String current = s.getAddition().containsKey(name)
+                    ? s.getAddition().get(name) : filesInCommit.get(name);
+                if (name.startsWith(prefix) && Sparse.includes(name)
+                        && (s.getRemoval().contains(name)
+                            || !e.getValue().equals(current))) {
+                    stage(s, headc, name);
+                }
+            }
+            s.saveStage();
+            return;
         }
 
-        String contents = Utils.readContentsAsString(f);
-        Blob b = new Blob(filename, contents);
+        stage(s, headc, filename);
+        s.saveStage();
+    }
+
+    /** Stage working file FILENAME in S, as add does, given the head
+     * commit HEADC.
+     * @param s staging area.
+     * @param headc head commit.
+     * @param filename name of file. */
+    private static void stage(Stage s, Commit headc, String filename) {
+        File f = Utils.join(_cwd, filename);
+        Blob b;
+        if (LargeFiles.isLarge(f.length())) {
+            b = LargeFiles.store(filename, f);
+        } else {
+            b = new Blob(filename, Utils.readContentsAsString(f));
+        }
 
         ArrayList<String> srem = s.getRemoval();
 
@@ -170,11 +360,6 @@ public class Main {
         } else {
             s.add(filename, b.getIdentifier());
 
-            String headbr = t.getHeadBranch();
-            Branch br = Branch.getBranch(headbr);
-            String headchash = br.getHeadCommit();
-            Commit headc = Commit.getCommit(headchash);
-
             HashMap<String, String> filesInCommit = headc.getFilesTracked();
             for (String name : filesInCommit.keySet()) {
                 if (filesInCommit.get(name).equals(b.getIdentifier())) {
@@ -184,7 +369,6 @@ public class Main {
         }
 
         b.saveBlob();
-        s.saveStage();
     }
 
     /** Saves a snapshot of files in the current commit and staging area,
@@ -192,21 +376,20 @@ public class Main {
      * @param message message of commit. */
     public static void commit(String message) {
         if (message.isEmpty()) {
-            System.out.println("Please enter a commit message.");
-            System.exit(0);
+            throw Utils.error("Please enter a commit message.");
         }
 
         Stage s = getStage();
         Tree t = getTree();
 
         if (s.getAddition().isEmpty() && s.getRemoval().isEmpty()) {
-            System.out.println("No changes added to the commit.");
-            System.exit(0);
+            throw Utils.error("No changes added to the commit.");
         }
         String headbr = t.getHeadBranch();
         Branch br = Branch.getBranch(headbr);
         String headchash = br.getHeadCommit();
 
+        Trace.phase("snapshot");
         Commit c = new Commit(message, headchash, headbr);
         t.addToTree(c);
 
@@ -214,10 +397,17 @@ public class Main {
 
         s.clearStage();
 
+        Trace.phase("save");
         br.saveBranch();
         s.saveStage();
         c.saveCommit();
         t.saveTree();
+
+        Trace.phase("index");
+        Reachability r = Reachability.load();
+        r.getGraph().add(c);
+        r.updateBranch(headbr, c.getIdentifier());
+        r.save();
     }
 
     /** Unstage the file if it is currently staged for addition.
@@ -227,6 +417,7 @@ public class Main {
      * it is tracked in the current commit).
      * @param filename name of file. */
     public static void rm(String filename) {
+        filename = path(filename);
         Stage s = getStage();
         Tree t = getTree();
         Commit c = t.getHeadCommit();
@@ -235,8 +426,7 @@ public class Main {
 
         if (!sadd.containsKey(filename)
                 && !c.getFilesTracked().containsKey(filename)) {
-            System.out.println("No reason to remove the file.");
-            System.exit(0);
+            throw Utils.error("No reason to remove the file.");
         }
 
         if (sadd.containsKey(filename)) {
@@ -245,7 +435,7 @@ public class Main {
 
         if (c.getFilesTracked().containsKey(filename)) {
             s.remove(filename);
-            Utils.restrictedDelete(filename);
+            Utils.restrictedDelete(Utils.join(_cwd, filename));
         }
 
         s.saveStage();
@@ -257,6 +447,7 @@ public class Main {
      * if there is one. The new version of the file is not staged.
      * @param filename name of file. */
     public static void checkout(String filename) {
+        filename = path(filename);
         Tree t = getTree();
         Commit c = t.getHeadCommit();
 
@@ -265,17 +456,11 @@ public class Main {
         HashMap<String, String> filesinc = c.getFilesTracked();
 
         if (!filesinc.containsKey(filename)) {
-            System.out.println("File does not exist in that commit.");
-            System.exit(0);
+            throw Utils.error("File does not exist in that commit.");
         }
 
         String bhash = c.getFilesTracked().get(filename);
-        File f = Utils.join(_blobs, bhash);
-
-        Blob b = Utils.readObject(f, Blob.class);
-        String contents = b.getContents();
-
-        Utils.writeContents(cwdfile, contents);
+        Materializer.materialize(bhash, cwdfile);
     }
 
     /** Takes the version of the file as it exists in the commit
@@ -285,6 +470,7 @@ public class Main {
      * @param commitID id of commit.
      * @param filename name of file. */
     public static void checkout(String commitID, String filename) {
+        filename = path(filename);
         Tree t = getTree();
         HashMap<String, String> allcommits = t.getCommitTreeMap();
 
@@ -304,17 +490,11 @@ public class Main {
         HashMap<String, String> filesinc = c.getFilesTracked();
 
         if (!filesinc.containsKey(filename)) {
-            System.out.println("File does not exist in that commit.");
-            System.exit(0);
+            throw Utils.error("File does not exist in that commit.");
         }
 
         String bhash = c.getFilesTracked().get(filename);
-        File f = Utils.join(_blobs, bhash);
-
-        Blob b = Utils.readObject(f, Blob.class);
-        String contents = b.getContents();
-
-        Utils.writeContents(cwdfile, contents);
+        Materializer.materialize(bhash, cwdfile);
     }
 
     /** Takes all files in the commit at the head of the given branch,
@@ -332,14 +512,14 @@ public class Main {
         Branch br = Branch.getBranch(branchname);
 
         if (t.getHeadBranch().equals(branchname)) {
-            System.out.println("No need to checkout the current branch.");
-            System.exit(0);
+            throw Utils.error("No need to checkout the current branch.");
         }
 
         String chash = br.getHeadCommit();
         Commit c = Commit.getCommit(chash);
         HashMap<String, String> filesinc = c.getFilesTracked();
 
+        Trace.phase("untracked check");
         ArrayList<String> untracked = s.getUntracked(branchname);
         if (!untracked.isEmpty()) {
             for (String filename : untracked) {
@@ -348,19 +528,17 @@ public class Main {
             }
         }
 
-        for (String filename : filesinc.keySet()) {
+        Trace.phase("write files");
+        for (String filename : Sparse.filter(filesinc).keySet()) {
             File cwdfile = Utils.join(_cwd, filename);
 
             String bhash = filesinc.get(filename);
-            File f = Utils.join(_blobs, bhash);
-
-            Blob b = Utils.readObject(f, Blob.class);
-            String contents = b.getContents();
-
-            Utils.writeContents(cwdfile, contents);
+            Materializer.materialize(bhash, cwdfile);
         }
 
+        Trace.phase("save");
         t.changeBranch(branchname);
+        t.changeHeadCommit(c);
         s.clearStage();
 
         t.saveTree();
@@ -376,30 +554,104 @@ public class Main {
      * it should display is the commit id, the time the commit was made,
      * and the commit message. */
     public static void log() {
-        Tree t = getTree();
+        log(new LogFilter());
+    }
 
-        Commit currcommit = t.getHeadCommit();
-        while (currcommit != null) {
-            String id = currcommit.getIdentifier();
-            String date = currcommit.getTimestamp();
-            String m = currcommit.getMessage();
+    /** Like log(), but printing only the commits FILTER accepts. History
+     * is walked, and commits are printed, from the commit index alone,
+     * through one buffered writer.
+     * @param filter log options. */
+    public static void log(LogFilter filter) {
+        Tree t = getTree();
+        Commit head = t.getHeadCommit();
+        if (head == null) {
+            return;
+        }
+        CommitGraph g = CommitGraph.load();
+        PrintWriter out = logWriter();
+        int shown = 0;
+        for (int pos = g.position(head.getIdentifier());
+             pos >= 0 && shown < filter.limit() && !filter.tooOld(g, pos);
+             pos = g.parent(pos)) {
+            if (filter.accepts(g, pos)) {
+                printLogEntry(out, g, pos, shown == 0);
+                shown += 1;
+            }
+        }
+        out.flush();
+        g.save();
+    }
 
-            System.out.println("===");
-            System.out.println("commit " + id);
-            System.out.println("Date: " + date + " -0800");
-            System.out.println(m);
+    /** Displays, newest first and in the format of log, the commits
+     * reachable from B but not from A, where RANGE is "A..B" and each
+     * side is a branch name or a (possibly abbreviated) commit id. An
+     * empty side stands for the current branch. Answered from the
+     * reachability bitmaps rather than by walking parent links.
+     * @param range revision range. */
+    public static void logRange(String range) {
+        logRange(range, new LogFilter());
+    }
 
-            if (currcommit.getParent() != null) {
-                System.out.println();
+    /** Like logRange(RANGE), but printing only the commits FILTER
+     * accepts.
+     * @param range revision range.
+     * @param filter log options. */
+    public static void logRange(String range, LogFilter filter) {
+        int dots = range.indexOf("..");
+        if (dots < 0) {
+            throw Utils.error("Incorrect operands.");
+        }
+        String from = resolveRevision(range.substring(0, dots));
+        String to = resolveRevision(range.substring(dots + 2));
+
+        Reachability r = Reachability.load();
+        CommitGraph g = r.getGraph();
+        int[] between = r.between(from, to).toArray();
+        r.save();
+
+        PrintWriter out = logWriter();
+        int shown = 0;
+        for (int i = between.length - 1; i >= 0 && shown < filter.limit();
+             i -= 1) {
+            if (filter.accepts(g, between[i])) {
+                printLogEntry(out, g, between[i], shown == 0);
+                shown += 1;
             }
+        }
+        out.flush();
+    }
 
-            currcommit = currcommit.getParent();
+    /** Return a writer on the standard output with a large buffer, for
+     * printing many log entries. */
+    private static PrintWriter logWriter() {
+        return new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+            1 << 16));
+    }
+
+    /** Print to OUT the log entry of the commit at POS of G, separated
+     * from the one before unless FIRST.
+     * @param out output.
+     * @param g commit index.
+     * @param pos position.
+     * @param first true for the first entry printed. */
+    private static void printLogEntry(PrintWriter out, CommitGraph g,
+                                      int pos, boolean first) {
+        if (!first) {
+            out.print('\n');
         }
+        out.print("===\ncommit ");
+        out.print(g.id(pos));
+        out.print("\nDate: ");
+        out.print(g.date(pos));
+        out.print(" -0800\n");
+        out.print(g.message(pos));
+        out.print('\n');
     }
 
     /** Like log, except displays information about all commits ever made.*/
     public static void globalLog() {
-        List<String> allcommits = Utils.plainFilenamesIn(_commits);
+        List<String> allcommits = Alternates.filenamesIn(_commits);
         int num = allcommits.size();
         for (int i = 0; i < num; i++) {
             Commit c = Commit.getCommit(allcommits.get(i));
@@ -462,8 +714,9 @@ public class Main {
 
         HashMap<String, String> filesinc = c.getFilesTracked();
 
+        Trace.phase("branches");
         System.out.println("=== Branches ===");
-        List<String> bs = Utils.plainFilenamesIn(_branches);
+        List<String> bs = Branch.names();
         for (String b : bs) {
             String p = "";
             if (b.equals(headb)) {
@@ -473,6 +726,7 @@ public class Main {
         }
         System.out.println();
 
+        Trace.phase("staged");
         System.out.println("=== Staged Files ===");
         ArrayList<String> addarr = new ArrayList<String>(sadd.keySet());
         Collections.sort(addarr);
@@ -488,10 +742,12 @@ public class Main {
         }
         System.out.println();
 
+        Trace.phase("modifications");
         System.out.println("=== Modifications Not Staged For Commit ===");
         statusMod();
         System.out.println();
 
+        Trace.phase("untracked");
         System.out.println("=== Untracked Files ===");
         ArrayList<String> untracked = s.getUntracked(headb);
         for (String filename : untracked) {
@@ -515,27 +771,26 @@ public class Main {
         Commit c = Commit.getCommit(headc);
 
         HashMap<String, String> filesinc = c.getFilesTracked();
-        List<String> cwdfiles = Utils.plainFilenamesIn(_cwd);
 
-        for (String filename : cwdfiles) {
-            File cwdfile = Utils.join(_cwd, filename);
-            String cwdcontents = Utils.readContentsAsString(cwdfile);
+        TreeMap<String, String> cwdfiles =
+            StatCache.scan("modified", filesinc.keySet());
 
+        for (String filename : cwdfiles.keySet()) {
+            if (!Sparse.includes(filename)) {
+                continue;
+            }
             if (filesinc.containsKey(filename)) {
                 String blobhash = filesinc.get(filename);
-                File bfile = Utils.join(_blobs, blobhash);
-                Blob b = Utils.readObject(bfile, Blob.class);
-                String bcont = b.getContents();
+                String cwdhash = cwdfiles.get(filename);
 
-                if (!cwdcontents.equals(bcont) && !sadd.containsKey(filename)) {
+                if (!cwdhash.equals(blobhash) && !sadd.containsKey(filename)) {
                     System.out.println(filename + " (modified)");
                 }
             }
         }
 
-        for (String filec : filesinc.keySet()) {
-            File f = Utils.join(_cwd, filec);
-            if (!f.exists() && !srem.contains(filec)) {
+        for (String filec : Sparse.filter(filesinc).keySet()) {
+            if (!cwdfiles.containsKey(filec) && !srem.contains(filec)) {
                 System.out.println(filec + " (deleted)");
             }
         }
@@ -551,8 +806,7 @@ public class Main {
     public static void branch(String branchname) {
         File f = Utils.join(_branches, branchname);
         if (f.exists()) {
-            System.out.println("A branch with that name already exists.");
-            System.exit(0);
+            throw Utils.error("A branch with that name already exists.");
         }
 
         Tree t = getTree();
@@ -565,6 +819,10 @@ public class Main {
 
         br.saveBranch();
         t.saveTree();
+
+        Reachability r = Reachability.load();
+        r.updateBranch(branchname, chash);
+        r.save();
     }
 
     /** Deletes the branch with the given name. This only means to delete the
@@ -575,20 +833,22 @@ public class Main {
         Tree t = getTree();
 
         if (t.getHeadBranch().equals(branchname)) {
-            System.out.println("Cannot remove the current branch.");
-            System.exit(0);
+            throw Utils.error("Cannot remove the current branch.");
         }
 
         File f = Utils.join(_branches, branchname);
         if (!f.exists()) {
-            System.out.println("A branch with that name does not exist.");
-            System.exit(0);
+            throw Utils.error("A branch with that name does not exist.");
         }
 
         f.delete();
 
         t.getAllBranches().remove(branchname);
         t.saveTree();
+
+        Reachability r = Reachability.load();
+        r.removeBranch(branchname);
+        r.save();
     }
 
     /** Checks out all the files tracked by the given commit. Removes tracked
@@ -620,38 +880,71 @@ public class Main {
         Commit c = Commit.getCommit(fullid);
         HashMap<String, String> filesinc = c.getFilesTracked();
 
-        List<String> cwdfiles = Utils.plainFilenamesIn(_cwd);
-
-        for (String filename : cwdfiles) {
-            File f = Utils.join(_cwd, filename);
+        Trace.phase("remove untracked");
+        for (String filename : Walker.files(_cwd).keySet()) {
             if (!filesinc.containsKey(filename)) {
-                f.delete();
+                Utils.restrictedDelete(Utils.join(_cwd, filename));
             }
         }
 
-        for (String filename : filesinc.keySet()) {
+        Trace.phase("write files");
+        for (String filename : Sparse.filter(filesinc).keySet()) {
             checkout(commitid, filename);
         }
 
+        Trace.phase("save");
         b.changeHead(fullid);
+        t.changeHeadCommit(c);
         s.clearStage();
 
         t.saveTree();
         b.saveBranch();
         s.saveStage();
+
+        Reachability r = Reachability.load();
+        r.updateBranch(bname, fullid);
+        r.save();
+    }
+
+    /** Return FILENAME, a path given on the command line, as the path of
+     * the same file from the top of the working directory, with "/"
+     * between the parts, as files are named in stages and commits.
+     * @param filename path of a file. */
+    static String path(String filename) {
+        Path top = _cwd.toPath().toAbsolutePath();
+        return Walker.relative(top, top.resolve(filename).normalize());
+    }
+
+    /** Return the full id of the commit named by REV, which is either a
+     * branch name or a (possibly abbreviated) commit id. An empty REV
+     * names the head of the current branch.
+     * @param rev branch name or commit id. */
+    public static String resolveRevision(String rev) {
+        if (rev.isEmpty()) {
+            rev = getTree().getHeadBranch();
+        }
+        if (Utils.join(_branches, rev).exists()) {
+            return Branch.getBranch(rev).getHeadCommit();
+        }
+        for (String id : getTree().getCommitTreeMap().keySet()) {
+            if (id.startsWith(rev)) {
+                return id;
+            }
+        }
+        throw Utils.error("No commit with that id exists.");
     }
 
     /** Deserializes the staging area.
      * @return stage. */
     public static Stage getStage() {
-        Stage s = Utils.readObject(_stage, Stage.class);
+        Stage s = Batch.readObject(_stage, Stage.class);
         return s;
     }
 
     /** Deserializes the tree.
      * @return tree. */
     public static Tree getTree() {
-        Tree t = Utils.readObject(_tree, Tree.class);
+        Tree t = Batch.readObject(_tree, Tree.class);
         return t;
     }
 
@@ -697,5 +990,71 @@ public class Main {
         return _tree;
     }
 
+    /** Getter for the commit index file.
+     * @return commit index file. */
+    public static File getGraphFile() {
+        return _graph;
+    }
+
+    /** Getter for the reachability bitmaps file.
+     * @return bitmaps file. */
+    public static File getBitmapsFile() {
+        return _bitmaps;
+    }
+
+    /** Getter for the config file.
+     * @return config file. */
+    public static File getConfigFile() {
+        return _config;
+    }
+
+    /** Getter for the folder of raw file contents.
+     * @return raw folder. */
+    public static File getRawFolder() {
+        return _raw;
+    }
+
+    /** Getter for the sparse-checkout patterns file.
+     * @return sparse-checkout file. */
+    public static File getSparseFile() {
+        return _sparse;
+    }
+
+    /** Getter for the chunks folder.
+     * @return chunks folder. */
+    public static File getChunksFolder() {
+        return _chunks;
+    }
+
+    /** Getter for the blame cache folder.
+     * @return blame folder. */
+    public static File getBlameFolder() {
+        return _blame;
+    }
+
+    /** Getter for the stat cache file.
+     * @return stat cache file. */
+    public static File getStatCacheFile() {
+        return _statcache;
+    }
+
+    /** Getter for the watcher state file.
+     * @return watcher state file. */
+    public static File getWatchFile() {
+        return _watch;
+    }
+
+    /** Getter for the object index file.
+     * @return object index file. */
+    public static File getObjectIndexFile() {
+        return _objectindex;
+    }
+
+    /** Getter for the large file folder.
+     * @return large file folder. */
+    public static File getLfsFolder() {
+        return _lfs;
+    }
+
 
 }
@@ -0,0 +1,186 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+
+/** Puts blob contents into working files. The config setting
+ * checkout.mode chooses how:
+ *     copy      write the bytes (the default);
+ *     hardlink  hard-link the working file to a read-only copy of the
+ *               contents kept in .gitlet/raw, so checking out an
+ *               unchanged file costs no I/O at all;
+ *     reflink   clone the read-only copy where the filesystem supports
+ *               copy-on-write clones ("cp --reflink").
+ * Where links or clones are not possible, files are copied. A hard-linked
+ * working file is read-only, since writing it would change the stored
+ * copy; "unlock FILE" replaces it with a private, writable copy, and
+ * gitlet itself never writes through a link. Every copy in .gitlet/raw
+ * is given one fixed modification time, so that one written through a
+ * link anyway is noticed, and replaced, before it is used again.
+ * @author Pauline Tang */
+class Materializer {
+
+    /** Config key selecting the mode. */
+    static final String MODE_KEY = "checkout.mode";
+
+    /** Modification time (ms) given to every copy in .gitlet/raw, so that
+     * a write through a link to it, which changes the time, shows. */
+    private static final long RAW_TIME = 0;
+
+    /** Write the contents of blob BLOBHASH to working file DEST, making
+     * its directory if needed. A pointer to a large file is replaced by
+     * the file, always copied.
+     * @param blobhash blob hash.
+     * @param dest working file. */
+    static void materialize(String blobhash, File dest) {
+        dest.getParentFile().mkdirs();
+        String mode = Config.get(MODE_KEY, "copy");
+        if (!mode.equals("copy") && !Blob.isPointer(blobhash)) {
+            if (mode.equals("hardlink") && hardlink(blobhash, dest)) {
+                return;
+            }
+            if (mode.equals("reflink") && reflink(blobhash, dest)) {
+                return;
+            }
+        }
+        breakLink(dest);
+        Blob.copyTo(blobhash, dest);
+    }
+
+    /** Return true iff F is one of several hard links to its contents.
+     * @param f file. */
+    static boolean isLinked(File f) {
+        try {
+            Object n = Files.getAttribute(f.toPath(), "unix:nlink");
+            return n instanceof Integer && (Integer) n > 1;
+        } catch (IOException | UnsupportedOperationException
+                 | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** If F is hard-linked, replace it with a private, writable copy of
+     * its contents, so that writing F cannot change anything else.
+     * @param f working file. */
+    static void breakLink(File f) {
+        if (!isLinked(f)) {
+            return;
+        }
+        Path p = f.toPath();
+        Path tmp = p.resolveSibling("." + f.getName() + ".unlock");
+        try {
+            Files.copy(p, tmp, StandardCopyOption.REPLACE_EXISTING);
+            tmp.toFile().setWritable(true);
+            Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Utils.error("Cannot unlink %s: %s", f, e.getMessage());
+        }
+    }
+
+    /** The unlock command: break the links of the named working files, or
+     * of every working file if none are named, so they can be edited.
+     * @param filenames names of files. */
+    static void unlock(String... filenames) {
+        Collection<String> names = filenames.length > 0
+            ? List.of(filenames) : Walker.files(Main.getCWD()).keySet();
+        for (String name : names) {
+            File f = Utils.join(Main.getCWD(), name);
+            if (!f.isFile()) {
+                throw Utils.error("File does not exist.");
+            }
+            breakLink(f);
+        }
+    }
+
+    /** Return the read-only copy of the contents of blob BLOBHASH in
+     * .gitlet/raw, making it if needed. A copy whose length or
+     * modification time is not the one it was made with has been written
+     * through a link (permissions do not stop root), and is replaced; the
+     * working files linked to it keep the changed contents until they are
+     * linked again.
+     * @param blobhash blob hash. */
+    static File rawObject(String blobhash) {
+        File raw = Utils.join(Main.getRawFolder(), blobhash);
+        if (raw.exists()) {
+            if (raw.lastModified() == RAW_TIME
+                    && raw.length() == Blob.contentLength(blobhash)) {
+                return raw;
+            }
+            raw.delete();
+        }
+        Main.getRawFolder().mkdir();
+        File tmp = Utils.join(Main.getRawFolder(), blobhash + ".tmp");
+        Blob.copyTo(blobhash, tmp);
+        tmp.setLastModified(RAW_TIME);
+        tmp.setReadOnly();
+        try {
+            Files.move(tmp.toPath(), raw.toPath(),
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmp.delete();
+            throw Utils.error("Cannot store %s: %s", blobhash, e.getMessage());
+        }
+        return raw;
+    }
+
+    /** Hard-link DEST to the contents of BLOBHASH, doing nothing if it
+     * already is and they are unchanged; if they were changed through
+     * the link, DEST is linked to a fresh copy.
+     * @param blobhash blob hash.
+     * @param dest working file.
+     * @return false if the filesystem cannot do it. */
+    private static boolean hardlink(String blobhash, File dest) {
+        File raw = rawObject(blobhash);
+        try {
+            if (dest.exists()
+                    && Files.isSameFile(dest.toPath(), raw.toPath())) {
+                return true;
+            }
+            Path tmp = dest.toPath().resolveSibling("." + dest.getName()
+                                                    + ".link");
+            Files.deleteIfExists(tmp);
+            Files.createLink(tmp, raw.toPath());
+            Files.move(tmp, dest.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /** Make DEST a copy-on-write clone of the contents of BLOBHASH.
+     * @param blobhash blob hash.
+     * @param dest working file.
+     * @return false if the filesystem cannot do it. */
+    private static boolean reflink(String blobhash, File dest) {
+        File raw = rawObject(blobhash);
+        try {
+            Path tmp = dest.toPath().resolveSibling("." + dest.getName()
+                                                    + ".clone");
+            Process cp = new ProcessBuilder("cp", "--reflink=always",
+                                            raw.getPath(), tmp.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (cp.waitFor() != 0) {
+                Files.deleteIfExists(tmp);
+                return false;
+            }
+            tmp.toFile().setWritable(true);
+            Files.move(tmp, dest.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
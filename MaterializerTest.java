@@ -0,0 +1,77 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/** Tests of the checkout modes.
+ *  @author Pauline Tang
+ */
+public class MaterializerTest {
+
+    /** Make a new repository checking files out in MODE, with a.txt
+     * committed, and return the id of its blob.
+     * @param mode checkout.mode setting. */
+    private static String commitInMode(String mode) {
+        UnitTest.newRepo();
+        Config.set(Materializer.MODE_KEY, mode);
+        return UnitTest.commitFile("a.txt", "hello\n");
+    }
+
+    @Test
+    public void copyIsPrivate() {
+        commitInMode("copy");
+        Main.run("checkout", "--", "a.txt");
+        File f = Utils.join(Main.getCWD(), "a.txt");
+        assertFalse(Materializer.isLinked(f));
+        assertTrue(f.canWrite());
+    }
+
+    @Test
+    public void hardlinkSharesRawCopy() throws IOException {
+        String blob = commitInMode("hardlink");
+        Main.run("checkout", "--", "a.txt");
+        File f = Utils.join(Main.getCWD(), "a.txt");
+        File raw = Utils.join(Main.getRawFolder(), blob);
+        assertTrue(Files.isSameFile(f.toPath(), raw.toPath()));
+        assertEquals("hello\n", UnitTest.read("a.txt"));
+    }
+
+    @Test
+    public void writeThroughLinkIsUndone() throws IOException {
+        String blob = commitInMode("hardlink");
+        Main.run("checkout", "--", "a.txt");
+        File f = Utils.join(Main.getCWD(), "a.txt");
+        f.setWritable(true);
+        UnitTest.write("a.txt", "HELLO\n");
+        Main.run("checkout", "--", "a.txt");
+        assertEquals("hello\n", UnitTest.read("a.txt"));
+        File raw = Utils.join(Main.getRawFolder(), blob);
+        assertEquals("hello\n", Utils.readContentsAsString(raw));
+    }
+
+    @Test
+    public void unlockBreaksLink() {
+        commitInMode("hardlink");
+        Main.run("checkout", "--", "a.txt");
+        File f = Utils.join(Main.getCWD(), "a.txt");
+        assertTrue(Materializer.isLinked(f));
+        Main.run("unlock", "a.txt");
+        assertFalse(Materializer.isLinked(f));
+        assertTrue(f.canWrite());
+        assertEquals("hello\n", UnitTest.read("a.txt"));
+    }
+
+    @Test
+    public void reflinkFallsBackToCopy() {
+        commitInMode("reflink");
+        Utils.join(Main.getCWD(), "a.txt").delete();
+        Main.run("checkout", "--", "a.txt");
+        assertEquals("hello\n", UnitTest.read("a.txt"));
+        assertFalse(Materializer.isLinked(Utils.join(Main.getCWD(), "a.txt")));
+    }
+
+}
@@ -0,0 +1,35 @@
+package gitlet;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for one object read or written through Utils.readObject or
+ * Utils.writeObject.
+ * @author Pauline Tang */
+@Name("gitlet.ObjectIO")
+@Label("Object I/O")
+@Category({"Gitlet", "Object Store"})
+@Description("A serialized object read from or written to .gitlet")
+class ObjectIOEvent extends jdk.jfr.Event {
+
+    /** "read" or "write". */
+    @Label("Operation")
+    String operation;
+
+    /** Object file name, which for commits and blobs is their id. */
+    @Label("Object Id")
+    String id;
+
+    /** Class of the object. */
+    @Label("Type")
+    String type;
+
+    /** Size of the serialized object. */
+    @Label("Size")
+    @DataAmount
+    long size;
+
+}
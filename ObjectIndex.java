@@ -0,0 +1,284 @@
+package gitlet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/** The ids of the commits and blobs stored in this repository, kept in
+ * .gitlet/object-index, so that saving an object the index does not name
+ * goes straight to writing it. One it names is skipped only once its file
+ * is found, since an index left stale (by a gc stopped before rebuilding
+ * it, say) must not turn a save into nothing.
+ *
+ * The index is the magic "GLI1" and a count, then that many sorted
+ * records, each a kind byte ('c' or 'b') and the 20 bytes of the id;
+ * records of objects written since follow, unsorted, appended one per
+ * write. The sorted part is mapped, not read, and searched in place, so
+ * loading costs the same however many objects there are. Once enough
+ * records have been appended, all of them are sorted again. If the index
+ * is missing or unreadable it is rebuilt from the object folders; gc and
+ * fsck rebuild it too. An object written by other means (a fetched pack,
+ * say) is just not known to be stored, and is written again if saved.
+ * @author Pauline Tang */
+class ObjectIndex {
+
+    /** Kind byte of a commit. */
+    static final byte COMMIT = 'c';
+
+    /** Kind byte of a blob. */
+    static final byte BLOB = 'b';
+
+    /** First bytes of a stored index. */
+    private static final byte[] MAGIC = {'G', 'L', 'I', '1'};
+
+    /** Length of the magic and count. */
+    private static final int HEADER = MAGIC.length + 4;
+
+    /** Length of one record. */
+    private static final int RECORD = 21;
+
+    /** Appended records allowed before the index is sorted again. */
+    private static final int MAX_APPENDED = 4096;
+
+    /** Index of the current repository, or null if not yet loaded. */
+    private static ObjectIndex _current;
+
+    /** The sorted records. */
+    private ByteBuffer _sorted;
+
+    /** Number of sorted records. */
+    private int _count;
+
+    /** Appended records, as kind and hex id. */
+    private final HashSet<String> _appended = new HashSet<String>();
+
+    /** Return true iff the object of kind KIND with id ID is stored here.
+     * @param kind COMMIT or BLOB.
+     * @param id object id. */
+    static boolean contains(byte kind, String id) {
+        ObjectIndex index = get();
+        return index._appended.contains((char) kind + id)
+            || index.search(record(kind, id)) >= 0;
+    }
+
+    /** Record that the object of kind KIND with id ID has been stored.
+     * @param kind COMMIT or BLOB.
+     * @param id object id. */
+    static void added(byte kind, String id) {
+        ObjectIndex index = get();
+        if (contains(kind, id)) {
+            return;
+        }
+        index._appended.add((char) kind + id);
+        if (index._appended.size() > MAX_APPENDED) {
+            index.save();
+            return;
+        }
+        try {
+            Files.write(Main.getObjectIndexFile().toPath(), record(kind, id),
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw Utils.error("Cannot update object index: %s",
+                              e.getMessage());
+        }
+    }
+
+    /** Build the index again from the object folders. */
+    static void rebuild() {
+        ObjectIndex index = new ObjectIndex();
+        index._sorted = ByteBuffer.allocate(0);
+        List<String> commits = Utils.plainFilenamesIn(Main.getCommitsFolder());
+        List<String> blobs = Utils.plainFilenamesIn(Main.getBlobsFolder());
+        for (String id : commits == null ? new ArrayList<String>() : commits) {
+            index._appended.add((char) COMMIT + id);
+        }
+        for (String id : blobs == null ? new ArrayList<String>() : blobs) {
+            index._appended.add((char) BLOB + id);
+        }
+        index._appended.removeIf(key -> record(key) == null);
+        index.save();
+    }
+
+    /** Forget the index held in memory, as when switching repositories. */
+    static void clear() {
+        _current = null;
+    }
+
+    /** Return the index of the current repository, loading or building
+     * it if need be. */
+    private static ObjectIndex get() {
+        if (_current == null) {
+            ObjectIndex index = new ObjectIndex();
+            if (index.load(Main.getObjectIndexFile())) {
+                _current = index;
+            } else {
+                rebuild();
+            }
+        }
+        return _current;
+    }
+
+    /** Map the sorted records of the stored index F and read the appended
+     * ones, returning false if F is missing or not an index.
+     * @param f index file. */
+    private boolean load(File f) {
+        if (!f.exists()) {
+            return false;
+        }
+        try (FileChannel in = FileChannel.open(f.toPath())) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            if (!readFully(in, header, 0)) {
+                return false;
+            }
+            byte[] magic = Arrays.copyOf(header.array(), MAGIC.length);
+            _count = header.getInt(MAGIC.length);
+            long end = HEADER + (long) _count * RECORD;
+            if (!Arrays.equals(magic, MAGIC) || _count < 0
+                    || end > in.size() || (in.size() - end) % RECORD != 0) {
+                return false;
+            }
+            _sorted = in.map(FileChannel.MapMode.READ_ONLY, HEADER,
+                             end - HEADER);
+            ByteBuffer rest = ByteBuffer.allocate((int) (in.size() - end));
+            readFully(in, rest, end);
+            byte[] r = new byte[RECORD];
+            for (rest.flip(); rest.hasRemaining();) {
+                rest.get(r);
+                _appended.add(key(r));
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /** Fill BUF from IN, starting at file position POS, as far as the
+     * file goes.
+     * @param in channel.
+     * @param buf buffer to fill.
+     * @param pos file position.
+     * @return false if the file ended first. */
+    private static boolean readFully(FileChannel in, ByteBuffer buf,
+                                     long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            if (in.read(buf, pos + buf.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Store every record sorted, replacing the stored index in one
+     * step, and make this the current index. */
+    private void save() {
+        List<byte[]> records = new ArrayList<byte[]>();
+        for (int i = 0; i < _count; i += 1) {
+            byte[] r = new byte[RECORD];
+            _sorted.get(i * RECORD, r);
+            records.add(r);
+        }
+        for (String key : _appended) {
+            records.add(record(key));
+        }
+        records.sort(Arrays::compareUnsigned);
+        File f = Main.getObjectIndexFile();
+        File tmp = Utils.join(Main.getGitletDir(), "object-index.tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(
+                         Files.newOutputStream(tmp.toPath()), 1 << 16))) {
+                out.write(MAGIC);
+                out.writeInt(records.size());
+                for (byte[] r : records) {
+                    out.write(r);
+                }
+            }
+            Files.move(tmp.toPath(), f.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Utils.error("Cannot save object index: %s", e.getMessage());
+        }
+        ByteBuffer sorted = ByteBuffer.allocate(records.size() * RECORD);
+        for (byte[] r : records) {
+            sorted.put(r);
+        }
+        _sorted = sorted;
+        _count = records.size();
+        _appended.clear();
+        _current = this;
+    }
+
+    /** Return the position of the sorted record R, or -1 if absent.
+     * @param r record, or null for an invalid id. */
+    private int search(byte[] r) {
+        if (r == null) {
+            return -1;
+        }
+        byte[] mid = new byte[RECORD];
+        int lo = 0;
+        int hi = _count - 1;
+        while (lo <= hi) {
+            int m = (lo + hi) >>> 1;
+            _sorted.get(m * RECORD, mid);
+            int c = Arrays.compareUnsigned(mid, r);
+            if (c < 0) {
+                lo = m + 1;
+            } else if (c > 0) {
+                hi = m - 1;
+            } else {
+                return m;
+            }
+        }
+        return -1;
+    }
+
+    /** Return the record of the object of kind KIND with id ID, or null
+     * if ID is not 40 hexadecimal digits.
+     * @param kind COMMIT or BLOB.
+     * @param id object id. */
+    private static byte[] record(byte kind, String id) {
+        if (id == null || id.length() != 2 * (RECORD - 1)) {
+            return null;
+        }
+        byte[] r = new byte[RECORD];
+        r[0] = kind;
+        for (int i = 1; i < RECORD; i += 1) {
+            int hi = Character.digit(id.charAt(2 * i - 2), 16);
+            int lo = Character.digit(id.charAt(2 * i - 1), 16);
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            r[i] = (byte) (hi << 4 | lo);
+        }
+        return r;
+    }
+
+    /** Return the record of KEY, a kind followed by a hex id, or null.
+     * @param key appended record key. */
+    private static byte[] record(String key) {
+        return record((byte) key.charAt(0), key.substring(1));
+    }
+
+    /** Return the key (kind and hex id) of the record R.
+     * @param r record. */
+    private static String key(byte[] r) {
+        StringBuilder s = new StringBuilder().append((char) r[0]);
+        for (int i = 1; i < RECORD; i += 1) {
+            s.append(Character.forDigit((r[i] >> 4) & 0xf, 16))
+                .append(Character.forDigit(r[i] & 0xf, 16));
+        }
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,68 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of the object index.
+ *  @author Pauline Tang
+ */
+public class ObjectIndexTest {
+
+    /** An id no object has. */
+    private static final String ID = "0123456789abcdef0123456789abcdef01234567";
+
+    @Test
+    public void appendAndReload() {
+        UnitTest.newRepo();
+        assertFalse(ObjectIndex.contains(ObjectIndex.BLOB, ID));
+        long length = Main.getObjectIndexFile().length();
+        ObjectIndex.added(ObjectIndex.BLOB, ID);
+        assertEquals(length + 21, Main.getObjectIndexFile().length());
+        ObjectIndex.clear();
+        assertTrue(ObjectIndex.contains(ObjectIndex.BLOB, ID));
+        assertFalse(ObjectIndex.contains(ObjectIndex.COMMIT, ID));
+    }
+
+    @Test
+    public void knowsCommittedObjects() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "hello\n");
+        Commit head = Main.getTree().getHeadCommit();
+        ObjectIndex.clear();
+        assertTrue(ObjectIndex.contains(ObjectIndex.COMMIT,
+                                        head.getIdentifier()));
+        assertTrue(ObjectIndex.contains(ObjectIndex.BLOB,
+                                        head.getFilesTracked().get("a.txt")));
+    }
+
+    @Test
+    public void staleEntryDoesNotSkipSave() {
+        UnitTest.newRepo();
+        Blob b = new Blob("a.txt", "hello\n");
+        b.saveBlob();
+        File f = Utils.join(Main.getBlobsFolder(), b.getIdentifier());
+        f.delete();
+        assertTrue(ObjectIndex.contains(ObjectIndex.BLOB, b.getIdentifier()));
+        b.saveBlob();
+        assertTrue(f.isFile());
+        Commit c = Main.getTree().getHeadCommit();
+        File g = Utils.join(Main.getCommitsFolder(), c.getIdentifier());
+        g.delete();
+        c.saveCommit();
+        assertTrue(g.isFile());
+    }
+
+    @Test
+    public void rebuiltWhenMissing() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "hello\n");
+        String id = Main.getTree().getHeadCommit().getIdentifier();
+        Main.getObjectIndexFile().delete();
+        ObjectIndex.clear();
+        assertTrue(ObjectIndex.contains(ObjectIndex.COMMIT, id));
+        assertTrue(Main.getObjectIndexFile().isFile());
+    }
+
+}
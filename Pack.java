@@ -0,0 +1,213 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/** A stream of objects copied from one repository to another. A pack is
+ * the magic "GLP1" followed by one record per object,
+ *     type (1 byte), id (writeUTF), length (long), bytes of the object file,
+ * and a 0 type byte. Object files are copied as they are, and no more
+ * than a buffer of the pack is ever in memory. A pack may come from
+ * anywhere, so the reader accepts only ids of 40 lowercase hex digits and
+ * hashes every object again, refusing the pack at the first one whose
+ * contents do not match its id.
+ * @author Pauline Tang */
+class Pack {
+
+    /** First bytes of a pack. */
+    private static final byte[] MAGIC = {'G', 'L', 'P', '1'};
+
+    /** Record type ending a pack. */
+    static final byte END = 0;
+
+    /** Record type of a commit. */
+    static final byte COMMIT = 1;
+
+    /** Record type of a blob. */
+    static final byte BLOB = 2;
+
+    /** Record type of a chunk of a large blob. */
+    static final byte CHUNK = 3;
+
+    /** Folder names of each record type, in the .gitlet directory. */
+    private static final String[] FOLDERS = {null, "commits", "blobs",
+                                             "chunks"};
+
+    /** Matches a valid object id. */
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{40}");
+
+    /** Size of stream buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Objects in the pack. */
+    private int _objects;
+
+    /** Bytes of objects in the pack. */
+    private long _bytes;
+
+    /** Ids of the commits read, in pack order. */
+    private final List<String> _commits = new ArrayList<String>();
+
+    /** Return the number of objects written or read. */
+    int objects() {
+        return _objects;
+    }
+
+    /** Return the number of object bytes written or read. */
+    long bytes() {
+        return _bytes;
+    }
+
+    /** Return the ids of the commits read, in the order written. */
+    List<String> commits() {
+        return _commits;
+    }
+
+    /** Write to OUT a pack of COMMITS, BLOBS and CHUNKS (ids) from the
+     * repository whose .gitlet directory is FROM, and close OUT.
+     * @param out destination stream.
+     * @param from source .gitlet directory.
+     * @param commits commit ids.
+     * @param blobs blob ids.
+     * @param chunks chunk ids. */
+    void write(OutputStream out, File from, Collection<String> commits,
+               Collection<String> blobs, Collection<String> chunks)
+        throws IOException {
+        try (DataOutputStream data = new DataOutputStream(
+                 new BufferedOutputStream(out, BUFFER_SIZE))) {
+            data.write(MAGIC);
+            writeAll(data, from, CHUNK, chunks);
+            writeAll(data, from, BLOB, blobs);
+            writeAll(data, from, COMMIT, commits);
+            data.writeByte(END);
+        }
+    }
+
+    /** Return true iff ID is a valid object id.
+     * @param id object id. */
+    static boolean isId(String id) {
+        return ID.matcher(id).matches();
+    }
+
+    /** Read a pack from IN into the repository whose .gitlet directory is
+     * TO, which must be the current one, skipping objects it already has
+     * and recording the commits and blobs in its object index. Fails on a
+     * bad id or on an object whose contents do not match its id; the
+     * objects read before it are sound, and are kept.
+     * @param in source stream.
+     * @param to destination .gitlet directory. */
+    void read(InputStream in, File to) throws IOException {
+        DataInputStream data = new DataInputStream(
+            new BufferedInputStream(in, BUFFER_SIZE));
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("not a gitlet pack");
+        }
+        byte[] buf = new byte[BUFFER_SIZE];
+        for (byte type = data.readByte(); type != END;
+             type = data.readByte()) {
+            if (type < 0 || type >= FOLDERS.length) {
+                throw new IOException("bad pack record");
+            }
+            String id = data.readUTF();
+            long length = data.readLong();
+            if (!isId(id) || length < 0) {
+                throw new IOException("bad pack record");
+            }
+            File folder = Utils.join(to, FOLDERS[type]);
+            folder.mkdir();
+            File f = Utils.join(folder, id);
+            File tmp = Utils.join(folder, id + ".pack");
+            Hasher h = Hasher.start();
+            try (OutputStream obj = Files.newOutputStream(tmp.toPath())) {
+                for (long left = length; left > 0;) {
+                    int n = data.read(buf, 0, (int) Math.min(buf.length, left));
+                    if (n < 0) {
+                        throw new IOException("truncated pack");
+                    }
+                    h.update(buf, 0, n);
+                    obj.write(buf, 0, n);
+                    left -= n;
+                }
+            }
+            String actual = type == CHUNK ? h.hex() : rehash(type, tmp, to);
+            if (!id.equals(actual)) {
+                tmp.delete();
+                throw new IOException("object " + id + " is corrupt");
+            }
+            if (f.exists()) {
+                tmp.delete();
+            } else {
+                Files.move(tmp.toPath(), f.toPath(),
+                           StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (type == COMMIT) {
+                _commits.add(id);
+                ObjectIndex.added(ObjectIndex.COMMIT, id);
+            } else if (type == BLOB) {
+                ObjectIndex.added(ObjectIndex.BLOB, id);
+            }
+            _objects += 1;
+            _bytes += length;
+            Trace.objectWritten();
+            Trace.bytesWritten(length);
+        }
+    }
+
+    /** Return the id of the commit or blob of type TYPE held in F, hashed
+     * afresh, or null if it cannot be read. The chunks of a blob are
+     * looked up in the .gitlet directory TO, which received them first.
+     * @param type record type.
+     * @param f object file.
+     * @param to destination .gitlet directory. */
+    private static String rehash(byte type, File f, File to) {
+        try {
+            if (type == COMMIT) {
+                Commit c = Utils.readObject(f, Commit.class);
+                return Utils.sha1(c.getMessage(), c.getTimestamp());
+            }
+            return Blob.rehash(f, Utils.join(to, FOLDERS[CHUNK]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Write to DATA a record of type TYPE for each of IDS, taken from
+     * the .gitlet directory FROM.
+     * @param data pack being written.
+     * @param from source .gitlet directory.
+     * @param type record type.
+     * @param ids object ids. */
+    private void writeAll(DataOutputStream data, File from, byte type,
+                          Collection<String> ids) throws IOException {
+        File folder = Utils.join(from, FOLDERS[type]);
+        for (String id : ids) {
+            File f = Alternates.find(folder, id);
+            data.writeByte(type);
+            data.writeUTF(id);
+            data.writeLong(f.length());
+            long n = Files.copy(f.toPath(), data);
+            if (n != f.length()) {
+                throw new IOException("object " + id + " changed");
+            }
+            _objects += 1;
+            _bytes += n;
+            Trace.objectRead(n);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package gitlet;
+
+import java.util.Collection;
+
+/** Bloom filters of the paths a commit changed, kept in the commit index
+ * so that path-limited log can pass over commits that certainly did not
+ * touch a path without reading their manifests. A filter has about ten
+ * bits per path and uses seven hash functions, for a false-positive rate
+ * near 1%. Commits changing more than MAX_PATHS paths get an empty
+ * filter, which matches every path.
+ * @author Pauline Tang */
+class PathBloom {
+
+    /** Most changed paths kept in a filter. */
+    static final int MAX_PATHS = 512;
+
+    /** Bits per path. */
+    private static final int BITS_PER_PATH = 10;
+
+    /** Hash functions per path. */
+    private static final int HASHES = 7;
+
+    /** Return the filter of PATHS.
+     * @param paths changed paths. */
+    static long[] build(Collection<String> paths) {
+        if (paths.size() > MAX_PATHS) {
+            return new long[0];
+        }
+        int words = Math.max(1, (paths.size() * BITS_PER_PATH + 63) / 64);
+        long[] bloom = new long[words];
+        for (String path : paths) {
+            long h = hash(path);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32) | 1;
+            for (int i = 0; i < HASHES; i += 1) {
+                int bit = Math.floorMod(h1 + i * h2, words * 64);
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return bloom;
+    }
+
+    /** Return false if PATH is certainly not in BLOOM.
+     * @param bloom filter, or null if unknown.
+     * @param path file name. */
+    static boolean mightContain(long[] bloom, String path) {
+        if (bloom == null || bloom.length == 0) {
+            return true;
+        }
+        long h = hash(path);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        for (int i = 0; i < HASHES; i += 1) {
+            int bit = Math.floorMod(h1 + i * h2, bloom.length * 64);
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Return a 64-bit hash of PATH: FNV-1a over its chars, then mixed.
+     * Filters are stored, so this must never change.
+     * @param path file name. */
+    private static long hash(String path) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < path.length(); i += 1) {
+            h = (h ^ path.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+}
@@ -0,0 +1,105 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/** Tests of changed-path Bloom filters and path-limited history.
+ *  @author Pauline Tang
+ */
+public class PathBloomTest {
+
+    /** Return N distinct paths starting with PREFIX.
+     * @param prefix path prefix.
+     * @param n number of paths. */
+    private static List<String> paths(String prefix, int n) {
+        List<String> result = new ArrayList<String>();
+        for (int i = 0; i < n; i += 1) {
+            result.add(prefix + i + ".txt");
+        }
+        return result;
+    }
+
+    @Test
+    public void noFalseNegatives() {
+        for (int n : new int[] {1, 7, 100, PathBloom.MAX_PATHS}) {
+            List<String> paths = paths("dir/f", n);
+            long[] bloom = PathBloom.build(paths);
+            for (String path : paths) {
+                assertTrue(path, PathBloom.mightContain(bloom, path));
+            }
+        }
+    }
+
+    @Test
+    public void fewFalsePositives() {
+        long[] bloom = PathBloom.build(paths("src/f", 200));
+        int hits = 0;
+        for (String path : paths("other/g", 10000)) {
+            if (PathBloom.mightContain(bloom, path)) {
+                hits += 1;
+            }
+        }
+        assertTrue("false positives: " + hits, hits < 300);
+    }
+
+    @Test
+    public void unknownMatchesAll() {
+        long[] bloom = PathBloom.build(paths("f", PathBloom.MAX_PATHS + 1));
+        assertEquals(0, bloom.length);
+        assertTrue(PathBloom.mightContain(bloom, "anything"));
+        assertTrue(PathBloom.mightContain(null, "anything"));
+    }
+
+    @Test
+    public void changedPaths() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "a\n");
+        UnitTest.commitFile("b.txt", "b\n");
+        UnitTest.write("a.txt", "A\n");
+        Main.add("a.txt");
+        Main.run("rm", "b.txt");
+        UnitTest.write("c.txt", "c\n");
+        Main.add("c.txt");
+        Main.commit("change all");
+        Commit c = Main.getTree().getHeadCommit();
+        assertEquals(Set.of("a.txt", "b.txt", "c.txt"),
+                     CommitGraph.changedPaths(c));
+        assertEquals(Set.of("b.txt"),
+                     CommitGraph.changedPaths(c.getParent()));
+        CommitGraph g = CommitGraph.load();
+        long[] bloom = g.changedPaths(g.position(c.getIdentifier()));
+        for (String path : List.of("a.txt", "b.txt", "c.txt")) {
+            assertTrue(PathBloom.mightContain(bloom, path));
+        }
+    }
+
+    @Test
+    public void pathLimitedLog() {
+        UnitTest.newRepo();
+        List<String> names = paths("f", 20);
+        List<String> touching = new ArrayList<String>();
+        for (int i = 0; i < 30; i += 1) {
+            for (int k : new int[] {i % 20, (i * 7 + 3) % 20}) {
+                UnitTest.write(names.get(k), "commit " + i + "\n");
+                Main.add(names.get(k));
+            }
+            Main.commit("commit " + i);
+            if (i % 20 == 17 || (i * 7 + 3) % 20 == 17) {
+                touching.add(0, "commit " + i);
+            }
+        }
+        String[] lines = UnitTest.output("log", "--", "f17.txt").split("\n");
+        List<String> shown = new ArrayList<String>();
+        for (int i = 0; i < lines.length; i += 1) {
+            if (lines[i].startsWith("Date: ")) {
+                shown.add(lines[i + 1]);
+            }
+        }
+        assertEquals(touching, shown);
+    }
+
+}
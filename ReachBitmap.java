@@ -0,0 +1,302 @@
+package gitlet;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** A compressed set of non-negative ints, laid out like a Roaring bitmap.
+ * Values are grouped by their high 16 bits into containers; a container
+ * holding few values is a sorted array, a dense one is a 65536-bit bitmap.
+ * Used to record which commit positions (see CommitGraph) are reachable.
+ * @author Pauline Tang */
+public class ReachBitmap implements Serializable {
+
+    /** Serial version of stored bitmaps. */
+    private static final long serialVersionUID = -5438862898232022732L;
+
+    /** Largest number of values an array container may hold. */
+    static final int ARRAY_MAX = 4096;
+
+    /** Number of 64-bit words in a bitmap container. */
+    private static final int WORDS = 1024;
+
+    /** Containers, keyed by the high 16 bits of their values. */
+    private TreeMap<Integer, Container> _containers;
+
+    /** Creates an empty bitmap. */
+    public ReachBitmap() {
+        _containers = new TreeMap<Integer, Container>();
+    }
+
+    /** Add VALUE to this bitmap.
+     * @param value non-negative int. */
+    public void add(int value) {
+        int key = value >>> 16;
+        Container c = _containers.get(key);
+        if (c == null) {
+            c = new Container();
+            _containers.put(key, c);
+        }
+        c.add((char) value);
+    }
+
+    /** Return true iff VALUE is in this bitmap.
+     * @param value non-negative int. */
+    public boolean contains(int value) {
+        Container c = _containers.get(value >>> 16);
+        return c != null && c.contains((char) value);
+    }
+
+    /** Return the number of values in this bitmap. */
+    public int cardinality() {
+        int n = 0;
+        for (Container c : _containers.values()) {
+            n += c.cardinality();
+        }
+        return n;
+    }
+
+    /** Return true iff this bitmap holds no values. */
+    public boolean isEmpty() {
+        return _containers.isEmpty();
+    }
+
+    /** Return a new bitmap holding the values in this or OTHER.
+     * @param other bitmap. */
+    public ReachBitmap or(ReachBitmap other) {
+        ReachBitmap result = copy();
+        for (Map.Entry<Integer, Container> e
+                 : other._containers.entrySet()) {
+            Container mine = result._containers.get(e.getKey());
+            if (mine == null) {
+                result._containers.put(e.getKey(), e.getValue().copy());
+            } else {
+                long[] w = mine.toWords();
+                long[] o = e.getValue().toWords();
+                for (int i = 0; i < WORDS; i += 1) {
+                    w[i] |= o[i];
+                }
+                result._containers.put(e.getKey(), Container.fromWords(w));
+            }
+        }
+        return result;
+    }
+
+    /** Return a new bitmap holding the values in both this and OTHER.
+     * @param other bitmap. */
+    public ReachBitmap and(ReachBitmap other) {
+        ReachBitmap result = new ReachBitmap();
+        for (Map.Entry<Integer, Container> e : _containers.entrySet()) {
+            Container theirs = other._containers.get(e.getKey());
+            if (theirs != null) {
+                long[] w = e.getValue().toWords();
+                long[] o = theirs.toWords();
+                for (int i = 0; i < WORDS; i += 1) {
+                    w[i] &= o[i];
+                }
+                result.putWords(e.getKey(), w);
+            }
+        }
+        return result;
+    }
+
+    /** Return a new bitmap holding the values in this but not in OTHER.
+     * @param other bitmap. */
+    public ReachBitmap andNot(ReachBitmap other) {
+        ReachBitmap result = new ReachBitmap();
+        for (Map.Entry<Integer, Container> e : _containers.entrySet()) {
+            Container theirs = other._containers.get(e.getKey());
+            if (theirs == null) {
+                result._containers.put(e.getKey(), e.getValue().copy());
+            } else {
+                long[] w = e.getValue().toWords();
+                long[] o = theirs.toWords();
+                for (int i = 0; i < WORDS; i += 1) {
+                    w[i] &= ~o[i];
+                }
+                result.putWords(e.getKey(), w);
+            }
+        }
+        return result;
+    }
+
+    /** Return a copy of this bitmap. */
+    public ReachBitmap copy() {
+        ReachBitmap result = new ReachBitmap();
+        for (Map.Entry<Integer, Container> e : _containers.entrySet()) {
+            result._containers.put(e.getKey(), e.getValue().copy());
+        }
+        return result;
+    }
+
+    /** Return the values of this bitmap in ascending order. */
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int k = 0;
+        for (Map.Entry<Integer, Container> e : _containers.entrySet()) {
+            k = e.getValue().copyInto(result, k, e.getKey() << 16);
+        }
+        return result;
+    }
+
+    /** Store the container made from words W under KEY, dropping it if
+     * it turns out to be empty.
+     * @param key high 16 bits.
+     * @param w bitmap words. */
+    private void putWords(int key, long[] w) {
+        Container c = Container.fromWords(w);
+        if (c != null) {
+            _containers.put(key, c);
+        }
+    }
+
+    /** The values of a bitmap sharing the same high 16 bits. */
+    private static class Container implements Serializable {
+
+        /** Serial version of stored containers. */
+        private static final long serialVersionUID = 811922016080443419L;
+
+        /** Sorted low 16 bits of the values, when sparse. */
+        private char[] _values;
+
+        /** Bitmap of the low 16 bits of the values, when dense. */
+        private long[] _words;
+
+        /** Number of values. */
+        private int _card;
+
+        /** Creates an empty array container. */
+        Container() {
+            _values = new char[4];
+        }
+
+        /** Return a container holding the bits set in W, or null if W
+         * is all zero.
+         * @param w bitmap words. */
+        static Container fromWords(long[] w) {
+            int card = 0;
+            for (long word : w) {
+                card += Long.bitCount(word);
+            }
+            if (card == 0) {
+                return null;
+            }
+            Container c = new Container();
+            c._card = card;
+            if (card > ARRAY_MAX) {
+                c._words = w;
+                c._values = null;
+            } else {
+                c._values = new char[card];
+                int k = 0;
+                for (int i = 0; i < WORDS; i += 1) {
+                    long word = w[i];
+                    while (word != 0) {
+                        int bit = Long.numberOfTrailingZeros(word);
+                        c._values[k] = (char) ((i << 6) + bit);
+                        k += 1;
+                        word &= word - 1;
+                    }
+                }
+            }
+            return c;
+        }
+
+        /** Add V to this container.
+         * @param v low 16 bits. */
+        void add(char v) {
+            if (_words != null) {
+                long bit = 1L << (v & 63);
+                if ((_words[v >>> 6] & bit) == 0) {
+                    _words[v >>> 6] |= bit;
+                    _card += 1;
+                }
+                return;
+            }
+            int i = Arrays.binarySearch(_values, 0, _card, v);
+            if (i >= 0) {
+                return;
+            }
+            if (_card == ARRAY_MAX) {
+                _words = toWords();
+                _values = null;
+                add(v);
+                return;
+            }
+            i = -i - 1;
+            if (_card == _values.length) {
+                _values = Arrays.copyOf(_values,
+                                        Math.min(ARRAY_MAX, _card * 2));
+            }
+            System.arraycopy(_values, i, _values, i + 1, _card - i);
+            _values[i] = v;
+            _card += 1;
+        }
+
+        /** Return true iff V is in this container.
+         * @param v low 16 bits. */
+        boolean contains(char v) {
+            if (_words != null) {
+                return (_words[v >>> 6] & (1L << (v & 63))) != 0;
+            }
+            return Arrays.binarySearch(_values, 0, _card, v) >= 0;
+        }
+
+        /** Return the number of values in this container. */
+        int cardinality() {
+            return _card;
+        }
+
+        /** Return this container's values as a fresh bitmap. */
+        long[] toWords() {
+            if (_words != null) {
+                return _words.clone();
+            }
+            long[] w = new long[WORDS];
+            for (int i = 0; i < _card; i += 1) {
+                w[_values[i] >>> 6] |= 1L << (_values[i] & 63);
+            }
+            return w;
+        }
+
+        /** Return a copy of this container. */
+        Container copy() {
+            Container c = new Container();
+            c._card = _card;
+            if (_words != null) {
+                c._words = _words.clone();
+                c._values = null;
+            } else {
+                c._values = Arrays.copyOf(_values, _card);
+            }
+            return c;
+        }
+
+        /** Write the values of this container, offset by BASE, into OUT
+         * starting at K.
+         * @param out destination.
+         * @param k first index to write.
+         * @param base high bits of the values.
+         * @return the index following the last value written. */
+        int copyInto(int[] out, int k, int base) {
+            if (_words == null) {
+                for (int i = 0; i < _card; i += 1) {
+                    out[k] = base | _values[i];
+                    k += 1;
+                }
+                return k;
+            }
+            for (int i = 0; i < WORDS; i += 1) {
+                long word = _words[i];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    out[k] = base | ((i << 6) + bit);
+                    k += 1;
+                    word &= word - 1;
+                }
+            }
+            return k;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/** Reachability bitmaps for branch tips, stored beside the commit index.
+ * The bitmap of a commit has a bit set for the CommitGraph position of
+ * every commit reachable from it (itself included), so ancestry and
+ * "commits on X but not on Y" become bitmap operations.
+ * @author Pauline Tang */
+public class Reachability implements Serializable {
+
+    /** Serial version of stored bitmaps. */
+    private static final long serialVersionUID = 7502885983274040054L;
+
+    /** Head commit id of each branch. */
+    private HashMap<String, String> _tips;
+
+    /** Reachability bitmap of each branch head commit id. */
+    private HashMap<String, ReachBitmap> _bitmaps;
+
+    /** Commit index that the bitmaps' positions refer to. */
+    private transient CommitGraph _graph;
+
+    /** Creates an empty set of bitmaps over GRAPH.
+     * @param graph commit index. */
+    private Reachability(CommitGraph graph) {
+        _tips = new HashMap<String, String>();
+        _bitmaps = new HashMap<String, ReachBitmap>();
+        _graph = graph;
+    }
+
+    /** Return the reachability bitmaps of this repository, building them
+     * from the branch heads if they have not been stored yet or cannot be
+     * read. */
+    public static Reachability load() {
+        CommitGraph g = CommitGraph.load();
+        File f = Main.getBitmapsFile();
+        if (f.exists()) {
+            try {
+                Reachability r = Utils.readObject(f, Reachability.class);
+                r._graph = g;
+                return r;
+            } catch (IllegalArgumentException e) {
+                f.delete();
+            }
+        }
+        Reachability r = new Reachability(g);
+        for (String name : Branch.names()) {
+            r.updateBranch(name, Branch.getBranch(name).getHeadCommit());
+        }
+        return r;
+    }
+
+    /** Return the commit index the bitmaps refer to. */
+    public CommitGraph getGraph() {
+        return _graph;
+    }
+
+    /** Record that branch BRANCHNAME now points at COMMITID.
+     * @param branchname name of branch.
+     * @param commitid full commit hash. */
+    public void updateBranch(String branchname, String commitid) {
+        ReachBitmap bm = reachable(commitid);
+        _tips.put(branchname, commitid);
+        _bitmaps.put(commitid, bm);
+        prune();
+    }
+
+    /** Forget the branch BRANCHNAME.
+     * @param branchname name of branch. */
+    public void removeBranch(String branchname) {
+        _tips.remove(branchname);
+        prune();
+    }
+
+    /** Return the set of positions of commits reachable from COMMITID.
+     * Walks parent positions only until it meets a commit with a stored
+     * bitmap, which for a branch tip is normally its parent.
+     * @param commitid full commit hash. */
+    public ReachBitmap reachable(String commitid) {
+        ReachBitmap stored = _bitmaps.get(commitid);
+        if (stored != null) {
+            return stored.copy();
+        }
+        ReachBitmap result = new ReachBitmap();
+        int pos = _graph.position(commitid);
+        while (pos >= 0) {
+            ReachBitmap known = _bitmaps.get(_graph.id(pos));
+            if (known != null) {
+                return result.or(known);
+            }
+            result.add(pos);
+            pos = _graph.parent(pos);
+        }
+        return result;
+    }
+
+    /** Return the positions of commits reachable from any branch. */
+    public ReachBitmap reachableFromBranches() {
+        ReachBitmap result = new ReachBitmap();
+        for (String commitid : new HashSet<String>(_tips.values())) {
+            result = result.or(_bitmaps.get(commitid));
+        }
+        return result;
+    }
+
+    /** Return true iff commit ANCESTOR is reachable from commit
+     * DESCENDANT.
+     * @param ancestor full commit hash.
+     * @param descendant full commit hash. */
+    public boolean isAncestor(String ancestor, String descendant) {
+        return reachable(descendant).contains(_graph.position(ancestor));
+    }
+
+    /** Return the positions of commits reachable from TO but not from
+     * FROM, as in "log FROM..TO".
+     * @param from full commit hash.
+     * @param to full commit hash. */
+    public ReachBitmap between(String from, String to) {
+        return reachable(to).andNot(reachable(from));
+    }
+
+    /** Write the bitmaps and the commit index out. */
+    public void save() {
+        _graph.save();
+        Utils.writeObject(Main.getBitmapsFile(), this);
+    }
+
+    /** Drop bitmaps of commits that are no longer a branch head. */
+    private void prune() {
+        _bitmaps.keySet().retainAll(new HashSet<String>(_tips.values()));
+    }
+
+}
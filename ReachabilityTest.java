@@ -0,0 +1,68 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of reachability bitmaps and the compressed sets they use.
+ *  @author Pauline Tang
+ */
+public class ReachabilityTest {
+
+    /** Make a new repository where master holds a.txt and b.txt and the
+     * branch side, made after a.txt, holds a.txt and c.txt. Return the
+     * head commit ids of master and side. */
+    private static String[] forked() {
+        UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "a\n");
+        Main.run("branch", "side");
+        UnitTest.commitFile("b.txt", "b\n");
+        String master = Branch.getBranch("master").getHeadCommit();
+        Main.run("checkout", "side");
+        UnitTest.commitFile("c.txt", "c\n");
+        String side = Branch.getBranch("side").getHeadCommit();
+        return new String[] { master, side };
+    }
+
+    @Test
+    public void ancestry() {
+        String[] heads = forked();
+        Reachability r = Reachability.load();
+        String fork = Commit.getCommit(heads[1]).getParentHash();
+        assertTrue(r.isAncestor(fork, heads[0]));
+        assertTrue(r.isAncestor(fork, heads[1]));
+        assertTrue(r.isAncestor(heads[0], heads[0]));
+        assertFalse(r.isAncestor(heads[0], heads[1]));
+        assertFalse(r.isAncestor(heads[1], heads[0]));
+        assertEquals(1, r.between(heads[0], heads[1]).cardinality());
+        assertEquals(4, r.reachableFromBranches().cardinality());
+    }
+
+    @Test
+    public void rebuiltWhenUnreadable() {
+        String[] heads = forked();
+        Reachability.load().save();
+        Utils.writeContents(Main.getBitmapsFile(), "junk");
+        Reachability r = Reachability.load();
+        assertTrue(r.isAncestor(heads[0], heads[0]));
+        assertFalse(r.isAncestor(heads[0], heads[1]));
+        assertEquals(4, r.reachableFromBranches().cardinality());
+    }
+
+    @Test
+    public void denseAndSparseSets() {
+        ReachBitmap a = new ReachBitmap();
+        ReachBitmap b = new ReachBitmap();
+        for (int i = 0; i < 2 * ReachBitmap.ARRAY_MAX; i += 1) {
+            a.add(i);
+        }
+        b.add(3);
+        b.add(1 << 20);
+        assertEquals(2 * ReachBitmap.ARRAY_MAX, a.cardinality());
+        assertTrue(a.contains(ReachBitmap.ARRAY_MAX + 1));
+        assertFalse(a.contains(1 << 20));
+        assertEquals(2 * ReachBitmap.ARRAY_MAX + 1, a.or(b).cardinality());
+        assertArrayEquals(new int[] { 3 }, a.and(b).toArray());
+        assertArrayEquals(new int[] { 1 << 20 }, b.andNot(a).toArray());
+    }
+
+}
@@ -0,0 +1,260 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Remote repositories on the local filesystem, and the commands using
+ * them: add-remote, rm-remote, fetch and push. A remote is recorded as
+ * the config setting remote.NAME.path, the path to its .gitlet directory.
+ *
+ * To send a branch, the sending side walks back from the branch head
+ * until it reaches commits the receiving side has ("haves"); the commits
+ * passed on the way, and the blobs and chunks they use that the receiver
+ * lacks, are the "wants". These are sent as one Pack, streamed through a
+ * pipe from a writer thread, so the work done is proportional to the new
+ * history and not to the size of either repository.
+ * @author Pauline Tang */
+class Remote {
+
+    /** Source .gitlet directory. */
+    private final File _from;
+
+    /** Destination .gitlet directory. */
+    private final File _to;
+
+    /** Commits the destination lacks, newest first. */
+    private final List<String> _commits = new ArrayList<String>();
+
+    /** Blobs the destination lacks. */
+    private final Set<String> _blobs = new LinkedHashSet<String>();
+
+    /** Chunks the destination lacks. */
+    private final Set<String> _chunks = new LinkedHashSet<String>();
+
+    /** A transfer from the repository in FROM to the one in TO, each a
+     * .gitlet directory.
+     * @param from source.
+     * @param to destination. */
+    Remote(File from, File to) {
+        _from = from;
+        _to = to;
+    }
+
+    /** Runs "add-remote NAME PATH".
+     * @param args operands following "add-remote". */
+    static void addRemote(String... args) {
+        checkOperands(args, 2);
+        if (Config.get(key(args[0]), null) != null) {
+            throw Utils.error("A remote with that name already exists.");
+        }
+        Config.set(key(args[0]), args[1].replace('/', File.separatorChar));
+    }
+
+    /** Runs "rm-remote NAME".
+     * @param args operands following "rm-remote". */
+    static void rmRemote(String... args) {
+        checkOperands(args, 1);
+        if (Config.get(key(args[0]), null) == null) {
+            throw Utils.error("A remote with that name does not exist.");
+        }
+        Config.set(key(args[0]), null);
+    }
+
+    /** Runs "fetch REMOTE BRANCH": copies the commits and files of BRANCH
+     * of REMOTE that this repository lacks, and points the branch
+     * REMOTE/BRANCH at its head.
+     * @param args operands following "fetch". */
+    static void fetch(String... args) {
+        checkOperands(args, 2);
+        File remote = remoteDir(args[0]);
+        File branchfile = Utils.join(remote, "branches", args[1]);
+        if (!branchfile.isFile()) {
+            throw Utils.error("That remote does not have that branch.");
+        }
+        String head = Utils.readObject(branchfile, Branch.class)
+            .getHeadCommit();
+        Remote transfer = new Remote(remote, Main.getGitletDir());
+        transfer.negotiate(head);
+        transfer.send();
+        transfer.update(args[0] + "/" + args[1], head);
+    }
+
+    /** Runs "push REMOTE BRANCH": copies the commits and files of the
+     * current head that REMOTE lacks, and points its BRANCH at the head.
+     * The remote branch must be an ancestor of the head, and may not be
+     * the branch checked out in REMOTE, whose working files and stage
+     * would no longer match it.
+     * @param args operands following "push". */
+    static void push(String... args) {
+        checkOperands(args, 2);
+        File remote = remoteDir(args[0]);
+        File remotetree = Utils.join(remote, "tree");
+        if (remotetree.isFile()
+                && Utils.readObject(remotetree, Tree.class).getHeadBranch()
+                    .equals(args[1])) {
+            throw Utils.error("Cannot push to the branch checked out in "
+                              + "the remote.");
+        }
+        String head = Main.getTree().getHeadCommit().getIdentifier();
+        File branchfile = Utils.join(remote, "branches", args[1]);
+        if (branchfile.isFile()) {
+            String remotehead = Utils.readObject(branchfile, Branch.class)
+                .getHeadCommit();
+            Reachability r = Reachability.load();
+            boolean behind =
+                !Alternates.find(Main.getCommitsFolder(), remotehead).exists()
+                || !r.isAncestor(remotehead, head);
+            r.save();
+            if (behind) {
+                throw Utils.error("Please pull down remote changes "
+                                  + "before pushing.");
+            }
+        }
+        Remote transfer = new Remote(Main.getGitletDir(), remote);
+        transfer.negotiate(head);
+        File local = Main.getCWD();
+        Main.setCWD(remote.getAbsoluteFile().getParentFile());
+        try {
+            transfer.send();
+            transfer.update(args[1], head);
+        } finally {
+            Main.setCWD(local);
+        }
+    }
+
+    /** Work out which objects reachable from commit HEAD the destination
+     * lacks.
+     * @param head full commit hash in the source. */
+    void negotiate(String head) {
+        File tocommits = Utils.join(_to, "commits");
+        File toblobs = Utils.join(_to, "blobs");
+        File tochunks = Utils.join(_to, "chunks");
+        for (String id = head; id != null
+                 && !Alternates.find(tocommits, id).exists();) {
+            _commits.add(id);
+            Commit c = Utils.readObject(
+                Alternates.find(Utils.join(_from, "commits"), id),
+                Commit.class);
+            for (String blob : c.getFilesTracked().values()) {
+                if (!_blobs.contains(blob)
+                        && !Alternates.find(toblobs, blob).exists()) {
+                    _blobs.add(blob);
+                    File f =
+                        Alternates.find(Utils.join(_from, "blobs"), blob);
+                    for (String chunk : Blob.chunks(f)) {
+                        if (!Alternates.find(tochunks, chunk).exists()) {
+                            _chunks.add(chunk);
+                        }
+                    }
+                }
+            }
+            id = c.getParentHash();
+        }
+    }
+
+    /** Send the wanted objects as a pack, written by another thread and
+     * read by this one. */
+    void send() {
+        Pack out = new Pack();
+        Pack in = new Pack();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try (PipedInputStream pipein = new PipedInputStream(1 << 16)) {
+            PipedOutputStream pipeout = new PipedOutputStream(pipein);
+            Future<?> task = writer.submit(() -> {
+                out.write(pipeout, _from, _commits, _blobs, _chunks);
+                return null;
+            });
+            in.read(pipein, _to);
+            task.get();
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            throw Utils.error("Transfer failed: %s", e.getMessage());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    /** In the destination, now the current repository, record the
+     * received commits and point BRANCHNAME, which is not checked out
+     * there, at HEAD.
+     * @param branchname name of branch.
+     * @param head full commit hash. */
+    void update(String branchname, String head) {
+        update(_commits, branchname, head);
+    }
+
+    /** In the current repository, record COMMITS, newest first, which
+     * have just been received, and point BRANCHNAME at HEAD, as in
+     * update(BRANCHNAME, HEAD). Commits are read one at a time and not
+     * kept, so long histories take no more memory than short ones.
+     * @param commits received commit ids.
+     * @param branchname name of branch.
+     * @param head full commit hash. */
+    static void update(List<String> commits, String branchname,
+                       String head) {
+        Tree t = Main.getTree();
+        Reachability r = Reachability.load();
+        for (int i = commits.size() - 1; i >= 0; i -= 1) {
+            Commit c = Utils.readObject(
+                Alternates.find(Main.getCommitsFolder(), commits.get(i)),
+                Commit.class);
+            t.getCommitTreeMap().put(c.getIdentifier(), c.getBranch());
+            r.getGraph().add(c);
+        }
+        Branch br;
+        if (Utils.join(Main.getBranchesFolder(), branchname).isFile()) {
+            br = Branch.getBranch(branchname);
+            br.changeHead(head);
+        } else {
+            br = new Branch(branchname, head);
+        }
+        br.saveBranch();
+        t.addBranch(branchname, head);
+        t.saveTree();
+        r.updateBranch(branchname, head);
+        r.save();
+    }
+
+    /** Return the config key of remote NAME.
+     * @param name remote name. */
+    private static String key(String name) {
+        return "remote." + name + ".path";
+    }
+
+    /** Return the .gitlet directory of remote NAME, failing with a
+     * message if it is unknown or missing.
+     * @param name remote name. */
+    private static File remoteDir(String name) {
+        String path = Config.get(key(name), null);
+        if (path == null) {
+            throw Utils.error("A remote with that name does not exist.");
+        }
+        File dir = new File(path);
+        if (!dir.isAbsolute()) {
+            dir = new File(Main.getCWD(), path);
+        }
+        if (!Utils.join(dir, "commits").isDirectory()) {
+            throw Utils.error("Remote directory not found.");
+        }
+        return dir;
+    }
+
+    /** Fail with a message unless ARGS has N operands.
+     * @param args operands.
+     * @param n number expected. */
+    private static void checkOperands(String[] args, int n) {
+        if (args.length != n) {
+            throw Utils.error("Incorrect operands.");
+        }
+    }
+
+}
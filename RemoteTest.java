@@ -0,0 +1,150 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of fetch and push.
+ *  @author Pauline Tang
+ */
+public class RemoteTest {
+
+    /** Working directory of the remote repository of the current test. */
+    private File _remote;
+
+    /** Make a repository holding a.txt and b.txt on master as _remote,
+     * then select a new, empty repository knowing it as the remote "up". */
+    private void setUp() {
+        _remote = UnitTest.newRepo();
+        UnitTest.commitFile("a.txt", "a\n");
+        UnitTest.commitFile("b.txt", "b\n");
+        UnitTest.newRepo();
+        Main.run("add-remote", "up",
+                 Utils.join(_remote, ".gitlet").getPath());
+    }
+
+    /** Return the number of files in FOLDER.
+     * @param folder object folder. */
+    private static int count(File folder) {
+        return Utils.plainFilenamesIn(folder).size();
+    }
+
+    /** Select the remote, run ACTION there, and select this repository
+     * again.
+     * @param action what to do in the remote. */
+    private void inRemote(Runnable action) {
+        File local = Main.getCWD();
+        Main.setCWD(_remote);
+        try {
+            action.run();
+        } finally {
+            Main.setCWD(local);
+        }
+    }
+
+    /** Return the head commit of BRANCH in the remote.
+     * @param branch branch name. */
+    private String remoteHead(String branch) {
+        String[] head = new String[1];
+        inRemote(() -> head[0] = Branch.getBranch(branch).getHeadCommit());
+        return head[0];
+    }
+
+    @Test
+    public void fetchCopiesOnlyNewObjects() {
+        setUp();
+        Main.run("fetch", "up", "master");
+        String head = remoteHead("master");
+        assertEquals(head, Branch.getBranch("up/master").getHeadCommit());
+        String blob = Commit.getCommit(head).getFilesTracked().get("b.txt");
+        assertEquals("b\n", Blob.getBlob(blob).getContents());
+        assertEquals(3, count(Main.getCommitsFolder()));
+        assertEquals(2, count(Main.getBlobsFolder()));
+        inRemote(() -> UnitTest.commitFile("c.txt", "c\n"));
+        Main.run("fetch", "up", "master");
+        assertEquals(remoteHead("master"),
+                     Branch.getBranch("up/master").getHeadCommit());
+        assertEquals(4, count(Main.getCommitsFolder()));
+        assertEquals(3, count(Main.getBlobsFolder()));
+        assertTrue(UnitTest.output("fsck").startsWith("Checked "));
+    }
+
+    @Test
+    public void pushFastForward() {
+        setUp();
+        Main.run("fetch", "up", "master");
+        Main.run("reset", Branch.getBranch("up/master").getHeadCommit());
+        String blob = UnitTest.commitFile("c.txt", "c\n");
+        String head = Main.getTree().getHeadCommit().getIdentifier();
+        Main.run("push", "up", "feature");
+        assertEquals(head, remoteHead("feature"));
+        UnitTest.commitFile("d.txt", "d\n");
+        String next = Main.getTree().getHeadCommit().getIdentifier();
+        Main.run("push", "up", "feature");
+        assertEquals(next, remoteHead("feature"));
+        inRemote(() -> {
+            assertEquals("c\n", Blob.getBlob(blob).getContents());
+            assertTrue(ObjectIndex.contains(ObjectIndex.COMMIT, next));
+            assertTrue(UnitTest.output("fsck").startsWith("Checked "));
+        });
+    }
+
+    @Test
+    public void pushRefusesNonFastForward() {
+        setUp();
+        Main.run("fetch", "up", "master");
+        Main.run("reset", Branch.getBranch("up/master").getHeadCommit());
+        UnitTest.commitFile("c.txt", "c\n");
+        Main.run("push", "up", "feature");
+        inRemote(() -> {
+            Main.run("checkout", "feature");
+            UnitTest.commitFile("e.txt", "e\n");
+            Main.run("checkout", "master");
+        });
+        String theirs = remoteHead("feature");
+        UnitTest.commitFile("d.txt", "d\n");
+        try {
+            Main.run("push", "up", "feature");
+            fail("pushed over remote changes");
+        } catch (GitletException e) {
+            assertEquals("Please pull down remote changes before pushing.",
+                         e.getMessage());
+        }
+        assertEquals(theirs, remoteHead("feature"));
+    }
+
+    @Test
+    public void pushRefusesCheckedOutBranch() {
+        setUp();
+        String head = remoteHead("master");
+        try {
+            Main.run("push", "up", "master");
+            fail("pushed to the checked-out branch");
+        } catch (GitletException e) {
+            assertEquals("Cannot push to the branch checked out in "
+                         + "the remote.", e.getMessage());
+        }
+        assertEquals(head, remoteHead("master"));
+    }
+
+    @Test
+    public void unknownRemoteOrBranch() {
+        setUp();
+        try {
+            Main.run("fetch", "down", "master");
+            fail("fetched from an unknown remote");
+        } catch (GitletException e) {
+            assertEquals("A remote with that name does not exist.",
+                         e.getMessage());
+        }
+        try {
+            Main.run("fetch", "up", "nowhere");
+            fail("fetched an unknown branch");
+        } catch (GitletException e) {
+            assertEquals("That remote does not have that branch.",
+                         e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Sparse checkout. When .gitlet/sparse-checkout lists glob patterns, one
+ * per line, only tracked files matching one of them are materialized by
+ * checkout and reset or examined by status; the rest are left out of the
+ * working directory without being reported as deleted. A pattern ending
+ * in "/" matches everything below that directory.
+ * @author Pauline Tang */
+class Sparse {
+
+    /** Patterns of the current repository, once read. */
+    private static List<String> _patterns;
+
+    /** Compiled patterns, or null if sparse checkout is off. */
+    private static List<PathMatcher> _matchers;
+
+    /** True once the patterns have been read. */
+    private static boolean _loaded;
+
+    /** Return true iff sparse checkout is on. */
+    static boolean enabled() {
+        load();
+        return _matchers != null;
+    }
+
+    /** Return true iff FILENAME is in the sparse checkout, which is
+     * always the case when sparse checkout is off.
+     * @param filename path relative to the working directory. */
+    static boolean includes(String filename) {
+        load();
+        if (_matchers == null) {
+            return true;
+        }
+        for (PathMatcher m : _matchers) {
+            if (m.matches(Paths.get(filename))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Return the entries of FILES, a map from file names, that are in
+     * the sparse checkout. Returns FILES itself when sparse checkout is
+     * off.
+     * @param files map keyed by file name. */
+    static <V> Map<String, V> filter(Map<String, V> files) {
+        if (!enabled()) {
+            return files;
+        }
+        Map<String, V> result = new HashMap<String, V>();
+        for (Map.Entry<String, V> e : files.entrySet()) {
+            if (includes(e.getKey())) {
+                result.put(e.getKey(), e.getValue());
+            }
+        }
+        return result;
+    }
+
+    /** Forget the patterns read so far, as when switching repositories. */
+    static void clear() {
+        _loaded = false;
+        _patterns = null;
+        _matchers = null;
+    }
+
+    /** The sparse-checkout command. "sparse-checkout set PATTERN..."
+     * replaces the patterns, "add PATTERN..." adds to them, "list" prints
+     * them, and "disable" turns sparse checkout off. After a change, files
+     * of the head commit entering the checkout are written, and unmodified
+     * ones leaving it are removed.
+     * @param args operands following "sparse-checkout". */
+    static void sparseCheckout(String... args) {
+        if (args.length == 0) {
+            throw Utils.error("Incorrect operands.");
+        }
+        load();
+        List<String> operands = Arrays.asList(args).subList(1, args.length);
+        switch (args[0]) {
+        case "list":
+            if (_patterns != null) {
+                for (String p : _patterns) {
+                    System.out.println(p);
+                }
+            }
+            return;
+        case "set":
+            save(new ArrayList<String>(operands));
+            break;
+        case "add":
+            List<String> patterns = new ArrayList<String>();
+            if (_patterns != null) {
+                patterns.addAll(_patterns);
+            }
+            patterns.addAll(operands);
+            save(patterns);
+            break;
+        case "disable":
+            Main.getSparseFile().delete();
+            clear();
+            break;
+        default:
+            throw Utils.error("Incorrect operands.");
+        }
+        reapply();
+    }
+
+    /** Bring the working directory in line with the patterns. */
+    private static void reapply() {
+        Tree t = Main.getTree();
+        String head = Branch.getBranch(t.getHeadBranch()).getHeadCommit();
+        Map<String, String> tracked = Commit.getCommit(head).getFilesTracked();
+        for (Map.Entry<String, String> e : tracked.entrySet()) {
+            File f = Utils.join(Main.getCWD(), e.getKey());
+            if (includes(e.getKey())) {
+                if (!f.exists()) {
+                    Materializer.materialize(e.getValue(), f);
+                }
+            } else if (f.exists()
+                       && Hasher.blobId(e.getKey(), f).equals(e.getValue())) {
+                Utils.restrictedDelete(f);
+            }
+        }
+    }
+
+    /** Store PATTERNS as the sparse-checkout patterns.
+     * @param patterns glob patterns. */
+    private static void save(List<String> patterns) {
+        Utils.writeContents(Main.getSparseFile(),
+                            String.join("\n", patterns) + "\n");
+        clear();
+    }
+
+    /** Read and compile the patterns, if not done already. */
+    private static void load() {
+        if (_loaded) {
+            return;
+        }
+        _loaded = true;
+        File f = Main.getSparseFile();
+        if (!f.exists()) {
+            return;
+        }
+        _patterns = new ArrayList<String>();
+        _matchers = new ArrayList<PathMatcher>();
+        for (String line : Utils.readContentsAsString(f).split("\n")) {
+            String p = line.trim();
+            if (p.isEmpty() || p.startsWith("#")) {
+                continue;
+            }
+            _patterns.add(p);
+            String glob = p.endsWith("/") ? p + "**" : p;
+            _matchers.add(FileSystems.getDefault()
+                          .getPathMatcher("glob:" + glob));
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of sparse checkout.
+ *  @author Pauline Tang
+ */
+public class SparseTest {
+
+    /** Make a new repository with a.txt, c.md and docs/b.txt committed. */
+    private static void threeFiles() {
+        UnitTest.newRepo();
+        Utils.join(Main.getCWD(), "docs").mkdir();
+        UnitTest.write("a.txt", "a\n");
+        UnitTest.write("c.md", "c\n");
+        UnitTest.write("docs/b.txt", "b\n");
+        Main.add(".");
+        Main.commit("three files");
+    }
+
+    /** Return true iff working file NAME exists.
+     * @param name file name. */
+    private static boolean exists(String name) {
+        return Utils.join(Main.getCWD(), name).exists();
+    }
+
+    @Test
+    public void setAddDisable() {
+        threeFiles();
+        Main.run("sparse-checkout", "set", "*.txt");
+        assertTrue(exists("a.txt"));
+        assertFalse(exists("c.md"));
+        assertFalse(exists("docs/b.txt"));
+        assertEquals("*.txt\n", UnitTest.output("sparse-checkout", "list"));
+        String status = UnitTest.output("status");
+        assertFalse(status, status.contains("c.md"));
+        assertFalse(status, status.contains("b.txt"));
+        Main.run("sparse-checkout", "add", "docs/");
+        assertEquals("b\n", UnitTest.read("docs/b.txt"));
+        assertFalse(exists("c.md"));
+        Main.run("sparse-checkout", "disable");
+        assertEquals("c\n", UnitTest.read("c.md"));
+        assertEquals("", UnitTest.output("sparse-checkout", "list"));
+    }
+
+    @Test
+    public void keepsModifiedFiles() {
+        threeFiles();
+        UnitTest.write("c.md", "changed\n");
+        Main.run("sparse-checkout", "set", "*.txt");
+        assertEquals("changed\n", UnitTest.read("c.md"));
+    }
+
+    @Test
+    public void commitKeepsFilesOutside() {
+        threeFiles();
+        Main.run("sparse-checkout", "set", "a.txt");
+        UnitTest.commitFile("a.txt", "a2\n");
+        Commit c = Main.getTree().getHeadCommit();
+        assertEquals(3, c.getFilesTracked().size());
+        Main.add(".");
+        assertTrue(Main.getStage().getRemoval().isEmpty());
+    }
+
+    @Test
+    public void checkoutWritesOnlyIncluded() {
+        threeFiles();
+        Main.run("branch", "other");
+        Main.run("checkout", "other");
+        UnitTest.commitFile("c.md", "c2\n");
+        Main.run("checkout", "master");
+        Main.run("sparse-checkout", "set", "docs/");
+        Main.run("checkout", "other");
+        assertFalse(exists("c.md"));
+        assertFalse(exists("a.txt"));
+        assertEquals("b\n", UnitTest.read("docs/b.txt"));
+    }
+
+}
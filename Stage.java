@@ -1,15 +1,17 @@
 package gitlet;
 
-import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.TreeMap;
 
 /** Stage class.
  * @author Pauline Tang */
 public class Stage implements Serializable {
 
+    /** Matches Stage objects serialized by older versions. */
+    private static final long serialVersionUID = 1330587495983698089L;
+
     /** Staged for addition. */
     private HashMap<String, String> _addition;
 
@@ -59,7 +61,7 @@ public class Stage implements Serializable {
 
     /** Serialize the stage. */
     public void saveStage() {
-        Utils.writeObject(Main.getStageFile(), this);
+        Batch.writeObject(Main.getStageFile(), this);
     }
 
     /** Getter method for the Hashmap addition (Staged for addition).
@@ -86,36 +88,25 @@ public class Stage implements Serializable {
         String headc = br.getHeadCommit();
         Commit c = Commit.getCommit(headc);
 
-        List<String> filesinCWD = Utils.plainFilenamesIn(Main.getCWD());
         HashMap<String, String> filesinC = c.getFilesTracked();
+        TreeMap<String, String> filesinCWD =
+            StatCache.scan("untracked", filesinC.keySet());
 
-        for (String name : filesinCWD) {
+        for (String name : filesinCWD.keySet()) {
             if (!_addition.containsKey(name) || !_removal.contains(name)) {
                 if (!filesinC.containsKey(name)) {
                     _untrackedfiles.add(name);
                 }
             } else if (_addition.containsKey(name)) {
-                File cwdfile = Utils.join(Main.getCWD(), name);
-                String cwdcontents = Utils.readContentsAsString(cwdfile);
-
                 String bhash = _addition.get(name);
-                File f = Utils.join(Main.getBlobsFolder(), bhash);
-                Blob b = Utils.readObject(f, Blob.class);
-                String contents = b.getContents();
 
-                if (!cwdcontents.equals(contents)) {
+                if (!filesinCWD.get(name).equals(bhash)) {
                     _untrackedfiles.add(name);
                 }
             } else if (filesinC.containsKey(name)) {
-                File cwdfile = Utils.join(Main.getCWD(), name);
-                String cwdcontents = Utils.readContentsAsString(cwdfile);
-
                 String bhash = filesinC.get(name);
-                File f = Utils.join(Main.getBlobsFolder(), bhash);
-                Blob b = Utils.readObject(f, Blob.class);
-                String contents = b.getContents();
 
-                if (!cwdcontents.equals(contents)) {
+                if (!filesinCWD.get(name).equals(bhash)) {
                     _untrackedfiles.add(name);
                 }
             }
@@ -0,0 +1,329 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/** The blob id of every working file, with the size and modification
+ * time it had when hashed, kept in .gitlet/stat-cache. A file whose size
+ * and time are unchanged is not read again. With a live Watcher the files
+ * are not even looked at: only the paths it reports changed since the
+ * last scan are. A file modified too recently for its time to tell a
+ * later change apart is hashed again next time.
+ *
+ * The cache is the magic "GLS1", the watcher session ("" if none) and
+ * sequence number, the number of entries, and for each the file name
+ * (writeUTF), size, modification time and 40-character id. It is kept in
+ * memory between scans of one process while the file is unchanged.
+ * @author Pauline Tang */
+class StatCache {
+
+    /** First bytes of a stored cache. */
+    private static final byte[] MAGIC = {'G', 'L', 'S', '1'};
+
+    /** Length of a blob id. */
+    private static final int ID_LENGTH = 40;
+
+    /** Files modified this recently (ms) are hashed again next time. */
+    private static final long RACY = 2000;
+
+    /** One working file. */
+    private static class Entry {
+
+        /** Size in bytes, or -1 if the entry must be checked again. */
+        private long _size;
+
+        /** Modification time in ms. */
+        private long _mtime;
+
+        /** Blob id of the contents. */
+        private String _id;
+
+    }
+
+    /** Entry of each working file. */
+    private HashMap<String, Entry> _entries = new HashMap<String, Entry>();
+
+    /** Session of the watcher these entries are up to date with, or null
+     * if none. */
+    private String _session;
+
+    /** Watcher sequence number these entries are up to date with. */
+    private long _seq;
+
+    /** Cache of the current repository last read or written, or null. */
+    private static StatCache _current;
+
+    /** Modification time and length of the file when _current was read
+     * or written. */
+    private static long[] _stamp;
+
+    /** Return the blob id of every working file that is not ignored,
+     * and of those in TRACKED even if they are, by name, in order.
+     * @param purpose what the scan is for, for tracing.
+     * @param tracked names of tracked files. */
+    static TreeMap<String, String> scan(String purpose,
+                                        Collection<String> tracked) {
+        WorkingTreeScanEvent event = new WorkingTreeScanEvent();
+        event.begin();
+        StatCache cache = load();
+        Ignore ignore = Ignore.get();
+        Set<String> extra = new HashSet<String>();
+        for (String name : tracked) {
+            if (ignore.ignored(name, false)) {
+                extra.add(name);
+            }
+        }
+        Watcher w = Watcher.sync();
+        List<String> stale = new ArrayList<String>();
+        boolean changed;
+        List<String> paths = w == null ? null : w.changedSince(cache._seq);
+        if (w != null && w.session().equals(cache._session)
+                && w.overflow() <= cache._seq
+                && !paths.contains(Ignore.FILENAME)) {
+            changed = false;
+            paths.addAll(extra);
+            for (String path : paths) {
+                changed |= cache.refresh(path, stale, ignore, extra);
+            }
+            changed |= w.seq() != cache._seq;
+        } else {
+            changed = cache.rescan(stale, extra);
+            changed |= w != null || cache._session != null;
+        }
+        cache.hash(stale, event);
+        if (w != null) {
+            cache._session = w.session();
+            cache._seq = w.seq();
+        } else {
+            cache._session = null;
+            cache._seq = 0;
+        }
+        if (changed) {
+            cache.save();
+        }
+        if (w != null) {
+            w.ack();
+        }
+
+        TreeMap<String, String> ids = new TreeMap<String, String>();
+        for (Map.Entry<String, Entry> e : cache._entries.entrySet()) {
+            ids.put(e.getKey(), e.getValue()._id);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.purpose = purpose;
+            event.files = ids.size();
+            event.commit();
+        }
+        return ids;
+    }
+
+    /** Forget the cache held in memory, as when switching repositories. */
+    static void clear() {
+        _current = null;
+        _stamp = null;
+    }
+
+    /** Return the stored cache, or an empty one. */
+    private static StatCache load() {
+        File f = Main.getStatCacheFile();
+        if (_current != null && Arrays.equals(_stamp, stamp(f))) {
+            return _current;
+        }
+        StatCache cache = new StatCache();
+        if (f.exists()) {
+            try (DataInputStream in = new DataInputStream(
+                     new BufferedInputStream(Files.newInputStream(f.toPath()),
+                                             1 << 16))) {
+                cache.read(in);
+            } catch (IOException e) {
+                cache = new StatCache();
+            }
+        }
+        _current = cache;
+        _stamp = stamp(f);
+        return cache;
+    }
+
+    /** Read the entries from IN.
+     * @param in stored cache. */
+    private void read(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("not a stat cache");
+        }
+        _session = in.readUTF();
+        if (_session.isEmpty()) {
+            _session = null;
+        }
+        _seq = in.readLong();
+        byte[] id = new byte[ID_LENGTH];
+        for (int n = in.readInt(); n > 0; n -= 1) {
+            String name = in.readUTF();
+            Entry e = new Entry();
+            e._size = in.readLong();
+            e._mtime = in.readLong();
+            in.readFully(id);
+            e._id = new String(id, StandardCharsets.ISO_8859_1);
+            _entries.put(name, e);
+        }
+    }
+
+    /** Store this cache, replacing the old one in one step. */
+    private void save() {
+        File f = Main.getStatCacheFile();
+        File tmp = Utils.join(Main.getGitletDir(), "stat-cache.tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(
+                         Files.newOutputStream(tmp.toPath()), 1 << 16))) {
+                out.write(MAGIC);
+                out.writeUTF(_session == null ? "" : _session);
+                out.writeLong(_seq);
+                out.writeInt(_entries.size());
+                for (Map.Entry<String, Entry> e : _entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeLong(e.getValue()._size);
+                    out.writeLong(e.getValue()._mtime);
+                    out.writeBytes(e.getValue()._id);
+                }
+            }
+            Files.move(tmp.toPath(), f.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Utils.error("Cannot save stat cache: %s", e.getMessage());
+        }
+        _current = this;
+        _stamp = stamp(f);
+    }
+
+    /** Return the modification time and length of F.
+     * @param f file. */
+    private static long[] stamp(File f) {
+        return new long[] {f.lastModified(), f.length()};
+    }
+
+    /** Bring every entry up to date by looking at each working file that
+     * is not ignored, and at those in EXTRA, adding those to be hashed to
+     * STALE, and return true iff any changed.
+     * @param stale names of files to hash.
+     * @param extra names of ignored files to include. */
+    private boolean rescan(List<String> stale, Set<String> extra) {
+        Map<String, BasicFileAttributes> files = Walker.files(Main.getCWD());
+        for (String name : extra) {
+            BasicFileAttributes attrs = attributes(name);
+            if (attrs != null && attrs.isRegularFile()) {
+                files.put(name, attrs);
+            }
+        }
+        boolean changed = files.size() != _entries.size();
+        HashMap<String, Entry> old = _entries;
+        _entries = new HashMap<String, Entry>();
+        for (Map.Entry<String, BasicFileAttributes> f : files.entrySet()) {
+            Entry e = old.get(f.getKey());
+            if (e != null) {
+                _entries.put(f.getKey(), e);
+            }
+            changed |= update(f.getKey(), f.getValue(), stale);
+        }
+        return changed;
+    }
+
+    /** Bring the entries of PATH, a file or directory reported changed,
+     * up to date, adding files to be hashed to STALE, and return true iff
+     * any changed. A directory's own files are reported separately. Files
+     * IGNORE matches are left out unless they are in EXTRA.
+     * @param path path of a changed file or directory.
+     * @param stale names of files to hash.
+     * @param ignore ignore patterns.
+     * @param extra names of ignored files to include. */
+    private boolean refresh(String path, List<String> stale, Ignore ignore,
+                            Set<String> extra) {
+        BasicFileAttributes attrs = attributes(path);
+        if (attrs == null) {
+            String dir = path + "/";
+            return _entries.remove(path) != null
+                || _entries.keySet().removeIf(name -> name.startsWith(dir));
+        } else if (!attrs.isRegularFile()) {
+            return false;
+        } else if (ignore.ignored(path, false) && !extra.contains(path)) {
+            return _entries.remove(path) != null;
+        }
+        return update(path, attrs, stale);
+    }
+
+    /** Return the attributes of working file PATH, or null if it has
+     * gone.
+     * @param path path of a file. */
+    private static BasicFileAttributes attributes(String path) {
+        Trace.stat(1);
+        try {
+            return Files.readAttributes(
+                Utils.join(Main.getCWD(), path).toPath(),
+                BasicFileAttributes.class);
+        } catch (IOException excp) {
+            return null;
+        }
+    }
+
+    /** Bring the entry of working file NAME, whose attributes are ATTRS,
+     * up to date, adding NAME to STALE if it must be hashed, and return
+     * true iff the entry changed.
+     * @param name file name.
+     * @param attrs its attributes.
+     * @param stale names of files to hash. */
+    private boolean update(String name, BasicFileAttributes attrs,
+                           List<String> stale) {
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        Entry e = _entries.get(name);
+        if (e != null && e._size == size && e._mtime == mtime) {
+            return false;
+        }
+        if (e == null) {
+            e = new Entry();
+            _entries.put(name, e);
+        }
+        e._size = mtime > System.currentTimeMillis() - RACY ? -1 : size;
+        e._mtime = mtime;
+        stale.add(name);
+        return true;
+    }
+
+    /** Compute the blob ids of the working files named in STALE, in
+     * parallel, recording the reads in EVENT.
+     * @param stale names of files to hash.
+     * @param event scan being traced. */
+    private void hash(List<String> stale, WorkingTreeScanEvent event) {
+        stale.parallelStream().forEach(name -> {
+            _entries.get(name)._id =
+                Hasher.blobId(name, Utils.join(Main.getCWD(), name));
+        });
+        event.filesRead = stale.size();
+        if (event.isEnabled()) {
+            for (String name : stale) {
+                event.bytesRead += Utils.join(Main.getCWD(), name).length();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Tests of the stat cache and of the watcher that feeds it.
+ *  @author Pauline Tang
+ */
+public class StatCacheTest {
+
+    /** Return the blob ids of the working files, as status sees them. */
+    private static TreeMap<String, String> scan() {
+        return StatCache.scan("test", Collections.<String>emptySet());
+    }
+
+    /** Return the blob id of working file NAME, read afresh.
+     * @param name file name. */
+    private static String id(String name) {
+        return Hasher.blobId(name, Utils.join(Main.getCWD(), name));
+    }
+
+    /** Write CONTENTS to working file NAME and set its modification time
+     * to AGO ms before now, outside the racy window.
+     * @param name file name.
+     * @param contents new contents.
+     * @param ago age in ms. */
+    private static void writeOld(String name, String contents, long ago) {
+        UnitTest.write(name, contents);
+        File f = Utils.join(Main.getCWD(), name);
+        assertTrue(f.setLastModified(System.currentTimeMillis() - ago));
+    }
+
+    @Test
+    public void idsMatchContents() {
+        File dir = UnitTest.newRepo();
+        UnitTest.write("a.txt", "hello\n");
+        Utils.join(dir, "sub").mkdir();
+        UnitTest.write("sub/b.txt", "world\n");
+        TreeMap<String, String> ids = scan();
+        assertEquals(2, ids.size());
+        assertEquals(new Blob("a.txt", "hello\n").getIdentifier(),
+                     ids.get("a.txt"));
+        assertEquals(id("sub/b.txt"), ids.get("sub/b.txt"));
+        assertTrue(Main.getStatCacheFile().isFile());
+        StatCache.clear();
+        assertEquals(ids, scan());
+    }
+
+    @Test
+    public void noticesSameSizeEdits() {
+        UnitTest.newRepo();
+        writeOld("a.txt", "one\n", 10000);
+        writeOld("b.txt", "two\n", 10000);
+        assertEquals(id("a.txt"), scan().get("a.txt"));
+        writeOld("a.txt", "uno\n", 5000);
+        assertEquals(id("a.txt"), scan().get("a.txt"));
+        UnitTest.write("b.txt", "dos\n");
+        File b = Utils.join(Main.getCWD(), "b.txt");
+        long mtime = b.lastModified();
+        assertEquals(id("b.txt"), scan().get("b.txt"));
+        UnitTest.write("b.txt", "tre\n");
+        assertTrue(b.setLastModified(mtime));
+        assertEquals(id("b.txt"), scan().get("b.txt"));
+    }
+
+    @Test
+    public void forgetsRemovedFiles() {
+        UnitTest.newRepo();
+        UnitTest.write("a.txt", "hello\n");
+        UnitTest.write("b.txt", "world\n");
+        assertEquals(2, scan().size());
+        Utils.join(Main.getCWD(), "b.txt").delete();
+        assertEquals(Collections.singleton("a.txt"), scan().keySet());
+    }
+
+    @Test
+    public void corruptCacheIgnored() {
+        UnitTest.newRepo();
+        UnitTest.write("a.txt", "hello\n");
+        String id = scan().get("a.txt");
+        Utils.writeContents(Main.getStatCacheFile(), "GLS1junk");
+        StatCache.clear();
+        assertEquals(id, scan().get("a.txt"));
+        String out = UnitTest.output("status");
+        assertTrue(out,
+                   out.contains("=== Untracked Files ===\na.txt\n"));
+    }
+
+    /** Start "watch" in its own JVM in the current repository, and return
+     * it once it has stored its state. */
+    private static Process startWatcher()
+        throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder(
+            Utils.join(new File(System.getProperty("java.home")),
+                       "bin", "java").getPath(),
+            "-cp", System.getProperty("java.class.path"), "gitlet.Main",
+            "watch");
+        pb.directory(Main.getCWD());
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process p = pb.start();
+        for (int i = 0; i < 500 && !Main.getWatchFile().exists(); i += 1) {
+            Thread.sleep(20);
+        }
+        assertTrue("watcher did not start", Main.getWatchFile().exists());
+        return p;
+    }
+
+    @Test
+    public void watcherReportsChanges()
+        throws IOException, InterruptedException {
+        File dir = UnitTest.newRepo();
+        writeOld("a.txt", "one\n", 10000);
+        writeOld("b.txt", "two\n", 10000);
+        Process p = startWatcher();
+        try {
+            assertNotNull(Watcher.sync());
+            Map<String, String> ids = scan();
+            assertEquals(id("a.txt"), ids.get("a.txt"));
+            writeOld("a.txt", "uno\n", 10000);
+            Utils.join(dir, "b.txt").delete();
+            Utils.join(dir, "sub").mkdir();
+            UnitTest.write("sub/c.txt", "three\n");
+            ids = scan();
+            assertEquals(2, ids.size());
+            assertEquals(id("a.txt"), ids.get("a.txt"));
+            assertEquals(id("sub/c.txt"), ids.get("sub/c.txt"));
+            StatCache.clear();
+            assertEquals(ids, scan());
+            try {
+                Main.run("watch");
+                fail("started a second watcher");
+            } catch (GitletException e) {
+                assertEquals("A watcher is already running.", e.getMessage());
+            }
+        } finally {
+            p.destroy();
+            p.waitFor();
+        }
+        UnitTest.write("sub/c.txt", "tres\n");
+        assertEquals(id("sub/c.txt"), scan().get("sub/c.txt"));
+    }
+
+}
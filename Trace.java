@@ -0,0 +1,236 @@
+package gitlet;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Per-command tracing. When enabled, with "--trace" before the command
+ * or by setting the environment variable GITLET_TRACE, a command records
+ * the wall time of each of its phases and counts the objects and bytes it
+ * reads and writes, the working-directory files it stats, and commit
+ * cache hits. When the command ends (including by an error) a summary
+ * is printed on the standard error, followed by the same figures as one
+ * JSON line, which is appended instead to the file named by
+ * GITLET_TRACE_FILE if that is set.
+ * @author Pauline Tang */
+class Trace {
+
+    /** True if the current command is being traced. */
+    private static volatile boolean _enabled;
+
+    /** Command being traced, with its operands. */
+    private static String[] _command;
+
+    /** Start of the command, in ns. */
+    private static long _start;
+
+    /** Start of the current phase, in ns. */
+    private static long _phasestart;
+
+    /** Name of the current phase. */
+    private static String _phase;
+
+    /** Milliseconds spent in each finished phase, in order. */
+    private static Map<String, Double> _phases;
+
+    /** Objects read through Utils.readObject. */
+    private static final AtomicLong OBJECTS_READ = new AtomicLong();
+
+    /** Objects written through Utils.writeObject. */
+    private static final AtomicLong OBJECTS_WRITTEN = new AtomicLong();
+
+    /** Bytes read from files. */
+    private static final AtomicLong BYTES_READ = new AtomicLong();
+
+    /** Bytes written to files. */
+    private static final AtomicLong BYTES_WRITTEN = new AtomicLong();
+
+    /** Files in the working directory stat'ed. */
+    private static final AtomicLong STATS = new AtomicLong();
+
+    /** Commit cache hits. */
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+
+    /** Commit cache misses. */
+    private static final AtomicLong CACHE_MISSES = new AtomicLong();
+
+    /** Return true iff tracing was requested through the environment. */
+    static boolean requestedByEnvironment() {
+        String env = System.getenv("GITLET_TRACE");
+        return env != null && !env.isEmpty() && !env.equals("0");
+    }
+
+    /** Start tracing the command ARGS, reporting when the JVM exits.
+     * @param args command and operands. */
+    static void start(String... args) {
+        _command = args;
+        _phases = new LinkedHashMap<String, Double>();
+        _start = System.nanoTime();
+        _phasestart = _start;
+        _phase = "setup";
+        _enabled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(Trace::finish));
+    }
+
+    /** Return true iff the current command is being traced. */
+    static boolean enabled() {
+        return _enabled;
+    }
+
+    /** End the current phase and start one called NAME.
+     * @param name phase name. */
+    static void phase(String name) {
+        if (_enabled) {
+            endPhase();
+            _phase = name;
+        }
+    }
+
+    /** Record an object of SIZE bytes read.
+     * @param size bytes. */
+    static void objectRead(long size) {
+        if (_enabled) {
+            OBJECTS_READ.incrementAndGet();
+            BYTES_READ.addAndGet(size);
+        }
+    }
+
+    /** Record an object written. Its bytes are counted by bytesWritten. */
+    static void objectWritten() {
+        if (_enabled) {
+            OBJECTS_WRITTEN.incrementAndGet();
+        }
+    }
+
+    /** Record SIZE bytes of file contents read.
+     * @param size bytes. */
+    static void bytesRead(long size) {
+        if (_enabled) {
+            BYTES_READ.addAndGet(size);
+        }
+    }
+
+    /** Record SIZE bytes written to a file.
+     * @param size bytes. */
+    static void bytesWritten(long size) {
+        if (_enabled) {
+            BYTES_WRITTEN.addAndGet(size);
+        }
+    }
+
+    /** Record that N working-directory files were stat'ed.
+     * @param n number of files. */
+    static void stat(int n) {
+        if (_enabled) {
+            STATS.addAndGet(n);
+        }
+    }
+
+    /** Record a commit cache lookup, which hit iff HIT.
+     * @param hit whether the commit was cached. */
+    static void cacheLookup(boolean hit) {
+        if (_enabled) {
+            (hit ? CACHE_HITS : CACHE_MISSES).incrementAndGet();
+        }
+    }
+
+    /** Report the figures for the traced command. */
+    private static synchronized void finish() {
+        if (!_enabled) {
+            return;
+        }
+        endPhase();
+        _enabled = false;
+        double total = millis(System.nanoTime() - _start);
+
+        PrintStream err = System.err;
+        err.printf("trace: %s: %.3f ms%n", String.join(" ", _command), total);
+        for (Map.Entry<String, Double> p : _phases.entrySet()) {
+            err.printf("  %-24s %10.3f ms%n", p.getKey(), p.getValue());
+        }
+        err.printf("  objects read %d, written %d%n",
+                   OBJECTS_READ.get(), OBJECTS_WRITTEN.get());
+        err.printf("  bytes read %d, written %d%n",
+                   BYTES_READ.get(), BYTES_WRITTEN.get());
+        err.printf("  working files stat'ed %d%n", STATS.get());
+        err.printf("  commit cache hits %d, misses %d%n",
+                   CACHE_HITS.get(), CACHE_MISSES.get());
+
+        String json = toJson(total);
+        String file = System.getenv("GITLET_TRACE_FILE");
+        if (file == null || file.isEmpty()) {
+            err.println(json);
+        } else {
+            try (FileWriter w = new FileWriter(file, true)) {
+                w.write(json);
+                w.write(System.lineSeparator());
+            } catch (IOException e) {
+                err.println("trace: cannot write " + file + ": "
+                        + e.getMessage());
+            }
+        }
+        err.flush();
+    }
+
+    /** Return the figures for the traced command, which took TOTAL ms,
+     * as a single-line JSON object.
+     * @param total wall time. */
+    private static String toJson(double total) {
+        StringBuilder sb = new StringBuilder("{\"command\":");
+        sb.append(quote(_command.length == 0 ? "" : _command[0]));
+        sb.append(",\"args\":[");
+        for (int i = 1; i < _command.length; i += 1) {
+            sb.append(i > 1 ? "," : "").append(quote(_command[i]));
+        }
+        sb.append("],\"timestamp\":").append(System.currentTimeMillis());
+        sb.append(String.format(",\"wall_ms\":%.3f,\"phases\":{", total));
+        String sep = "";
+        for (Map.Entry<String, Double> p : _phases.entrySet()) {
+            sb.append(sep).append(quote(p.getKey()));
+            sb.append(String.format(":%.3f", p.getValue()));
+            sep = ",";
+        }
+        sb.append("},\"objects_read\":").append(OBJECTS_READ.get());
+        sb.append(",\"objects_written\":").append(OBJECTS_WRITTEN.get());
+        sb.append(",\"bytes_read\":").append(BYTES_READ.get());
+        sb.append(",\"bytes_written\":").append(BYTES_WRITTEN.get());
+        sb.append(",\"cwd_stats\":").append(STATS.get());
+        sb.append(",\"cache_hits\":").append(CACHE_HITS.get());
+        sb.append(",\"cache_misses\":").append(CACHE_MISSES.get());
+        return sb.append("}").toString();
+    }
+
+    /** Return S as a JSON string literal.
+     * @param s string. */
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** Record the time spent in the current phase. Phases entered more
+     * than once accumulate. */
+    private static void endPhase() {
+        long now = System.nanoTime();
+        _phases.merge(_phase, millis(now - _phasestart), Double::sum);
+        _phasestart = now;
+    }
+
+    /** Return NANOS nanoseconds in milliseconds.
+     * @param nanos duration. */
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+}
@@ -0,0 +1,75 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/** Tests of per-command tracing. Since a trace is reported as the JVM
+ * exits, each traced command is run in a JVM of its own.
+ *  @author Pauline Tang
+ */
+public class TraceTest {
+
+    /** Run the command ARGS in its own JVM in the current repository,
+     * tracing it into TRACEFILE if that is not null, and return what it
+     * printed on the standard error.
+     * @param tracefile file for JSON trace lines, or null.
+     * @param args command and operands. */
+    private static String run(File tracefile, String... args)
+        throws IOException, InterruptedException {
+        String[] command = new String[args.length + 4];
+        command[0] = Utils.join(new File(System.getProperty("java.home")),
+                                "bin", "java").getPath();
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = "gitlet.Main";
+        System.arraycopy(args, 0, command, 4, args.length);
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(Main.getCWD());
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        Map<String, String> env = pb.environment();
+        env.remove("GITLET_TRACE");
+        env.remove("GITLET_TRACE_FILE");
+        if (tracefile != null) {
+            env.put("GITLET_TRACE_FILE", tracefile.getPath());
+        }
+        Process p = pb.start();
+        byte[] err = p.getErrorStream().readAllBytes();
+        assertEquals(0, p.waitFor());
+        return new String(err, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void appendsJson() throws IOException, InterruptedException {
+        File dir = UnitTest.newRepo();
+        UnitTest.write("a.txt", "hello\n");
+        File tracefile = Utils.join(dir, "trace.json");
+        String err = run(tracefile, "--trace", "add", "a.txt");
+        assertTrue(err, err.startsWith("trace: add a.txt: "));
+        assertTrue(err, err.matches("(?s).*objects read \\d+, written 2\n.*"));
+        run(tracefile, "--trace", "commit", "say \"hi\"");
+        List<String> lines = Files.readAllLines(tracefile.toPath());
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0),
+                   lines.get(0).startsWith("{\"command\":\"add\","
+                                           + "\"args\":[\"a.txt\"],"));
+        assertTrue(lines.get(1),
+                   lines.get(1).startsWith("{\"command\":\"commit\","
+                                           + "\"args\":[\"say \\\"hi\\\"\"],"));
+        assertTrue(lines.get(1), lines.get(1).contains("\"snapshot\":"));
+        assertTrue(lines.get(1), lines.get(1).endsWith("}"));
+    }
+
+    @Test
+    public void offByDefault() throws IOException, InterruptedException {
+        UnitTest.newRepo();
+        assertEquals("", run(null, "status"));
+    }
+
+}
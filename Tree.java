@@ -8,6 +8,9 @@ import java.util.HashMap;
  * @author Pauline Tang*/
 public class Tree implements Serializable {
 
+    /** Matches Tree objects serialized by older versions. */
+    private static final long serialVersionUID = -1860063269063378877L;
+
     /** Keeps track of all commits made.*/
     private HashMap<String, String> commitTreeMap;
 
@@ -61,6 +64,12 @@ public class Tree implements Serializable {
         _headbranch = branchname;
     }
 
+    /** Change the head commit to C, as when a branch is checked out.
+     * @param c new head commit. */
+    public void changeHeadCommit(Commit c) {
+        _headcommit = c;
+    }
+
     /** Getter method for the current commit.
      * @return head commit. */
     public Commit getHeadCommit() {
@@ -76,7 +85,7 @@ public class Tree implements Serializable {
     /** Serialize the tree. */
     public void saveTree() {
         File f = Utils.join(Main.getTreeFile());
-        Utils.writeObject(f, this);
+        Batch.writeObject(f, this);
     }
 
 }
@@ -4,6 +4,14 @@ import ucb.junit.textui;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 /** The suite of all JUnit tests for the gitlet package.
  *  @author
  */
@@ -12,7 +20,21 @@ public class UnitTest {
     /** Run the JUnit tests in the loa package. Add xxxTest.class entries to
      *  the arguments of runClasses to run other JUnit tests. */
     public static void main(String[] ignored) {
-        System.exit(textui.runClasses(UnitTest.class));
+        System.exit(textui.runClasses(UnitTest.class, BundleTest.class,
+                                      IgnoreTest.class, FsckTest.class,
+                                      ObjectIndexTest.class, BatchTest.class,
+                                      LargeFilesTest.class,
+                                      MaterializerTest.class, CloneTest.class,
+                                      ReachabilityTest.class,
+                                      CommitGraphTest.class,
+                                      GarbageCollectorTest.class,
+                                      TraceTest.class, EventsTest.class,
+                                      BlobTest.class, SparseTest.class,
+                                      ChunkerTest.class, HasherTest.class,
+                                      DiffTest.class, BlameTest.class,
+                                      LogTest.class, PathBloomTest.class,
+                                      RemoteTest.class, StatCacheTest.class,
+                                      WalkerTest.class));
     }
 
     /** A dummy test to avoid complaint. */
@@ -20,6 +42,57 @@ public class UnitTest {
     public void placeholderTest() {
     }
 
-}
+    /** Return a new, empty working directory holding an initialized
+     * repository, selected with Main.setCWD. */
+    static File newRepo() {
+        File dir;
+        try {
+            dir = Files.createTempDirectory("gitlet-test").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Main.setCWD(dir);
+        Main.init();
+        return dir;
+    }
 
+    /** Write CONTENTS to the working file NAME.
+     * @param name file name.
+     * @param contents new contents. */
+    static void write(String name, String contents) {
+        Utils.writeContents(Utils.join(Main.getCWD(), name), contents);
+    }
+
+    /** Write CONTENTS to the working file NAME, add it and commit it, and
+     * return the id of its blob.
+     * @param name file name.
+     * @param contents new contents. */
+    static String commitFile(String name, String contents) {
+        write(name, contents);
+        Main.add(name);
+        Main.commit("add " + name);
+        return Main.getTree().getHeadCommit().getFilesTracked().get(name);
+    }
 
+    /** Return the contents of the working file NAME.
+     * @param name file name. */
+    static String read(String name) {
+        return Utils.readContentsAsString(Utils.join(Main.getCWD(), name));
+    }
+
+    /** Run the command ARGS in the current repository and return what it
+     * printed.
+     * @param args command and operands. */
+    static String output(String... args) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            Main.run(args);
+        } finally {
+            System.setOut(stdout);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+}
@@ -12,10 +12,7 @@ import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Formatter;
 import java.util.List;
 
 
@@ -32,25 +29,17 @@ class Utils {
     /** Returns the SHA-1 hash of the concatenation of VALS, which may
      *  be any mixture of byte arrays and Strings. */
     static String sha1(Object... vals) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            for (Object val : vals) {
-                if (val instanceof byte[]) {
-                    md.update((byte[]) val);
-                } else if (val instanceof String) {
-                    md.update(((String) val).getBytes(StandardCharsets.UTF_8));
-                } else {
-                    throw new IllegalArgumentException("improper type to sha1");
-                }
+        Hasher h = Hasher.start();
+        for (Object val : vals) {
+            if (val instanceof byte[]) {
+                h.update((byte[]) val);
+            } else if (val instanceof String) {
+                h.update((String) val);
+            } else {
+                throw new IllegalArgumentException("improper type to sha1");
             }
-            Formatter result = new Formatter();
-            for (byte b : md.digest()) {
-                result.format("%02x", b);
-            }
-            return result.toString();
-        } catch (NoSuchAlgorithmException excp) {
-            throw new IllegalArgumentException("System does not support SHA-1");
         }
+        return h.hex();
     }
 
     /** Returns the SHA-1 hash of the concatenation of the strings in
@@ -61,25 +50,35 @@ class Utils {
 
     /* FILE DELETION */
 
-    /** Deletes FILE if it exists and is not a directory.  Returns true
-     *  if FILE was deleted, and false otherwise.  Refuses to delete FILE
-     *  and throws IllegalArgumentException unless the directory designated by
-     *  FILE also contains a directory named .gitlet. */
+    /** Deletes FILE if it exists and is not a directory, and then any
+     *  directories it leaves empty, up to the working directory.  Returns
+     *  true if FILE was deleted, and false otherwise.  Refuses to delete
+     *  FILE and throws IllegalArgumentException unless the directory
+     *  designated by FILE, or one above it, contains a directory named
+     *  .gitlet. */
     static boolean restrictedDelete(File file) {
-        if (!(new File(file.getParentFile(), ".gitlet")).isDirectory()) {
+        File top = file.getAbsoluteFile().getParentFile();
+        while (top != null && !(new File(top, ".gitlet")).isDirectory()) {
+            top = top.getParentFile();
+        }
+        if (top == null) {
             throw new IllegalArgumentException("not .gitlet working directory");
         }
-        if (!file.isDirectory()) {
-            return file.delete();
-        } else {
+        if (file.isDirectory() || !file.delete()) {
             return false;
         }
+        File dir = file.getAbsoluteFile().getParentFile();
+        while (!dir.equals(top) && dir.delete()) {
+            dir = dir.getParentFile();
+        }
+        return true;
     }
 
     /** Deletes the file named FILE if it exists and is not a directory.
      *  Returns true if FILE was deleted, and false otherwise.  Refuses
      *  to delete FILE and throws IllegalArgumentException unless the
-     *  directory designated by FILE also contains a directory named .gitlet. */
+     *  directory designated by FILE, or one above it, contains a directory
+     *  named .gitlet. */
     static boolean restrictedDelete(String file) {
         return restrictedDelete(new File(file));
     }
@@ -94,7 +93,9 @@ class Utils {
             throw new IllegalArgumentException("must be a normal file");
         }
         try {
-            return Files.readAllBytes(file.toPath());
+            byte[] result = Files.readAllBytes(file.toPath());
+            Trace.bytesRead(result.length);
+            return result;
         } catch (IOException excp) {
             throw new IllegalArgumentException(excp.getMessage());
         }
@@ -120,11 +121,14 @@ class Utils {
             BufferedOutputStream str =
                 new BufferedOutputStream(Files.newOutputStream(file.toPath()));
             for (Object obj : contents) {
+                byte[] bytes;
                 if (obj instanceof byte[]) {
-                    str.write((byte[]) obj);
+                    bytes = (byte[]) obj;
                 } else {
-                    str.write(((String) obj).getBytes(StandardCharsets.UTF_8));
+                    bytes = ((String) obj).getBytes(StandardCharsets.UTF_8);
                 }
+                str.write(bytes);
+                Trace.bytesWritten(bytes.length);
             }
             str.close();
         } catch (IOException | ClassCastException excp) {
@@ -136,11 +140,24 @@ class Utils {
      *  Throws IllegalArgumentException in case of problems. */
     static <T extends Serializable> T readObject(File file,
                                                  Class<T> expectedClass) {
+        ObjectIOEvent event = new ObjectIOEvent();
+        event.begin();
         try {
             ObjectInputStream in =
                 new ObjectInputStream(new FileInputStream(file));
             T result = expectedClass.cast(in.readObject());
             in.close();
+            if (Trace.enabled()) {
+                Trace.objectRead(file.length());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "read";
+                event.id = file.getName();
+                event.type = expectedClass.getSimpleName();
+                event.size = file.length();
+                event.commit();
+            }
             return result;
         } catch (IOException | ClassCastException
                  | ClassNotFoundException excp) {
@@ -150,7 +167,19 @@ class Utils {
 
     /** Write OBJ to FILE. */
     static void writeObject(File file, Serializable obj) {
-        writeContents(file, serialize(obj));
+        ObjectIOEvent event = new ObjectIOEvent();
+        event.begin();
+        byte[] bytes = serialize(obj);
+        writeContents(file, bytes);
+        Trace.objectWritten();
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "write";
+            event.id = file.getName();
+            event.type = obj.getClass().getSimpleName();
+            event.size = bytes.length;
+            event.commit();
+        }
     }
 
     /* DIRECTORIES */
@@ -160,6 +189,9 @@ class Utils {
         new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
+                if (Trace.enabled() && dir.equals(Main.getCWD())) {
+                    Trace.stat(1);
+                }
                 return new File(dir, name).isFile();
             }
         };
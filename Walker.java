@@ -0,0 +1,154 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Finds the files of a working directory, at any depth. Each directory
+ * is listed by its own fork/join task, so large trees are read by all
+ * processors at once, and every entry is stat'ed once, as it is listed.
+ * Directories named .gitlet or ignored (see Ignore), and symbolic links
+ * to directories, are never entered, and ignored files are left out
+ * without being read. Files are named by their
+ * path from the top of the working directory, with "/" between the
+ * parts, which is how they are named in stages and commits.
+ * @author Pauline Tang */
+class Walker extends RecursiveAction {
+
+    /** Directory this task lists. */
+    private final Path _dir;
+
+    /** Path of _dir from the top, ending in "/", or "" for the top. */
+    private final String _prefix;
+
+    /** Files found by all tasks, with their attributes. */
+    private final Map<String, BasicFileAttributes> _files;
+
+    /** Ignore patterns. */
+    private final Ignore _ignore;
+
+    /** A task listing DIR, whose path from the top is PREFIX, and adding
+     * what it finds to FILES, except what IGNORE matches.
+     * @param dir directory.
+     * @param prefix path of DIR, ending in "/", or "".
+     * @param files files found.
+     * @param ignore ignore patterns. */
+    private Walker(Path dir, String prefix,
+                   Map<String, BasicFileAttributes> files, Ignore ignore) {
+        _dir = dir;
+        _prefix = prefix;
+        _files = files;
+        _ignore = ignore;
+    }
+
+    /** Return the plain files below ROOT, with their attributes, by path
+     * from ROOT.
+     * @param root top of the working directory. */
+    static Map<String, BasicFileAttributes> files(File root) {
+        return files(root, "");
+    }
+
+    /** Return the plain files below the directory DIR of the working
+     * directory ROOT, with their attributes, by path from ROOT.
+     * @param root top of the working directory.
+     * @param dir path of a directory from ROOT, or "" for ROOT. */
+    static Map<String, BasicFileAttributes> files(File root, String dir) {
+        Map<String, BasicFileAttributes> files =
+            new ConcurrentHashMap<String, BasicFileAttributes>();
+        Path start = root.toPath();
+        String prefix = "";
+        if (!dir.isEmpty()) {
+            start = start.resolve(dir);
+            prefix = dir + "/";
+        }
+        ForkJoinPool.commonPool().invoke(
+            new Walker(start, prefix, files, Ignore.get()));
+        return files;
+    }
+
+    /** Return true iff the directory at PATH (from the top) and everything
+     * below it are left out of the working tree, given the patterns
+     * IGNORE. Directories above PATH are assumed not to be.
+     * @param path path of a directory.
+     * @param ignore ignore patterns. */
+    static boolean pruned(String path, Ignore ignore) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return name.equals(".gitlet") || ignore.matches(path, true);
+    }
+
+    /** Return the path of P, a file below ROOT, from ROOT, with "/"
+     * between the parts.
+     * @param root top of the working directory.
+     * @param p file. */
+    static String relative(Path root, Path p) {
+        Path rel = root.relativize(p);
+        StringBuilder s = new StringBuilder();
+        for (Path part : rel) {
+            if (s.length() > 0) {
+                s.append('/');
+            }
+            s.append(part);
+        }
+        return s.toString();
+    }
+
+    @Override
+    protected void compute() {
+        List<Walker> subdirs = new ArrayList<Walker>();
+        int stats = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(_dir)) {
+            for (Path p : entries) {
+                String path = _prefix + p.getFileName();
+                BasicFileAttributes attrs =
+                    attributes(p, LinkOption.NOFOLLOW_LINKS);
+                stats += 1;
+                if (attrs != null && attrs.isSymbolicLink()) {
+                    attrs = attributes(p);
+                    if (attrs != null && attrs.isDirectory()) {
+                        continue;
+                    }
+                }
+                if (attrs == null) {
+                    continue;
+                } else if (attrs.isDirectory()) {
+                    if (!pruned(path, _ignore)) {
+                        subdirs.add(new Walker(p, path + "/", _files,
+                                               _ignore));
+                    }
+                } else if (attrs.isRegularFile()
+                           && !_ignore.matches(path, false)) {
+                    _files.put(path, attrs);
+                }
+            }
+        } catch (IOException e) {
+            return;
+        } finally {
+            Trace.stat(stats);
+        }
+        invokeAll(subdirs);
+    }
+
+    /** Return the attributes of P, following a symbolic link unless
+     * OPTIONS says not to, or null if P has gone.
+     * @param p file.
+     * @param options link options. */
+    private static BasicFileAttributes attributes(Path p,
+                                                  LinkOption... options) {
+        try {
+            return Files.readAttributes(p, BasicFileAttributes.class, options);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/** Tests of files in subdirectories and of the walker that finds them.
+ *  @author Pauline Tang
+ */
+public class WalkerTest {
+
+    /** Write CONTENTS to the working file NAME, creating the directories
+     * above it.
+     * @param name path of a file.
+     * @param contents new contents. */
+    private static void write(String name, String contents) {
+        Utils.join(Main.getCWD(), name).getParentFile().mkdirs();
+        UnitTest.write(name, contents);
+    }
+
+    /** Return the sorted paths of the files Walker finds below the
+     * directory DIR of the working directory, "" for the top.
+     * @param dir path of a directory. */
+    private static TreeSet<String> walk(String dir) {
+        return new TreeSet<String>(
+            Walker.files(Main.getCWD(), dir).keySet());
+    }
+
+    @Test
+    public void findsNestedFiles() throws IOException {
+        File dir = UnitTest.newRepo();
+        UnitTest.write(Ignore.FILENAME, "*.log\nbuild/\n");
+        write("a.txt", "a\n");
+        write("d/b.txt", "b\n");
+        write("d/e/c.txt", "c\n");
+        write("d/e/run.log", "log\n");
+        write("build/out.txt", "out\n");
+        Files.createSymbolicLink(Utils.join(dir, "link").toPath(),
+                                 Utils.join(dir, "d").toPath());
+        assertEquals(new TreeSet<String>(Arrays.asList(
+                         Ignore.FILENAME, "a.txt", "d/b.txt", "d/e/c.txt")),
+                     walk(""));
+        assertEquals(new TreeSet<String>(Arrays.asList(
+                         "d/b.txt", "d/e/c.txt")),
+                     walk("d"));
+    }
+
+    @Test
+    public void relativePaths() {
+        File dir = UnitTest.newRepo();
+        assertEquals("d/e/c.txt",
+                     Walker.relative(dir.toPath(),
+                                     Utils.join(dir, "d", "e", "c.txt")
+                                     .toPath()));
+        assertEquals("d/c.txt", Main.path("./d/e/../c.txt"));
+    }
+
+    @Test
+    public void commitAndCheckoutRoundTrip() {
+        File dir = UnitTest.newRepo();
+        write("d/e/c.txt", "c\n");
+        Main.run("add", "./d/e/../e/c.txt");
+        Main.run("commit", "add c");
+        assertTrue(Main.getTree().getHeadCommit().getFilesTracked()
+                   .containsKey("d/e/c.txt"));
+        Utils.join(dir, "d", "e", "c.txt").delete();
+        Utils.join(dir, "d", "e").delete();
+        Utils.join(dir, "d").delete();
+        Main.run("checkout", "--", "d/e/c.txt");
+        assertEquals("c\n", UnitTest.read("d/e/c.txt"));
+    }
+
+    @Test
+    public void branchSwitchPrunesDirectories() {
+        File dir = UnitTest.newRepo();
+        Main.run("branch", "side");
+        Main.run("checkout", "side");
+        write("d/e/c.txt", "c\n");
+        Main.run("add", "d/e/c.txt");
+        Main.run("commit", "add c");
+        Main.run("checkout", "master");
+        assertFalse(Utils.join(dir, "d").exists());
+        Main.run("checkout", "side");
+        assertEquals("c\n", UnitTest.read("d/e/c.txt"));
+    }
+
+    @Test
+    public void rmAndStatus() {
+        File dir = UnitTest.newRepo();
+        write("d/b.txt", "b\n");
+        write("d/e/c.txt", "c\n");
+        Main.run("add", "d/b.txt");
+        Main.run("add", "d/e/c.txt");
+        Main.run("commit", "add b and c");
+        write("d/b.txt", "changed\n");
+        write("d/f/g.txt", "g\n");
+        Main.run("rm", "d/e/c.txt");
+        assertFalse(Utils.join(dir, "d", "e").exists());
+        String out = UnitTest.output("status");
+        assertTrue(out, out.contains("=== Removed Files ===\nd/e/c.txt\n"));
+        assertTrue(out, out.contains("d/b.txt (modified)\n"));
+        assertTrue(out, out.contains("=== Untracked Files ===\nd/f/g.txt\n"));
+    }
+
+}
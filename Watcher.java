@@ -0,0 +1,321 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** The "watch" command: a helper process that watches the working
+ * directory and keeps, in .gitlet/watch, the paths changed since the
+ * commands that ran last, so that StatCache need not look at the others.
+ * It runs until killed, or until the repository is removed.
+ *
+ * Every batch of changes gets the next sequence number. A command scanning
+ * the working tree first "syncs": it writes a new token to
+ * .gitlet/watch-cookie and waits until the helper has seen that write,
+ * so that every change made before the command started is in the state
+ * it then reads. When done, it writes the sequence number it is now up
+ * to date with to .gitlet/watch-ack, and the helper forgets changes up to
+ * that number. If the operating system drops events (an overflow), the
+ * helper records that, and the next command looks at every file.
+ * @author Pauline Tang */
+class Watcher implements Serializable {
+
+    /** Fixed, since this state is stored. */
+    private static final long serialVersionUID = 4811235566721453117L;
+
+    /** Name of the sync file, in .gitlet. */
+    private static final String COOKIE = "watch-cookie";
+
+    /** Name of the acknowledgement file, in .gitlet. */
+    private static final String ACK = "watch-ack";
+
+    /** Longest time (ms) a command waits for the helper to sync. */
+    private static final long SYNC_TIMEOUT = 1000;
+
+    /** Identifies this run of the helper. */
+    private final String _session = UUID.randomUUID().toString();
+
+    /** Process id of the helper. */
+    private final long _pid = ProcessHandle.current().pid();
+
+    /** Sequence number of the latest batch of changes. */
+    private long _seq;
+
+    /** Sequence number of the latest overflow, or 0; Long.MAX_VALUE if
+     * part of the tree could not be watched. */
+    private long _overflow;
+
+    /** Last token read from the sync file. */
+    private String _cookie;
+
+    /** Sequence number of the latest change of each changed path not yet
+     * acknowledged. */
+    private HashMap<String, Long> _changed = new HashMap<String, Long>();
+
+    /** Runs "watch".
+     * @param args operands following "watch". */
+    static void watch(String... args) {
+        if (args.length != 0) {
+            throw Utils.error("Incorrect operands.");
+        }
+        if (current() != null) {
+            throw Utils.error("A watcher is already running.");
+        }
+        new Watcher().run();
+    }
+
+    /** Return the state of the live helper after it has seen every change
+     * made so far, or null if there is none or it does not answer. */
+    static Watcher sync() {
+        if (current() == null) {
+            return null;
+        }
+        String token = UUID.randomUUID().toString();
+        Utils.writeContents(Utils.join(Main.getGitletDir(), COOKIE), token);
+        long deadline = System.currentTimeMillis() + SYNC_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            Watcher w = current();
+            if (w == null) {
+                return null;
+            }
+            if (token.equals(w._cookie)) {
+                return w;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** Return the stored state of the live helper, or null if none. */
+    private static Watcher current() {
+        File f = Main.getWatchFile();
+        if (!f.exists()) {
+            return null;
+        }
+        Watcher w;
+        try {
+            w = Utils.readObject(f, Watcher.class);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        boolean alive = ProcessHandle.of(w._pid)
+            .map(ProcessHandle::isAlive).orElse(false);
+        return alive ? w : null;
+    }
+
+    /** Return the session identifying this run of the helper. */
+    String session() {
+        return _session;
+    }
+
+    /** Return the sequence number of the latest batch of changes. */
+    long seq() {
+        return _seq;
+    }
+
+    /** Return the sequence number of the latest overflow, or 0. */
+    long overflow() {
+        return _overflow;
+    }
+
+    /** Return the paths changed after batch SEQ.
+     * @param seq sequence number. */
+    List<String> changedSince(long seq) {
+        List<String> paths = new ArrayList<String>();
+        for (Map.Entry<String, Long> e : _changed.entrySet()) {
+            if (e.getValue() > seq) {
+                paths.add(e.getKey());
+            }
+        }
+        return paths;
+    }
+
+    /** Tell the helper that changes up to this state's sequence number
+     * have been seen. */
+    void ack() {
+        Utils.writeContents(Utils.join(Main.getGitletDir(), ACK),
+                            _session + " " + _seq);
+    }
+
+    /** Watch until the repository or working directory goes away. */
+    private void run() {
+        Path cwd = Main.getCWD().toPath();
+        Path gitlet = Main.getGitletDir().toPath();
+        File state = Main.getWatchFile();
+        try (WatchService ws = FileSystems.getDefault().newWatchService()) {
+            register(ws, cwd, cwd);
+            gitlet.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+            Runtime.getRuntime().addShutdownHook(new Thread(state::delete));
+            save();
+            boolean watching = true;
+            while (watching) {
+                boolean changed = false;
+                boolean synced = false;
+                Ignore ignore = Ignore.get();
+                for (WatchKey key = ws.poll(1, TimeUnit.SECONDS); key != null;
+                     key = ws.poll()) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> e : key.pollEvents()) {
+                        if (e.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            _overflow = Math.max(_overflow, _seq + 1);
+                            changed = true;
+                            continue;
+                        }
+                        Path child = dir.resolve((Path) e.context());
+                        String path = Walker.relative(cwd, child);
+                        if (dir.equals(gitlet)) {
+                            if (path.endsWith("/" + COOKIE)) {
+                                synced |= readCookie();
+                            } else if (path.endsWith("/" + ACK)) {
+                                readAck();
+                            }
+                            continue;
+                        }
+                        boolean isdir = Files.isDirectory(
+                            child, LinkOption.NOFOLLOW_LINKS);
+                        if (!path.equals(Ignore.FILENAME)
+                                && (isdir ? Walker.pruned(path, ignore)
+                                    : ignore.matches(path, false))) {
+                            continue;
+                        }
+                        _changed.put(path, _seq + 1);
+                        changed = true;
+                        if (path.equals(Ignore.FILENAME)) {
+                            ignore = Ignore.get();
+                            register(ws, cwd, cwd);
+                        } else if (isdir && e.kind()
+                                   == StandardWatchEventKinds.ENTRY_CREATE) {
+                            added(ws, cwd, child, path);
+                        }
+                    }
+                    if (!key.reset() && dir.equals(cwd)) {
+                        watching = false;
+                    }
+                }
+                if (changed) {
+                    _seq += 1;
+                }
+                if (changed || synced) {
+                    save();
+                }
+                watching &= Main.getGitletDir().isDirectory();
+            }
+        } catch (IOException | InterruptedException
+                 | ClosedWatchServiceException e) {
+            throw Utils.error("Watcher stopped: %s", e.getMessage());
+        }
+    }
+
+    /** Watch the new directory DIR, whose path from CWD is PATH, with WS,
+     * and count everything already in it as changed, since it may have
+     * been filled before it was watched.
+     * @param ws watch service.
+     * @param cwd top of the working directory.
+     * @param dir new directory.
+     * @param path path of DIR. */
+    private void added(WatchService ws, Path cwd, Path dir, String path)
+        throws IOException {
+        register(ws, cwd, dir);
+        for (String f : Walker.files(cwd.toFile(), path).keySet()) {
+            _changed.put(f, _seq + 1);
+        }
+    }
+
+    /** Watch DIR, below CWD, and every directory inside it that is not
+     * pruned, with WS; directories already watched stay so. If the system
+     * cannot watch them all, every scan will look at every file.
+     * @param ws watch service.
+     * @param cwd top of the working directory.
+     * @param dir directory. */
+    private void register(WatchService ws, Path cwd, Path dir)
+        throws IOException {
+        Ignore ignore = Ignore.get();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(
+                    Path d, BasicFileAttributes attrs) {
+                if (!d.equals(cwd)
+                        && Walker.pruned(Walker.relative(cwd, d), ignore)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                try {
+                    d.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                               StandardWatchEventKinds.ENTRY_DELETE,
+                               StandardWatchEventKinds.ENTRY_MODIFY);
+                } catch (IOException e) {
+                    _overflow = Long.MAX_VALUE;
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path f, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /** Read the sync token, and return true iff it is new. */
+    private boolean readCookie() {
+        File f = Utils.join(Main.getGitletDir(), COOKIE);
+        String token = f.exists() ? Utils.readContentsAsString(f) : null;
+        if (token == null || token.equals(_cookie)) {
+            return false;
+        }
+        _cookie = token;
+        return true;
+    }
+
+    /** Forget changes acknowledged in the acknowledgement file. */
+    private void readAck() {
+        File f = Utils.join(Main.getGitletDir(), ACK);
+        String[] ack = f.exists()
+            ? Utils.readContentsAsString(f).split(" ") : new String[0];
+        if (ack.length == 2 && ack[0].equals(_session)) {
+            long seq = Long.parseLong(ack[1]);
+            _changed.values().removeIf(s -> s <= seq);
+        }
+    }
+
+    /** Store this state, replacing the old one in one step, so that a
+     * command never reads half of it. */
+    private void save() {
+        File f = Main.getWatchFile();
+        File tmp = Utils.join(Main.getGitletDir(), "watch.tmp");
+        Utils.writeObject(tmp, this);
+        try {
+            Files.move(tmp.toPath(), f.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Utils.error("Cannot save watcher state: %s",
+                              e.getMessage());
+        }
+    }
+
+}
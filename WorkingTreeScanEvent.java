@@ -0,0 +1,34 @@
+package gitlet;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for one scan of the working directory.
+ * @author Pauline Tang */
+@Name("gitlet.WorkingTreeScan")
+@Label("Working Tree Scan")
+@Category({"Gitlet", "Working Tree"})
+@Description("A pass over the files of the working directory")
+class WorkingTreeScanEvent extends jdk.jfr.Event {
+
+    /** What the scan was for, e.g. "untracked" or "modified". */
+    @Label("Purpose")
+    String purpose;
+
+    /** Number of working files looked at. */
+    @Label("Files Scanned")
+    int files;
+
+    /** Number of working files whose contents were read. */
+    @Label("Files Read")
+    int filesRead;
+
+    /** Bytes of working-file contents read. */
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+}
@@ -0,0 +1,16 @@
+package gitlet;
+
+import ucb.junit.textui;
+
+/** The suite of JUnit tests of the benchmark fixtures.
+ *  @author Pauline Tang
+ */
+public class BenchTest {
+
+    /** Run the JUnit tests of the benchmark fixtures. */
+    public static void main(String[] ignored) {
+        System.exit(textui.runClasses(RepoFixtureTest.class,
+                                      RepoGeneratorTest.class));
+    }
+
+}
@@ -0,0 +1,128 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Formatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Benchmarks of Utils.sha1, which names every blob and commit, and of
+ * Hasher.blobId, which hashes a working file without reading it into a
+ * String, each against the implementation they replaced (legacySha1: a
+ * new MessageDigest per hash and hex digits through Formatter).
+ * @author Pauline Tang */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashingBenchmark {
+
+    /** Length of the hashed contents (JMH parameter "size"). */
+    @Param({"64", "4096", "1048576", "67108864"})
+    public int size;
+
+    /** Contents to hash, as a String. */
+    private String _contents;
+
+    /** Contents to hash, as bytes. */
+    private byte[] _bytes;
+
+    /** File holding the contents. */
+    private File _file;
+
+    /** Build the contents. */
+    @Setup
+    public void setup() {
+        Random r = new Random(size);
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i += 1) {
+            sb.append((char) ('a' + r.nextInt(26)));
+        }
+        _contents = sb.toString();
+        _bytes = _contents.getBytes(StandardCharsets.UTF_8);
+        try {
+            _file = File.createTempFile("hashing", ".txt");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        Utils.writeContents(_file, _bytes);
+    }
+
+    /** Remove the file. */
+    @TearDown
+    public void teardown() throws IOException {
+        Files.deleteIfExists(_file.toPath());
+    }
+
+    /** Hash a file name and String contents, as Blob does.
+     * @return hash. */
+    @Benchmark
+    public String sha1String() {
+        return Utils.sha1("file.txt", _contents);
+    }
+
+    /** Hash raw bytes.
+     * @return hash. */
+    @Benchmark
+    public String sha1Bytes() {
+        return Utils.sha1(_bytes);
+    }
+
+    /** Hash a file name and String contents the old way.
+     * @return hash. */
+    @Benchmark
+    public String legacySha1String() {
+        return legacySha1("file.txt", _contents);
+    }
+
+    /** Hash a working file as status does, streaming it.
+     * @return hash. */
+    @Benchmark
+    public String blobIdFile() {
+        return Hasher.blobId("file.txt", _file);
+    }
+
+    /** Hash a working file as status used to, reading it into a String.
+     * @return hash. */
+    @Benchmark
+    public String legacyBlobIdFile() {
+        return legacySha1("file.txt", Utils.readContentsAsString(_file));
+    }
+
+    /** Utils.sha1 as it was before Hasher, kept for comparison.
+     * @param vals byte arrays and Strings.
+     * @return hash. */
+    static String legacySha1(Object... vals) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            for (Object val : vals) {
+                if (val instanceof byte[]) {
+                    md.update((byte[]) val);
+                } else {
+                    md.update(((String) val).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            Formatter result = new Formatter();
+            for (byte b : md.digest()) {
+                result.format("%02x", b);
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalArgumentException("System does not support SHA-1");
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/** Throwaway repositories for the benchmarks.
+ * @author Pauline Tang */
+class RepoFixture {
+
+    /** Name of the branch split off halfway through the history. */
+    static final String OTHER_BRANCH = "other";
+
+    /** Standard output, saved while benchmarks silence it. */
+    private static final PrintStream STDOUT = System.out;
+
+    /** Return a new working directory, selected with Main.setCWD, holding
+     * a repository with FILES files of about FILESIZE bytes each and
+     * COMMITS commits on master, each after the first changing one file.
+     * Branch OTHER_BRANCH points at the commit halfway along.
+     * @param files number of tracked files.
+     * @param commits number of commits after the initial one.
+     * @param filesize approximate bytes per file. */
+    static File create(int files, int commits, int filesize) {
+        File dir;
+        try {
+            dir = Files.createTempDirectory("gitlet-bench").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Main.setCWD(dir);
+        Main.init();
+        for (int i = 0; i < files; i += 1) {
+            write(fileName(i), 0, filesize);
+            Main.add(fileName(i));
+        }
+        Main.commit("commit 0");
+        for (int c = 1; c < commits; c += 1) {
+            if (c == commits / 2) {
+                Main.branch(OTHER_BRANCH);
+            }
+            write(fileName(c % files), c, filesize);
+            Main.add(fileName(c % files));
+            Main.commit("commit " + c);
+        }
+        if (commits < 2) {
+            Main.branch(OTHER_BRANCH);
+        }
+        return dir;
+    }
+
+    /** Return the name of the Ith file.
+     * @param i file number. */
+    static String fileName(int i) {
+        return String.format("f%06d.txt", i);
+    }
+
+    /** Write revision REV of file NAME, about SIZE bytes long, into the
+     * current working directory.
+     * @param name file name.
+     * @param rev revision number, changing the contents.
+     * @param size approximate length. */
+    static void write(String name, int rev, int size) {
+        StringBuilder sb = new StringBuilder(size + 32);
+        while (sb.length() < size) {
+            sb.append(name).append(" revision ").append(rev).append('\n');
+        }
+        Utils.writeContents(Utils.join(Main.getCWD(), name), sb.toString());
+    }
+
+    /** Discard anything written to System.out until restoreOutput. */
+    static void silenceOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /** Undo silenceOutput. */
+    static void restoreOutput() {
+        System.setOut(STDOUT);
+    }
+
+    /** Remove DIR and everything under it.
+     * @param dir directory made by create. */
+    static void delete(File dir) {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder())
+                .map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+/** Tests of the throwaway repositories the benchmarks run on.
+ *  @author Pauline Tang
+ */
+public class RepoFixtureTest {
+
+    @Test
+    public void shape() {
+        File dir = RepoFixture.create(4, 6, 100);
+        try {
+            Commit c = Main.getTree().getHeadCommit();
+            assertEquals("commit 5", c.getMessage());
+            assertEquals(4, c.getFilesTracked().size());
+            int commits = 0;
+            for (; c != null; c = c.getParent()) {
+                commits += 1;
+            }
+            assertEquals(7, commits);
+            String other =
+                Branch.getBranch(RepoFixture.OTHER_BRANCH).getHeadCommit();
+            assertEquals("commit 2", Commit.getCommit(other).getMessage());
+            String name = RepoFixture.fileName(1);
+            String contents = Utils.readContentsAsString(
+                Utils.join(Main.getCWD(), name));
+            assertTrue(contents.length() >= 100);
+            assertTrue(contents, contents.startsWith(name + " revision 5\n"));
+        } finally {
+            RepoFixture.delete(dir);
+        }
+        assertFalse(dir.exists());
+    }
+
+}
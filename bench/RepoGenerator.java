@@ -0,0 +1,215 @@
+package gitlet;
+
+import java.io.File;
+import java.util.Random;
+
+/** Builds synthetic repositories of a controlled shape: N files, M commits
+ * spread over B branches, with configurable file-size and churn
+ * distributions.
+ *
+ * Usage: java gitlet.RepoGenerator [OPTION=VALUE ...] DIR
+ * where the options, all optional, are
+ *     --files=N         tracked files (100)
+ *     --commits=M       commits after the initial one (100)
+ *     --branches=B      branches, including master (1)
+ *     --size=BYTES      mean file size (1024)
+ *     --size-dist=D     fixed, uniform (0 to 2x the mean) or pareto (heavy
+ *                       tailed, as in real source trees) (fixed)
+ *     --churn=K         files changed per commit (1)
+ *     --churn-dist=D    uniform, or hot (80% of changes hit 20% of the
+ *                       files) (uniform)
+ *     --seed=S          random seed (1)
+ * DIR must not already contain a repository.
+ *
+ * The first commit adds every file on master. The remaining commits are
+ * split into B equal segments: the first is made on master, and each
+ * later one on a new branch started from master's head.
+ * @author Pauline Tang */
+class RepoGenerator {
+
+    /** Number of tracked files. */
+    private int _files = 100;
+
+    /** Number of commits after the initial one. */
+    private int _commits = 100;
+
+    /** Number of branches, including master. */
+    private int _branches = 1;
+
+    /** Mean file size in bytes. */
+    private int _size = 1024;
+
+    /** File-size distribution. */
+    private String _sizedist = "fixed";
+
+    /** Files changed per commit. */
+    private int _churn = 1;
+
+    /** Churn distribution. */
+    private String _churndist = "uniform";
+
+    /** Source of randomness. */
+    private Random _random = new Random(1);
+
+    /** Size of each file. */
+    private int[] _sizes;
+
+    /** Current revision of each file. */
+    private int[] _revs;
+
+    /** Generate the repository described by ARGS.
+     * @param args options followed by the target directory. */
+    public static void main(String... args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java gitlet.RepoGenerator "
+                    + "[--OPTION=VALUE ...] DIR");
+            System.exit(1);
+        }
+        RepoGenerator gen = new RepoGenerator();
+        for (int i = 0; i < args.length - 1; i += 1) {
+            gen.set(args[i]);
+        }
+        File dir = new File(args[args.length - 1]);
+        dir.mkdirs();
+        gen.generate(dir);
+    }
+
+    /** Apply the option OPTION, of the form --NAME=VALUE.
+     * @param option command-line option.
+     * @return this generator. */
+    RepoGenerator set(String option) {
+        int eq = option.indexOf('=');
+        if (!option.startsWith("--") || eq < 0) {
+            throw new IllegalArgumentException("bad option: " + option);
+        }
+        String name = option.substring(2, eq);
+        String value = option.substring(eq + 1);
+        switch (name) {
+        case "files":
+            _files = Math.max(1, Integer.parseInt(value));
+            break;
+        case "commits":
+            _commits = Integer.parseInt(value);
+            break;
+        case "branches":
+            _branches = Math.max(1, Integer.parseInt(value));
+            break;
+        case "size":
+            _size = Integer.parseInt(value);
+            break;
+        case "size-dist":
+            _sizedist = value;
+            break;
+        case "churn":
+            _churn = Math.max(1, Integer.parseInt(value));
+            break;
+        case "churn-dist":
+            _churndist = value;
+            break;
+        case "seed":
+            _random = new Random(Long.parseLong(value));
+            break;
+        default:
+            throw new IllegalArgumentException("unknown option: " + name);
+        }
+        return this;
+    }
+
+    /** Return the number of branches this generator makes. */
+    int branches() {
+        return _branches;
+    }
+
+    /** Build the repository in DIR, leaving master checked out and DIR
+     * selected with Main.setCWD.
+     * @param dir working directory. */
+    void generate(File dir) {
+        RepoFixture.silenceOutput();
+        try {
+            Main.setCWD(dir);
+            Main.init();
+            _sizes = new int[_files];
+            _revs = new int[_files];
+            for (int i = 0; i < _files; i += 1) {
+                _sizes[i] = fileSize();
+                RepoFixture.write(RepoFixture.fileName(i), 0, _sizes[i]);
+                Main.add(RepoFixture.fileName(i));
+            }
+            Main.commit("generated files");
+
+            int made = 0;
+            for (int b = 0; b < _branches; b += 1) {
+                if (b > 0) {
+                    if (b > 1) {
+                        Main.checkoutBranch("master");
+                    }
+                    Main.branch(branchName(b));
+                    Main.checkoutBranch(branchName(b));
+                }
+                int end = (int) ((long) _commits * (b + 1) / _branches);
+                for (; made < end; made += 1) {
+                    change();
+                    Main.commit("generated commit " + made);
+                }
+            }
+            if (_branches > 1) {
+                Main.checkoutBranch("master");
+            }
+        } finally {
+            RepoFixture.restoreOutput();
+        }
+    }
+
+    /** Return the name of the Bth branch.
+     * @param b branch number, from 0 (master). */
+    static String branchName(int b) {
+        return b == 0 ? "master" : "branch-" + b;
+    }
+
+    /** Modify and stage the files changed by one commit. */
+    private void change() {
+        for (int k = 0; k < Math.min(_churn, _files); k += 1) {
+            int i = churnedFile();
+            _revs[i] += 1;
+            RepoFixture.write(RepoFixture.fileName(i), _revs[i], _sizes[i]);
+            Main.add(RepoFixture.fileName(i));
+        }
+    }
+
+    /** Return a file size drawn from the size distribution. */
+    private int fileSize() {
+        switch (_sizedist) {
+        case "fixed":
+            return _size;
+        case "uniform":
+            return _random.nextInt(2 * _size + 1);
+        case "pareto":
+            double alpha = 1.5;
+            double min = _size * (alpha - 1) / alpha;
+            double u = 1 - _random.nextDouble();
+            return (int) Math.min(Integer.MAX_VALUE / 2,
+                                  min / Math.pow(u, 1 / alpha));
+        default:
+            throw new IllegalArgumentException("unknown size distribution: "
+                    + _sizedist);
+        }
+    }
+
+    /** Return the index of a file drawn from the churn distribution. */
+    private int churnedFile() {
+        switch (_churndist) {
+        case "uniform":
+            return _random.nextInt(_files);
+        case "hot":
+            int hot = Math.max(1, _files / 5);
+            if (_random.nextDouble() < 0.8 || hot == _files) {
+                return _random.nextInt(hot);
+            }
+            return hot + _random.nextInt(_files - hot);
+        default:
+            throw new IllegalArgumentException("unknown churn distribution: "
+                    + _churndist);
+        }
+    }
+
+}
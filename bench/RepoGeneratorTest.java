@@ -0,0 +1,125 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/** Tests of the synthetic repository generator and the scaling runner.
+ *  @author Pauline Tang
+ */
+public class RepoGeneratorTest {
+
+    /** Return a new, empty directory. */
+    private static File tempDir() {
+        try {
+            return Files.createTempDirectory("gitlet-generator").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Generate a repository with OPTIONS in a new directory, and return
+     * the directory.
+     * @param options generator options. */
+    private static File generate(String... options) {
+        RepoGenerator gen = new RepoGenerator();
+        for (String option : options) {
+            gen.set(option);
+        }
+        File dir = tempDir();
+        gen.generate(dir);
+        return dir;
+    }
+
+    /** Return the number of commits in the history of commit COMMITID,
+     * including the initial commit.
+     * @param commitid full commit hash. */
+    private static int historyLength(String commitid) {
+        int n = 0;
+        for (Commit c = Commit.getCommit(commitid); c != null;
+             c = c.getParent()) {
+            n += 1;
+        }
+        return n;
+    }
+
+    @Test
+    public void shape() {
+        File dir = generate("--files=4", "--commits=6", "--branches=3",
+                            "--churn=2", "--seed=7");
+        try {
+            assertEquals("master", Main.getTree().getHeadBranch());
+            assertEquals(3, Branch.names().size());
+            String master = Branch.getBranch("master").getHeadCommit();
+            assertEquals(4, historyLength(master));
+            assertEquals(4, Commit.getCommit(master).getFilesTracked().size());
+            for (int b = 1; b < 3; b += 1) {
+                String head =
+                    Branch.getBranch(RepoGenerator.branchName(b))
+                    .getHeadCommit();
+                assertEquals(6, historyLength(head));
+                Commit c = Commit.getCommit(head);
+                assertEquals("generated commit " + (2 * b + 1),
+                             c.getMessage());
+                assertEquals(master, c.getParent().getParentHash());
+            }
+        } finally {
+            RepoFixture.delete(dir);
+        }
+    }
+
+    @Test
+    public void seedRepeats() {
+        String[] options = {"--files=5", "--commits=8", "--size=50",
+                            "--size-dist=pareto", "--churn-dist=hot",
+                            "--seed=3"};
+        File one = generate(options);
+        File two = generate(options);
+        try {
+            for (int i = 0; i < 5; i += 1) {
+                String name = RepoFixture.fileName(i);
+                assertEquals(
+                    Utils.readContentsAsString(Utils.join(one, name)),
+                    Utils.readContentsAsString(Utils.join(two, name)));
+            }
+        } finally {
+            RepoFixture.delete(one);
+            RepoFixture.delete(two);
+        }
+    }
+
+    @Test
+    public void rejectsUnknownOption() {
+        try {
+            new RepoGenerator().set("--colour=blue");
+            fail("accepted an unknown option");
+        } catch (IllegalArgumentException e) {
+            assertEquals("unknown option: colour", e.getMessage());
+        }
+    }
+
+    @Test
+    public void scalingCsv() throws IOException {
+        File out = File.createTempFile("gitlet-scaling", ".csv");
+        try {
+            ScalingRunner.main("--vary=files", "--sizes=2,4", "--repeat=1",
+                               "--commits=2", "--out=" + out.getPath());
+            List<String> lines = Files.readAllLines(out.toPath());
+            assertEquals("command,axis,size,median_ms,min_ms,exponent",
+                         lines.get(0));
+            assertEquals(1 + 2 * 7, lines.size());
+            assertTrue(lines.get(1),
+                       lines.get(1).startsWith("status,files,2,"));
+            assertTrue(lines.get(8),
+                       lines.get(8).startsWith("status,files,4,"));
+        } finally {
+            out.delete();
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Benchmarks of the repository-level hot paths, run against repositories
+ * of several sizes. Each benchmark gets a fresh repository per trial;
+ * add, commit and checkoutBranch change it as they go, alternating
+ * between two states so every invocation does the same amount of work.
+ * @author Pauline Tang */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RepositoryBenchmark {
+
+    /** Tracked files (JMH parameter "files"). */
+    @Param({"10", "100", "1000"})
+    public int files;
+
+    /** Commits on master (JMH parameter "commits"). */
+    @Param({"10", "100", "1000"})
+    public int commits;
+
+    /** Bytes per file (JMH parameter "filesize"). */
+    @Param({"1024"})
+    public int filesize;
+
+    /** Repository under test. */
+    private File _repo;
+
+    /** Head commit of master when the trial started. */
+    private String _head;
+
+    /** Number of operations so far, used to vary contents. */
+    private int _count;
+
+    /** Build the repository. */
+    @Setup(Level.Trial)
+    public void setup() {
+        _repo = RepoFixture.create(files, commits, filesize);
+        _head = Branch.getBranch("master").getHeadCommit();
+        RepoFixture.silenceOutput();
+    }
+
+    /** Remove the repository. */
+    @TearDown(Level.Trial)
+    public void teardown() {
+        RepoFixture.restoreOutput();
+        RepoFixture.delete(_repo);
+    }
+
+    /** Change the first file, so that there is always something to add
+     * and commit, and drop what earlier invocations cached (commits, the
+     * object index and so on), as each gitlet command runs in a new
+     * process. */
+    @Setup(Level.Invocation)
+    public void touch() {
+        Main.setCWD(_repo);
+        _count += 1;
+        RepoFixture.write(RepoFixture.fileName(0), -_count, filesize);
+    }
+
+    /** Load the head commit.
+     * @return commit. */
+    @Benchmark
+    public Commit getCommit() {
+        return Commit.getCommit(_head);
+    }
+
+    /** Compute the untracked files against master.
+     * @return untracked file names. */
+    @Benchmark
+    public ArrayList<String> getUntracked() {
+        return Main.getStage().getUntracked("master");
+    }
+
+    /** Stage a changed file. */
+    @Benchmark
+    public void add() {
+        Main.add(RepoFixture.fileName(0));
+    }
+
+    /** Stage and commit a changed file. */
+    @Benchmark
+    public void commit() {
+        Main.add(RepoFixture.fileName(0));
+        Main.commit("bench " + _count);
+    }
+
+    /** Print the log of the head commit. */
+    @Benchmark
+    public void log() {
+        Main.log();
+    }
+
+    /** Switch to the other branch, and back on the next invocation. */
+    @Benchmark
+    public void checkoutBranch() {
+        if (Main.getTree().getHeadBranch().equals("master")) {
+            Main.checkoutBranch(RepoFixture.OTHER_BRANCH);
+        } else {
+            Main.checkoutBranch("master");
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Macro-benchmark: times each Main command on generated repositories
+ * of growing size and prints the scaling curves as CSV.
+ *
+ * Usage: java gitlet.ScalingRunner --vary=AXIS --sizes=N1,N2,...
+ *            [--repeat=R] [--out=FILE] [GENERATOR OPTIONS ...]
+ * AXIS is files, commits or branches; for each size Ni a repository is
+ * generated (see RepoGenerator, whose options set the other dimensions)
+ * and every command is run R times (5) after one warm-up run. Each CSV
+ * row gives the median and minimum time of one command at one size, and
+ * its scaling exponent: log(t / t') / log(n / n') against the previous
+ * size, where 1 means linear and anything well above 1 is super-linear.
+ * @author Pauline Tang */
+class ScalingRunner {
+
+    /** Commands timed, by label. Mutating commands come last, and leave
+     * the repository in the shape they found it, give or take a commit. */
+    private static final String[] COMMANDS = {
+        "status", "log", "global-log", "find", "reset", "checkout-branch",
+        "add", "commit",
+    };
+
+    /** Run the sweep described by ARGS.
+     * @param args command-line options. */
+    public static void main(String... args) throws IOException {
+        String axis = "files";
+        int[] sizes = {10, 100, 1000};
+        int repeat = 5;
+        PrintStream out = System.out;
+        List<String> genopts = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.startsWith("--vary=")) {
+                axis = arg.substring("--vary=".length());
+            } else if (arg.startsWith("--sizes=")) {
+                sizes = Arrays.stream(arg.substring(8).split(","))
+                    .mapToInt(Integer::parseInt).toArray();
+            } else if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--out=")) {
+                out = new PrintStream(new File(arg.substring(6)));
+            } else {
+                genopts.add(arg);
+            }
+        }
+
+        out.println("command,axis,size,median_ms,min_ms,exponent");
+        Map<String, double[]> previous = new LinkedHashMap<String, double[]>();
+        for (int size : sizes) {
+            RepoGenerator gen = new RepoGenerator();
+            for (String opt : genopts) {
+                gen.set(opt);
+            }
+            gen.set("--" + axis + "=" + size);
+            File dir = Files.createTempDirectory("gitlet-scaling").toFile();
+            gen.generate(dir);
+            try {
+                for (String command : COMMANDS) {
+                    if (command.equals("checkout-branch")
+                            && gen.branches() < 2) {
+                        continue;
+                    }
+                    double[] times = time(command, repeat);
+                    Arrays.sort(times);
+                    double median = times[times.length / 2];
+                    String exponent = "";
+                    double[] prev = previous.get(command);
+                    if (prev != null && prev[1] > 0 && size != prev[0]) {
+                        exponent = String.format("%.2f",
+                            Math.log(median / prev[1])
+                            / Math.log(size / prev[0]));
+                    }
+                    previous.put(command, new double[] {size, median});
+                    out.printf("%s,%s,%d,%.3f,%.3f,%s%n", command, axis,
+                               size, median, times[0], exponent);
+                }
+            } finally {
+                RepoFixture.delete(dir);
+            }
+        }
+        out.flush();
+    }
+
+    /** Return REPEAT timings, in ms, of COMMAND on the current repository,
+     * after one untimed warm-up run.
+     * @param command label from COMMANDS.
+     * @param repeat number of timed runs. */
+    private static double[] time(String command, int repeat) {
+        double[] times = new double[repeat];
+        RepoFixture.silenceOutput();
+        try {
+            for (int i = -1; i < repeat; i += 1) {
+                long start = System.nanoTime();
+                run(command, i);
+                double ms = (System.nanoTime() - start) / 1e6;
+                if (i >= 0) {
+                    times[i] = ms;
+                }
+            }
+        } finally {
+            RepoFixture.restoreOutput();
+        }
+        return times;
+    }
+
+    /** Run the Nth repetition of COMMAND through Main.main. For add and
+     * commit, the timing includes writing the small change they stage;
+     * checkout-branch switches to branch-1 and back.
+     * @param command label from COMMANDS.
+     * @param n repetition number. */
+    private static void run(String command, int n) {
+        String head = Branch.getBranch(Main.getTree().getHeadBranch())
+            .getHeadCommit();
+        switch (command) {
+        case "find":
+            Main.main("find", "generated commit 0");
+            break;
+        case "reset":
+            Main.main("reset", head);
+            break;
+        case "checkout-branch":
+            Main.main("checkout", RepoGenerator.branchName(1));
+            Main.main("checkout", "master");
+            break;
+        case "add":
+            RepoFixture.write(RepoFixture.fileName(0), -2 - n, 64);
+            Main.main("add", RepoFixture.fileName(0));
+            break;
+        case "commit":
+            RepoFixture.write(RepoFixture.fileName(0), 1000000 + n, 64);
+            Main.main("add", RepoFixture.fileName(0));
+            Main.main("commit", "scaling commit " + System.nanoTime());
+            break;
+        default:
+            Main.main(command);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package gitlet;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Benchmarks of reading and writing the objects gitlet actually stores:
+ * commits (through Utils.readObject and Utils.writeObject), whose size
+ * grows with the number of tracked files, and blobs (through Blob.getBlob,
+ * Blob.saveBlob and Blob.copyTo), whose size grows with the file.
+ * @author Pauline Tang */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    /** Files tracked by the commit (JMH parameter "files"). */
+    @Param({"10", "1000", "10000"})
+    public int files;
+
+    /** Bytes in the blob (JMH parameter "blobsize"). */
+    @Param({"1024", "1048576"})
+    public int blobsize;
+
+    /** Repository holding the objects. */
+    private File _repo;
+
+    /** Serialized head commit. */
+    private File _commitfile;
+
+    /** Scratch file for writes. */
+    private File _scratch;
+
+    /** Deserialized head commit. */
+    private Commit _commit;
+
+    /** Deserialized blob. */
+    private Blob _blob;
+
+    /** Build a one-commit repository and one large blob. */
+    @Setup
+    public void setup() {
+        _repo = RepoFixture.create(files, 1, 16);
+        String head = Branch.getBranch("master").getHeadCommit();
+        _commitfile = Utils.join(Main.getCommitsFolder(), head);
+        _commit = Commit.getCommit(head);
+
+        RepoFixture.write("big.bin", 0, blobsize);
+        File big = Utils.join(Main.getCWD(), "big.bin");
+        _blob = new Blob("big.bin", Utils.readContentsAsString(big));
+        _blob.saveBlob();
+        _scratch = Utils.join(Main.getGitletDir(), "scratch");
+    }
+
+    /** Remove the repository. */
+    @TearDown
+    public void teardown() {
+        RepoFixture.delete(_repo);
+    }
+
+    /** Read the head commit.
+     * @return commit. */
+    @Benchmark
+    public Commit readCommit() {
+        return Utils.readObject(_commitfile, Commit.class);
+    }
+
+    /** Write the head commit. */
+    @Benchmark
+    public void writeCommit() {
+        Utils.writeObject(_scratch, _commit);
+    }
+
+    /** Read the blob.
+     * @return blob. */
+    @Benchmark
+    public Blob readBlob() {
+        return Blob.getBlob(_blob.getIdentifier());
+    }
+
+    /** Write the blob.
+     * @param stored the blob, removed from the store beforehand. */
+    @Benchmark
+    public void writeBlob(StoredBlob stored) {
+        stored._blob.saveBlob();
+    }
+
+    /** Copy the blob's contents out to a working file. */
+    @Benchmark
+    public void checkoutBlob() {
+        Blob.copyTo(_blob.getIdentifier(), _scratch);
+    }
+
+    /** The blob written by writeBlob, whose file is deleted before each
+     * invocation: saveBlob skips a blob already stored, and would
+     * otherwise measure only that check. */
+    @State(Scope.Benchmark)
+    public static class StoredBlob {
+
+        /** The blob. */
+        private Blob _blob;
+
+        /** Its file in the object store. */
+        private File _file;
+
+        /** Take the blob of BENCH.
+         * @param bench the benchmark state, already set up. */
+        @Setup(Level.Trial)
+        public void setup(SerializationBenchmark bench) {
+            _blob = bench._blob;
+            _file = Utils.join(Main.getBlobsFolder(), _blob.getIdentifier());
+        }
+
+        /** Remove the blob from the store. */
+        @Setup(Level.Invocation)
+        public void remove() {
+            _file.delete();
+        }
+    }
+
+}